@@ -0,0 +1,40 @@
+package com.bootcamp.transactions.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.bootcamp.transactions.domain.Client;
+import com.bootcamp.transactions.service.RequestCoalescer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache configuration class. Builds the bounded client cache used by read-through lookups and
+ * publishes its hit, miss and eviction counters as {@code cache.*} metrics tagged
+ * {@code cache=clients}. Misses go through a single-flight coalescer so concurrent lookups of the
+ * same client share one MongoDB query. Both are keyed by client id, the only per-client lookup the
+ * service exposes.
+ */
+@Configuration
+@EnableConfigurationProperties(ClientCacheProperties.class)
+public class CacheConfig {
+
+  public static final String CLIENT_CACHE_NAME = "clients";
+
+  @Bean
+  public Cache<String, Client> clientCache(ClientCacheProperties properties,
+      MeterRegistry meterRegistry) {
+    Cache<String, Client> cache = Caffeine.newBuilder().maximumSize(properties.getMaximumSize())
+        .expireAfterWrite(properties.getTtl()).recordStats().build();
+    return CaffeineCacheMetrics.monitor(meterRegistry, cache, CLIENT_CACHE_NAME);
+  }
+
+  @Bean
+  public RequestCoalescer<String, Client> clientByIdCoalescer(MeterRegistry meterRegistry) {
+    return new RequestCoalescer<>("findById", meterRegistry);
+  }
+}
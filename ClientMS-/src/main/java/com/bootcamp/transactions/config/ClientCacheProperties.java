@@ -0,0 +1,21 @@
+package com.bootcamp.transactions.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Sizing of the in-process client cache, bound from {@code client.cache.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "client.cache")
+public class ClientCacheProperties {
+
+  /** Maximum number of clients kept in memory before the least recently used are evicted. */
+  private long maximumSize = 10_000;
+
+  /** Time after which a cached client is reloaded from MongoDB. */
+  private Duration ttl = Duration.ofMinutes(5);
+}
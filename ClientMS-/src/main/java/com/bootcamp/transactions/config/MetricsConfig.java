@@ -0,0 +1,23 @@
+package com.bootcamp.transactions.config;
+
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Metrics configuration class. Spring Boot already publishes HTTP latency
+ * ({@code http.server.requests}), repository method timers ({@code spring.data.repository.*}),
+ * MongoDB command latency ({@code mongodb.driver.commands}) and connection pool gauges
+ * ({@code mongodb.driver.pool.*}); this adds the number of documents returned per read command.
+ */
+@Configuration
+public class MetricsConfig {
+
+  @Bean
+  public MongoClientSettingsBuilderCustomizer mongoDocumentsMetricsCustomizer(
+      MeterRegistry meterRegistry) {
+    return builder -> builder.addCommandListener(new MongoDocumentsCommandListener(meterRegistry));
+  }
+}
@@ -1,13 +1,13 @@
 package com.bootcamp.transactions.config;
 
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.config.EnableReactiveMongoAuditing;
 
 /**
  * MongoDB configuration class. Enables MongoDB auditing for automatic timestamp management.
  */
 @Configuration
-@EnableMongoAuditing
+@EnableReactiveMongoAuditing
 public class MongoConfig {
   // Auditing is enabled automatically for @CreatedDate and @LastModifiedDate annotations
 }
@@ -1,12 +1,21 @@
 package com.bootcamp.transactions.controller;
 
-import java.util.List;
+import java.time.LocalDateTime;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+
 import com.bootcamp.transactions.dto_2.request.CreateClientRequest;
 import com.bootcamp.transactions.dto_2.request.PatchClientRequest;
 import com.bootcamp.transactions.dto_2.request.UpdateClientRequest;
+import com.bootcamp.transactions.dto_2.response.ClientImportResult;
+import com.bootcamp.transactions.dto_2.response.ClientPageResponse;
 import com.bootcamp.transactions.dto_2.response.ClientResponse;
+import com.bootcamp.transactions.service.ClientImportService;
 import com.bootcamp.transactions.service.ClientService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -16,10 +25,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * REST controller for managing client operations. Provides endpoints for CRUD operations following
- * OpenAPI specification.
+ * OpenAPI specification. Handlers return {@link Mono}/{@link Flux} so requests are served on the
+ * WebFlux event loop without holding a thread while MongoDB responds. Single-client responses carry
+ * {@code ETag} and {@code Last-Modified} validators taken from the client's {@code updated_at}.
  */
 @RestController
 @RequestMapping("/clientes")
@@ -29,6 +42,7 @@ import lombok.extern.slf4j.Slf4j;
 public class ClientController {
 
   private final ClientService clientService;
+  private final ClientImportService clientImportService;
 
   /**
    * Creates a new client.
@@ -44,46 +58,108 @@ public class ClientController {
           @ApiResponse(responseCode = "400", description = "Invalid data"),
           @ApiResponse(responseCode = "409", description = "Email or DNI already exists"),
           @ApiResponse(responseCode = "500", description = "Internal server error")})
-  public ResponseEntity<ClientResponse> createClient(
+  public Mono<ResponseEntity<ClientResponse>> createClient(
       @Valid @RequestBody CreateClientRequest request) {
     log.info("Received request to create new client");
-    ClientResponse response = clientService.createClient(request);
-    return ResponseEntity.ok(response);
+    return clientService.createClient(request).map(ResponseEntity::ok);
+  }
+
+  /**
+   * Imports clients in bulk. The body is read as a stream, either a JSON array or NDJSON, and the
+   * per-item results are streamed back as they are written.
+   *
+   * @param requests the clients to create
+   * @return one result per client, in upload order
+   */
+  @PostMapping(value = "/batch",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+      produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+  @Operation(summary = "Importar clientes en lote",
+      description = "Creates clients from a JSON array or NDJSON stream using unordered bulk writes")
+  @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Per-client results"),
+      @ApiResponse(responseCode = "400", description = "Malformed body"),
+      @ApiResponse(responseCode = "500", description = "Internal server error")})
+  public Flux<ClientImportResult> importClients(@RequestBody Flux<CreateClientRequest> requests) {
+    log.info("Received request to import clients");
+    return clientImportService.importClients(requests);
+  }
+
+  /**
+   * Retrieves one keyset page of clients.
+   *
+   * @param after the cursor returned as {@code next} by the previous page
+   * @param limit the page size
+   * @return the page of clients and the cursor of the next one
+   */
+  @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Listar clientes paginados",
+      description = "Retrieves clients ordered by id using keyset pagination")
+  @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Page of clients"),
+      @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+      @ApiResponse(responseCode = "500", description = "Internal server error")})
+  public Mono<ResponseEntity<ClientPageResponse>> getAllClients(
+      @Parameter(description = "Cursor of the previous page")
+      @RequestParam(required = false) String after,
+      @Parameter(description = "Page size (1-500, default 50)")
+      @RequestParam(required = false) Integer limit) {
+    log.info("Received request to get clients page after: {}", after);
+    return clientService.getClientsPage(after, limit).map(ResponseEntity::ok);
   }
 
   /**
-   * Retrieves all clients.
+   * Streams all clients as newline-delimited JSON.
    *
-   * @return list of all clients
+   * @param after optional id to resume the stream after
+   * @return stream of clients
    */
-  @GetMapping
-  @Operation(summary = "Listar todos los clientes",
-      description = "Retrieves all clients from the database")
-  @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "List of clients"),
+  @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @Operation(summary = "Exportar clientes en streaming",
+      description = "Streams every client as NDJSON straight from the database cursor")
+  @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Stream of clients"),
+      @ApiResponse(responseCode = "400", description = "Invalid cursor"),
       @ApiResponse(responseCode = "500", description = "Internal server error")})
-  public ResponseEntity<List<ClientResponse>> getAllClients() {
-    log.info("Received request to get all clients");
-    List<ClientResponse> clients = clientService.getAllClients();
-    return ResponseEntity.ok(clients);
+  public Flux<ClientResponse> streamAllClients(
+      @Parameter(description = "Id to resume the stream after")
+      @RequestParam(required = false) String after) {
+    log.info("Received request to stream clients after: {}", after);
+    return clientService.streamClients(after);
   }
 
   /**
-   * Retrieves a client by ID.
+   * Retrieves a client by ID. A conditional request is first checked against the stored version of
+   * the client and answered with 304 Not Modified, without a body, when it is still current.
    *
    * @param id the client ID
-   * @return the client if found
+   * @param exchange the current exchange, used to evaluate {@code If-None-Match} and
+   *        {@code If-Modified-Since}
+   * @return the client if found and modified
    */
   @GetMapping("/{id}")
   @Operation(summary = "Obtener cliente por ID",
       description = "Retrieves a specific client by their ID")
   @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Client found"),
+      @ApiResponse(responseCode = "304", description = "Client not modified"),
       @ApiResponse(responseCode = "404", description = "Client not found"),
       @ApiResponse(responseCode = "500", description = "Internal server error")})
-  public ResponseEntity<ClientResponse> getClientById(
-      @Parameter(description = "Client ID", required = true) @PathVariable String id) {
+  public Mono<ResponseEntity<ClientResponse>> getClientById(
+      @Parameter(description = "Client ID", required = true) @PathVariable String id,
+      ServerWebExchange exchange) {
     log.info("Received request to get client with id: {}", id);
-    ClientResponse client = clientService.getClientById(id);
-    return ResponseEntity.ok(client);
+    HttpHeaders headers = exchange.getRequest().getHeaders();
+    if (!headers.containsKey(HttpHeaders.IF_NONE_MATCH)
+        && !headers.containsKey(HttpHeaders.IF_MODIFIED_SINCE)) {
+      return clientService.getClientById(id).map(this::withValidators);
+    }
+    return clientService.getClientVersion(id).flatMap(version -> {
+      LocalDateTime updatedAt = version.getUpdatedAt();
+      if (updatedAt != null && exchange.checkNotModified(ClientValidators.etag(updatedAt),
+          ClientValidators.lastModified(updatedAt))) {
+        return Mono.just(
+            ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ClientValidators.etag(updatedAt))
+                .lastModified(ClientValidators.lastModified(updatedAt)).<ClientResponse>build());
+      }
+      return clientService.getClientById(id).map(this::withValidators);
+    });
   }
 
   /**
@@ -91,6 +167,7 @@ public class ClientController {
    *
    * @param id the client ID to update
    * @param request the update request
+   * @param ifMatch optional {@code If-Match} header for optimistic concurrency
    * @return the updated client
    */
   @PutMapping("/{id}")
@@ -100,13 +177,16 @@ public class ClientController {
           @ApiResponse(responseCode = "400", description = "Invalid data"),
           @ApiResponse(responseCode = "404", description = "Client not found"),
           @ApiResponse(responseCode = "409", description = "Email already in use"),
+          @ApiResponse(responseCode = "412", description = "Client modified since If-Match"),
           @ApiResponse(responseCode = "500", description = "Internal server error")})
-  public ResponseEntity<ClientResponse> updateClient(
+  public Mono<ResponseEntity<ClientResponse>> updateClient(
       @Parameter(description = "Client ID", required = true) @PathVariable String id,
-      @Valid @RequestBody UpdateClientRequest request) {
+      @Valid @RequestBody UpdateClientRequest request,
+      @Parameter(description = "ETag the client must still match")
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
     log.info("Received request to update client with id: {}", id);
-    ClientResponse response = clientService.updateClient(id, request);
-    return ResponseEntity.ok(response);
+    return clientService.updateClient(id, request, ClientValidators.expectedVersions(ifMatch))
+        .map(this::withValidators);
   }
 
   /**
@@ -114,6 +194,7 @@ public class ClientController {
    *
    * @param id the client ID to update
    * @param request the patch request
+   * @param ifMatch optional {@code If-Match} header for optimistic concurrency
    * @return the updated client
    */
   @PatchMapping("/{id}")
@@ -124,13 +205,16 @@ public class ClientController {
           @ApiResponse(responseCode = "400", description = "Invalid data"),
           @ApiResponse(responseCode = "404", description = "Client not found"),
           @ApiResponse(responseCode = "409", description = "Email or DNI already in use"),
+          @ApiResponse(responseCode = "412", description = "Client modified since If-Match"),
           @ApiResponse(responseCode = "500", description = "Internal server error")})
-  public ResponseEntity<ClientResponse> patchClient(
+  public Mono<ResponseEntity<ClientResponse>> patchClient(
       @Parameter(description = "Client ID", required = true) @PathVariable String id,
-      @Valid @RequestBody PatchClientRequest request) {
+      @Valid @RequestBody PatchClientRequest request,
+      @Parameter(description = "ETag the client must still match")
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
     log.info("Received request to patch client with id: {}", id);
-    ClientResponse response = clientService.patchClient(id, request);
-    return ResponseEntity.ok(response);
+    return clientService.patchClient(id, request, ClientValidators.expectedVersions(ifMatch))
+        .map(this::withValidators);
   }
 
   /**
@@ -145,10 +229,20 @@ public class ClientController {
   @ApiResponses(value = {@ApiResponse(responseCode = "204", description = "Client deleted"),
       @ApiResponse(responseCode = "404", description = "Client not found"),
       @ApiResponse(responseCode = "500", description = "Internal server error")})
-  public ResponseEntity<Void> deleteClient(
+  public Mono<ResponseEntity<Void>> deleteClient(
       @Parameter(description = "Client ID", required = true) @PathVariable String id) {
     log.info("Received request to delete client with id: {}", id);
-    clientService.deleteClient(id);
-    return ResponseEntity.noContent().build();
+    return clientService.deleteClient(id).then(Mono.just(ResponseEntity.noContent().build()));
+  }
+
+  /**
+   * Helper method to answer 200 OK with the client's cache validators.
+   */
+  private ResponseEntity<ClientResponse> withValidators(ClientResponse client) {
+    if (client.getUpdatedAt() == null) {
+      return ResponseEntity.ok(client);
+    }
+    return ResponseEntity.ok().eTag(ClientValidators.etag(client.getUpdatedAt()))
+        .lastModified(ClientValidators.lastModified(client.getUpdatedAt())).body(client);
   }
 }
@@ -0,0 +1,63 @@
+package com.bootcamp.transactions.controller;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.http.ETag;
+
+/**
+ * HTTP cache validators of a client, both derived from its {@code updated_at}. The entity tag is
+ * the modification time in epoch milliseconds, the precision MongoDB stores dates with, so a tag
+ * read back from a request maps to the exact stored value.
+ */
+final class ClientValidators {
+
+  private ClientValidators() {}
+
+  /**
+   * Builds the strong entity tag of a client version.
+   */
+  static String etag(LocalDateTime updatedAt) {
+    return "\"" + lastModified(updatedAt).toEpochMilli() + "\"";
+  }
+
+  /**
+   * Converts a client version to the instant sent as {@code Last-Modified}. Dates are stored in the
+   * server time zone, the one Spring Data uses to map {@link LocalDateTime}.
+   */
+  static Instant lastModified(LocalDateTime updatedAt) {
+    return updatedAt.atZone(ZoneId.systemDefault()).toInstant();
+  }
+
+  /**
+   * Parses an {@code If-Match} header into the client versions it accepts. Tags that this service
+   * could not have issued are dropped, so a header made only of such tags yields an empty list and
+   * the precondition fails.
+   *
+   * @param ifMatch the header value, may be null
+   * @return the accepted versions, or null when the header is absent or {@code *}
+   */
+  static List<LocalDateTime> expectedVersions(String ifMatch) {
+    if (ifMatch == null) {
+      return null;
+    }
+    List<LocalDateTime> versions = new ArrayList<>();
+    for (ETag tag : ETag.parse(ifMatch)) {
+      if (tag.isWildcard()) {
+        return null;
+      }
+      if (!tag.weak() && tag.tag().chars().allMatch(Character::isDigit)) {
+        try {
+          Instant instant = Instant.ofEpochMilli(Long.parseLong(tag.tag()));
+          versions.add(LocalDateTime.ofInstant(instant, ZoneId.systemDefault()));
+        } catch (NumberFormatException ex) {
+          // Too large to be one of our tags
+        }
+      }
+    }
+    return versions;
+  }
+}
@@ -32,10 +32,10 @@ public class Client {
   @Field("last_name")
   private String lastName;
 
-  @Indexed(unique = true)
+  @Indexed(name = "uk_client_email", unique = true)
   private String email;
 
-  @Indexed(unique = true)
+  @Indexed(name = "uk_client_dni", unique = true)
   private String dni;
 
   @CreatedDate
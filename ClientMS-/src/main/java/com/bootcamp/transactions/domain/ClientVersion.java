@@ -0,0 +1,12 @@
+package com.bootcamp.transactions.domain;
+
+import java.time.LocalDateTime;
+
+/**
+ * Closed projection of a {@link Client} exposing only its last modification time. Queries returning
+ * it read nothing but {@code updated_at}, which is enough to answer conditional requests.
+ */
+public interface ClientVersion {
+
+  LocalDateTime getUpdatedAt();
+}
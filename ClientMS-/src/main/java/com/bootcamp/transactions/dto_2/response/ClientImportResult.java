@@ -0,0 +1,27 @@
+package com.bootcamp.transactions.dto_2.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ClientImportResult {
+  private long index;
+  private Status status;
+  private String id;
+  private String message;
+
+  public enum Status {
+    CREATED, DUPLICATE_EMAIL, DUPLICATE_DNI, INVALID, FAILED
+  }
+
+  public static ClientImportResult created(long index, String id) {
+    return new ClientImportResult(index, Status.CREATED, id, null);
+  }
+
+  public static ClientImportResult rejected(long index, Status status, String message) {
+    return new ClientImportResult(index, status, null, message);
+  }
+}
@@ -0,0 +1,27 @@
+package com.bootcamp.transactions.dto_2.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ClientPageResponse {
+  private List<ClientResponse> items;
+  private String next;
+
+  /**
+   * Builds a page from a lookahead read of {@code limit + 1} clients. The extra element only
+   * signals that another page exists; the cursor points at the last item actually returned.
+   */
+  public static ClientPageResponse of(List<ClientResponse> lookahead, int limit) {
+    if (lookahead.size() <= limit) {
+      return new ClientPageResponse(lookahead, null);
+    }
+    List<ClientResponse> items = lookahead.subList(0, limit);
+    return new ClientPageResponse(items, items.get(limit - 1).getId());
+  }
+}
@@ -1,6 +1,10 @@
 package com.bootcamp.transactions.dto_2.response;
 
+import java.time.LocalDateTime;
+
 import com.bootcamp.transactions.domain.Client;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,8 +19,12 @@ public class ClientResponse {
   private String dni;
   private String email;
 
+  /** Last modification time, exposed through the ETag and Last-Modified headers only. */
+  @JsonIgnore
+  private LocalDateTime updatedAt;
+
   public static ClientResponse from(Client client) {
     return new ClientResponse(client.getId(), client.getFirstName(), client.getLastName(),
-        client.getDni(), client.getEmail());
+        client.getDni(), client.getEmail(), client.getUpdatedAt());
   }
 }
@@ -0,0 +1,11 @@
+package com.bootcamp.transactions.exception;
+
+/**
+ * Exception thrown when a conditional update targets a client version that is no longer current.
+ */
+public class ClientVersionMismatchException extends RuntimeException {
+
+  public ClientVersionMismatchException(String id) {
+    super("Client has been modified since the given version, id: " + id);
+  }
+}
@@ -0,0 +1,44 @@
+package com.bootcamp.transactions.exception;
+
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Translates MongoDB duplicate-key errors (E11000) raised by the unique indexes of the client
+ * collection into the matching conflict exceptions. The server message names the violated index and
+ * the duplicated value, e.g. {@code index: uk_client_email dup key: { email: "a@b.com" }}.
+ */
+public final class DuplicateKeyErrors {
+
+  private static final Pattern DUP_KEY =
+      Pattern.compile("index: (\\S+) dup key: \\{ ?(\\w+): \"?(.*?)\"? ?}");
+
+  private DuplicateKeyErrors() {}
+
+  /**
+   * Maps a duplicate-key error message to the conflict exception of the violated index.
+   *
+   * @param message the MongoDB error message
+   * @return the email or DNI conflict, or empty if the message does not name either index
+   */
+  public static Optional<RuntimeException> translate(String message) {
+    if (message == null) {
+      return Optional.empty();
+    }
+    Matcher matcher = DUP_KEY.matcher(message);
+    if (!matcher.find()) {
+      return Optional.empty();
+    }
+    String index = matcher.group(1);
+    String field = matcher.group(2);
+    String value = matcher.group(3);
+    if (index.contains("email") || "email".equals(field)) {
+      return Optional.of(new EmailAlreadyExistsException(value));
+    }
+    if (index.contains("dni") || "dni".equals(field)) {
+      return Optional.of(new DniAlreadyExistsException(value));
+    }
+    return Optional.empty();
+  }
+}
@@ -5,13 +5,14 @@ import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
-import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
-import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebExchange;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -31,11 +32,11 @@ public class GlobalExceptionHandler {
    */
   @ExceptionHandler(ClientNotFoundException.class)
   public ResponseEntity<Map<String, Object>> handleClientNotFoundException(
-      ClientNotFoundException ex, WebRequest request) {
+      ClientNotFoundException ex, ServerWebExchange exchange) {
     log.warn("Client not found: {}", ex.getMessage());
 
     Map<String, Object> errorDetails = createErrorResponse(HttpStatus.NOT_FOUND, "Not Found",
-        ex.getMessage(), request.getDescription(false).replace("uri=", ""));
+        ex.getMessage(), requestPath(exchange));
 
     return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorDetails);
   }
@@ -45,11 +46,11 @@ public class GlobalExceptionHandler {
    */
   @ExceptionHandler(EmailAlreadyExistsException.class)
   public ResponseEntity<Map<String, Object>> handleEmailAlreadyExistsException(
-      EmailAlreadyExistsException ex, WebRequest request) {
+      EmailAlreadyExistsException ex, ServerWebExchange exchange) {
     log.warn("Email conflict: {}", ex.getMessage());
 
     Map<String, Object> errorDetails = createErrorResponse(HttpStatus.CONFLICT, "Conflict",
-        ex.getMessage(), request.getDescription(false).replace("uri=", ""));
+        ex.getMessage(), requestPath(exchange));
 
     return ResponseEntity.status(HttpStatus.CONFLICT).body(errorDetails);
   }
@@ -59,21 +60,72 @@ public class GlobalExceptionHandler {
    */
   @ExceptionHandler(DniAlreadyExistsException.class)
   public ResponseEntity<Map<String, Object>> handleDniAlreadyExistsException(
-      DniAlreadyExistsException ex, WebRequest request) {
+      DniAlreadyExistsException ex, ServerWebExchange exchange) {
     log.warn("DNI conflict: {}", ex.getMessage());
 
     Map<String, Object> errorDetails = createErrorResponse(HttpStatus.CONFLICT, "Conflict",
-        ex.getMessage(), request.getDescription(false).replace("uri=", ""));
+        ex.getMessage(), requestPath(exchange));
 
     return ResponseEntity.status(HttpStatus.CONFLICT).body(errorDetails);
   }
 
+  /**
+   * Handles unique index violations reported by MongoDB. Violations of the email and DNI indexes
+   * are answered exactly like the corresponding conflict exceptions.
+   */
+  @ExceptionHandler(DuplicateKeyException.class)
+  public ResponseEntity<Map<String, Object>> handleDuplicateKeyException(DuplicateKeyException ex,
+      ServerWebExchange exchange) {
+    RuntimeException conflict =
+        DuplicateKeyErrors.translate(ex.getMostSpecificCause().getMessage()).orElse(null);
+    if (conflict instanceof EmailAlreadyExistsException emailConflict) {
+      return handleEmailAlreadyExistsException(emailConflict, exchange);
+    }
+    if (conflict instanceof DniAlreadyExistsException dniConflict) {
+      return handleDniAlreadyExistsException(dniConflict, exchange);
+    }
+    log.warn("Duplicate key conflict: {}", ex.getMessage());
+
+    Map<String, Object> errorDetails = createErrorResponse(HttpStatus.CONFLICT, "Conflict",
+        "Resource already exists", requestPath(exchange));
+
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(errorDetails);
+  }
+
+  /**
+   * Handles conditional updates whose If-Match version is no longer current.
+   */
+  @ExceptionHandler(ClientVersionMismatchException.class)
+  public ResponseEntity<Map<String, Object>> handleClientVersionMismatchException(
+      ClientVersionMismatchException ex, ServerWebExchange exchange) {
+    log.warn("Precondition failed: {}", ex.getMessage());
+
+    Map<String, Object> errorDetails = createErrorResponse(HttpStatus.PRECONDITION_FAILED,
+        "Precondition Failed", ex.getMessage(), requestPath(exchange));
+
+    return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(errorDetails);
+  }
+
+  /**
+   * Handles invalid pagination cursors.
+   */
+  @ExceptionHandler(InvalidCursorException.class)
+  public ResponseEntity<Map<String, Object>> handleInvalidCursorException(InvalidCursorException ex,
+      ServerWebExchange exchange) {
+    log.warn("Invalid cursor: {}", ex.getMessage());
+
+    Map<String, Object> errorDetails = createErrorResponse(HttpStatus.BAD_REQUEST, "Bad Request",
+        ex.getMessage(), requestPath(exchange));
+
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorDetails);
+  }
+
   /**
    * Handles validation errors from @Valid annotations.
    */
-  @ExceptionHandler(MethodArgumentNotValidException.class)
-  public ResponseEntity<Map<String, Object>> handleValidationExceptions(
-      MethodArgumentNotValidException ex, WebRequest request) {
+  @ExceptionHandler(WebExchangeBindException.class)
+  public ResponseEntity<Map<String, Object>> handleValidationExceptions(WebExchangeBindException ex,
+      ServerWebExchange exchange) {
     log.warn("Validation error: {}", ex.getMessage());
 
     StringBuilder errorMessage = new StringBuilder("Validation failed: ");
@@ -84,7 +136,7 @@ public class GlobalExceptionHandler {
     });
 
     Map<String, Object> errorDetails = createErrorResponse(HttpStatus.BAD_REQUEST, "Bad Request",
-        errorMessage.toString().trim(), request.getDescription(false).replace("uri=", ""));
+        errorMessage.toString().trim(), requestPath(exchange));
 
     return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorDetails);
   }
@@ -94,16 +146,23 @@ public class GlobalExceptionHandler {
    */
   @ExceptionHandler(Exception.class)
   public ResponseEntity<Map<String, Object>> handleGlobalException(Exception ex,
-      WebRequest request) {
+      ServerWebExchange exchange) {
     log.error("Unexpected error occurred: ", ex);
 
-    Map<String, Object> errorDetails = createErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR,
-        "Internal Server Error", "An unexpected error occurred. Please try again later.",
-        request.getDescription(false).replace("uri=", ""));
+    Map<String, Object> errorDetails =
+        createErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error",
+            "An unexpected error occurred. Please try again later.", requestPath(exchange));
 
     return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorDetails);
   }
 
+  /**
+   * Extracts the request path reported in error responses.
+   */
+  private String requestPath(ServerWebExchange exchange) {
+    return exchange.getRequest().getPath().value();
+  }
+
   /**
    * Creates a standardized error response.
    */
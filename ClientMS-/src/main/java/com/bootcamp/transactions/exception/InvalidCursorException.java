@@ -0,0 +1,11 @@
+package com.bootcamp.transactions.exception;
+
+/**
+ * Exception thrown when a pagination cursor is not a valid client id.
+ */
+public class InvalidCursorException extends RuntimeException {
+
+  public InvalidCursorException(String cursor) {
+    super("Invalid pagination cursor: " + cursor);
+  }
+}
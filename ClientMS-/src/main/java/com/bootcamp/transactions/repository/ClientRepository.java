@@ -1,50 +1,107 @@
 package com.bootcamp.transactions.repository;
 
-import java.util.Optional;
-
-import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
 
 import com.bootcamp.transactions.domain.Client;
+import com.bootcamp.transactions.domain.ClientVersion;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Repository interface for Client entity operations. Provides CRUD operations and custom queries
- * for client management.
+ * for client management. All operations are non-blocking and run on the reactive MongoDB driver.
  */
 @Repository
-public interface ClientRepository extends MongoRepository<Client, String> {
+public interface ClientRepository
+    extends ReactiveMongoRepository<Client, String>, ClientRepositoryCustom {
+
+  /** Number of documents fetched per cursor batch when streaming the collection. */
+  int STREAM_BATCH_SIZE = 500;
+
+  /**
+   * Reads the first keyset page of clients.
+   *
+   * @param sort the sort order, expected to be ascending on {@code _id}
+   * @param limit the maximum number of clients to return
+   * @return Flux emitting at most {@code limit} clients
+   */
+  Flux<Client> findAllBy(Sort sort, Limit limit);
+
+  /**
+   * Reads the keyset page of clients whose id is strictly greater than the given cursor.
+   *
+   * @param after the id of the last client of the previous page
+   * @param sort the sort order, expected to be ascending on {@code _id}
+   * @param limit the maximum number of clients to return
+   * @return Flux emitting at most {@code limit} clients
+   */
+  Flux<Client> findByIdGreaterThan(String after, Sort sort, Limit limit);
+
+  /**
+   * Streams every client in the given order, pulling documents from the Mongo cursor in batches of
+   * {@link #STREAM_BATCH_SIZE} as the subscriber requests them.
+   *
+   * @param sort the sort order
+   * @return Flux emitting all clients
+   */
+  @Meta(cursorBatchSize = STREAM_BATCH_SIZE)
+  Flux<Client> streamAllBy(Sort sort);
+
+  /**
+   * Streams the clients whose id is strictly greater than the given cursor, pulling documents from
+   * the Mongo cursor in batches of {@link #STREAM_BATCH_SIZE}.
+   *
+   * @param after the id to resume after
+   * @param sort the sort order
+   * @return Flux emitting the remaining clients
+   */
+  @Meta(cursorBatchSize = STREAM_BATCH_SIZE)
+  Flux<Client> streamByIdGreaterThan(String after, Sort sort);
+
+  /**
+   * Reads only the last modification time of a client.
+   *
+   * @param id the client ID
+   * @return Mono emitting the client version if found, empty otherwise
+   */
+  Mono<ClientVersion> findVersionById(String id);
 
   /**
    * Finds a client by email address.
    *
    * @param email the email address to search for
-   * @return Optional containing the client if found, empty otherwise
+   * @return Mono emitting the client if found, empty otherwise
    */
-  Optional<Client> findByEmail(String email);
+  Mono<Client> findByEmail(String email);
 
   /**
    * Finds a client by DNI (Document National Identity).
    *
    * @param dni the DNI to search for
-   * @return Optional containing the client if found, empty otherwise
+   * @return Mono emitting the client if found, empty otherwise
    */
-  Optional<Client> findByDni(String dni);
+  Mono<Client> findByDni(String dni);
 
   /**
    * Checks if a client exists with the given email address.
    *
    * @param email the email address to check
-   * @return true if a client exists with the email, false otherwise
+   * @return Mono emitting true if a client exists with the email, false otherwise
    */
-  boolean existsByEmail(String email);
+  Mono<Boolean> existsByEmail(String email);
 
   /**
    * Checks if a client exists with the given DNI.
    *
    * @param dni the DNI to check
-   * @return true if a client exists with the DNI, false otherwise
+   * @return Mono emitting true if a client exists with the DNI, false otherwise
    */
-  boolean existsByDni(String dni);
+  Mono<Boolean> existsByDni(String dni);
 
   /**
    * Checks if a client exists with the given email, excluding a specific client ID. Useful for
@@ -52,9 +109,9 @@ public interface ClientRepository extends MongoRepository<Client, String> {
    *
    * @param email the email address to check
    * @param id the client ID to exclude from the search
-   * @return true if another client exists with the email, false otherwise
+   * @return Mono emitting true if another client exists with the email, false otherwise
    */
-  boolean existsByEmailAndIdNot(String email, String id);
+  Mono<Boolean> existsByEmailAndIdNot(String email, String id);
 
   /**
    * Checks if a client exists with the given DNI, excluding a specific client ID. Useful for update
@@ -62,7 +119,7 @@ public interface ClientRepository extends MongoRepository<Client, String> {
    *
    * @param dni the DNI to check
    * @param id the client ID to exclude from the search
-   * @return true if another client exists with the DNI, false otherwise
+   * @return Mono emitting true if another client exists with the DNI, false otherwise
    */
-  boolean existsByDniAndIdNot(String dni, String id);
+  Mono<Boolean> existsByDniAndIdNot(String dni, String id);
 }
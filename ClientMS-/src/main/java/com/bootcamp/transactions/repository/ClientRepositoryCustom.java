@@ -0,0 +1,49 @@
+package com.bootcamp.transactions.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.bootcamp.transactions.domain.Client;
+import com.mongodb.bulk.BulkWriteError;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Custom client operations executed as single atomic MongoDB commands instead of read-modify-write
+ * sequences.
+ */
+public interface ClientRepositoryCustom {
+
+  /**
+   * Applies the given update to a client with one {@code findAndModify}, also setting
+   * {@code updated_at}. Only the fields present in the update are written. When expected versions
+   * are given the client is only updated if its {@code updated_at} is one of them.
+   *
+   * @param id the client ID to update
+   * @param expectedVersions the accepted {@code updated_at} values, or null to update any version
+   * @param update the fields to set
+   * @return Mono emitting the client as stored after the update, empty if no client has the ID and
+   *         one of the expected versions
+   */
+  Mono<Client> findAndUpdateById(String id, List<LocalDateTime> expectedVersions, Update update);
+
+  /**
+   * Deletes a client with one {@code delete} command.
+   *
+   * @param id the client ID to delete
+   * @return Mono emitting the number of deleted documents (0 or 1)
+   */
+  Mono<Long> removeById(String id);
+
+  /**
+   * Inserts clients with one unordered bulk write. Every document is attempted even when some of
+   * them violate a unique index.
+   *
+   * @param clients the clients to insert, with their ids already assigned
+   * @return Mono emitting the per-document write errors, indexed by position in {@code clients};
+   *         empty list when every document was inserted
+   */
+  Mono<List<BulkWriteError>> insertUnordered(List<Client> clients);
+}
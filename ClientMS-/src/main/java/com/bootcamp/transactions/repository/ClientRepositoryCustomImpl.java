@@ -0,0 +1,77 @@
+package com.bootcamp.transactions.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.bootcamp.transactions.domain.Client;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.result.DeleteResult;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementation of {@link ClientRepositoryCustom} on top of {@link ReactiveMongoOperations}.
+ * Auditing does not run for server-side updates, so {@code updated_at} is set explicitly.
+ */
+@RequiredArgsConstructor
+class ClientRepositoryCustomImpl implements ClientRepositoryCustom {
+
+  private static final FindAndModifyOptions RETURN_NEW =
+      FindAndModifyOptions.options().returnNew(true);
+
+  private final ReactiveMongoOperations mongoOperations;
+
+  @Override
+  public Mono<Client> findAndUpdateById(String id, List<LocalDateTime> expectedVersions,
+      Update update) {
+    Criteria criteria = where("id").is(id);
+    if (expectedVersions != null) {
+      criteria = criteria.and("updatedAt").in(expectedVersions);
+    }
+    return mongoOperations.findAndModify(query(criteria),
+        update.set("updatedAt", LocalDateTime.now()), RETURN_NEW, Client.class);
+  }
+
+  @Override
+  public Mono<Long> removeById(String id) {
+    return mongoOperations.remove(query(where("id").is(id)), Client.class)
+        .map(DeleteResult::getDeletedCount);
+  }
+
+  @Override
+  public Mono<List<BulkWriteError>> insertUnordered(List<Client> clients) {
+    return mongoOperations.bulkOps(BulkMode.UNORDERED, Client.class).insert(clients).execute()
+        .map(result -> List.<BulkWriteError>of())
+        .onErrorResume(ex -> writeErrors(ex).map(Mono::just).orElseGet(() -> Mono.error(ex)));
+  }
+
+  /**
+   * Extracts the per-document errors of a partially failed bulk write. Depending on the error codes
+   * the driver exception arrives translated as a {@link BulkOperationException} or wrapped as the
+   * cause of a {@code DuplicateKeyException}.
+   */
+  private static Optional<List<BulkWriteError>> writeErrors(Throwable ex) {
+    for (Throwable current = ex; current != null; current = current.getCause()) {
+      if (current instanceof BulkOperationException bulk) {
+        return Optional.of(bulk.getErrors());
+      }
+      if (current instanceof MongoBulkWriteException bulk) {
+        return Optional.of(bulk.getWriteErrors());
+      }
+    }
+    return Optional.empty();
+  }
+}
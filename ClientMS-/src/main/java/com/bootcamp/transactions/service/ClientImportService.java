@@ -0,0 +1,119 @@
+package com.bootcamp.transactions.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Service;
+
+import com.bootcamp.transactions.domain.Client;
+import com.bootcamp.transactions.dto_2.request.CreateClientRequest;
+import com.bootcamp.transactions.dto_2.response.ClientImportResult;
+import com.bootcamp.transactions.dto_2.response.ClientImportResult.Status;
+import com.bootcamp.transactions.exception.DniAlreadyExistsException;
+import com.bootcamp.transactions.exception.DuplicateKeyErrors;
+import com.bootcamp.transactions.exception.EmailAlreadyExistsException;
+import com.bootcamp.transactions.repository.ClientRepository;
+import com.mongodb.bulk.BulkWriteError;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.util.function.Tuple2;
+
+/**
+ * Service class for bulk client imports. Requests are consumed as a stream and processed in
+ * fixed-size chunks: each chunk is validated, written with one unordered bulk insert and turned
+ * into per-item results before the next chunk is read, so memory stays bounded by the chunk size
+ * whatever the size of the upload.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClientImportService {
+
+  static final int CHUNK_SIZE = 500;
+
+  private final ClientRepository clientRepository;
+  private final Validator validator;
+
+  /**
+   * Imports a stream of clients. Email and DNI uniqueness is enforced by the unique indexes; a
+   * violation only rejects the offending item.
+   *
+   * @param requests the clients to create, in upload order
+   * @return Flux emitting one result per request, in upload order
+   */
+  public Flux<ClientImportResult> importClients(Flux<CreateClientRequest> requests) {
+    log.info("Importing clients in chunks of {}", CHUNK_SIZE);
+    return requests.index().buffer(CHUNK_SIZE).concatMap(this::importChunk);
+  }
+
+  private Flux<ClientImportResult> importChunk(List<Tuple2<Long, CreateClientRequest>> chunk) {
+    // Ids are assigned here, so auditing sees the documents as existing and would skip created_at
+    LocalDateTime now = LocalDateTime.now();
+    ClientImportResult[] results = new ClientImportResult[chunk.size()];
+    List<Client> clients = new ArrayList<>(chunk.size());
+    List<Integer> positions = new ArrayList<>(chunk.size());
+
+    for (int i = 0; i < chunk.size(); i++) {
+      long index = chunk.get(i).getT1();
+      CreateClientRequest request = chunk.get(i).getT2();
+      Set<ConstraintViolation<CreateClientRequest>> violations = validator.validate(request);
+      if (!violations.isEmpty()) {
+        results[i] = ClientImportResult.rejected(index, Status.INVALID, describe(violations));
+        continue;
+      }
+      clients.add(Client.builder().id(new ObjectId().toHexString())
+          .firstName(request.getFirstName()).lastName(request.getLastName())
+          .email(request.getEmail()).dni(request.getDni()).createdAt(now).updatedAt(now).build());
+      positions.add(i);
+    }
+
+    if (clients.isEmpty()) {
+      return Flux.fromArray(results);
+    }
+    return clientRepository.insertUnordered(clients).flatMapMany(errors -> {
+      for (int i = 0; i < clients.size(); i++) {
+        int position = positions.get(i);
+        results[position] =
+            ClientImportResult.created(chunk.get(position).getT1(), clients.get(i).getId());
+      }
+      for (BulkWriteError error : errors) {
+        int position = positions.get(error.getIndex());
+        results[position] = rejection(chunk.get(position).getT1(), error);
+      }
+      log.info("Imported chunk: {} created, {} rejected", clients.size() - errors.size(),
+          chunk.size() - clients.size() + errors.size());
+      return Flux.fromArray(results);
+    });
+  }
+
+  /**
+   * Maps a bulk write error to the result of its item, naming the violated unique index.
+   */
+  private ClientImportResult rejection(long index, BulkWriteError error) {
+    RuntimeException conflict = DuplicateKeyErrors.translate(error.getMessage()).orElse(null);
+    if (conflict instanceof EmailAlreadyExistsException) {
+      return ClientImportResult.rejected(index, Status.DUPLICATE_EMAIL, conflict.getMessage());
+    }
+    if (conflict instanceof DniAlreadyExistsException) {
+      return ClientImportResult.rejected(index, Status.DUPLICATE_DNI, conflict.getMessage());
+    }
+    return ClientImportResult.rejected(index, Status.FAILED, error.getMessage());
+  }
+
+  /**
+   * Formats validation errors like the single-client endpoint does.
+   */
+  private String describe(Set<ConstraintViolation<CreateClientRequest>> violations) {
+    return violations.stream()
+        .map(violation -> violation.getPropertyPath() + " - " + violation.getMessage()).sorted()
+        .collect(Collectors.joining("; ", "Validation failed: ", ";"));
+  }
+}
@@ -1,195 +1,263 @@
 package com.bootcamp.transactions.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import com.bootcamp.transactions.domain.Client;
+import com.bootcamp.transactions.domain.ClientVersion;
 import com.bootcamp.transactions.dto_2.request.CreateClientRequest;
 import com.bootcamp.transactions.dto_2.request.PatchClientRequest;
 import com.bootcamp.transactions.dto_2.request.UpdateClientRequest;
+import com.bootcamp.transactions.dto_2.response.ClientPageResponse;
 import com.bootcamp.transactions.dto_2.response.ClientResponse;
 import com.bootcamp.transactions.exception.ClientNotFoundException;
-import com.bootcamp.transactions.exception.DniAlreadyExistsException;
-import com.bootcamp.transactions.exception.EmailAlreadyExistsException;
+import com.bootcamp.transactions.exception.ClientVersionMismatchException;
+import com.bootcamp.transactions.exception.InvalidCursorException;
 import com.bootcamp.transactions.repository.ClientRepository;
+import com.github.benmanes.caffeine.cache.Cache;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Service class for managing client operations. Handles business logic, validations, and data
- * transformations.
+ * transformations. Every operation is composed as a non-blocking pipeline over the reactive
+ * repository, so no request thread waits on MongoDB.
+ *
+ * <p>
+ * Only lookups by id are cached and coalesced: they are the only reads the API serves per client.
+ * {@code findByEmail} and {@code findByDni} exist on the repository but no service method or
+ * endpoint calls them, so there is nothing to share yet. A lookup by email or DNI added later
+ * should get its own {@link RequestCoalescer} keyed by the normalized value.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ClientService {
 
+  static final int DEFAULT_PAGE_SIZE = 50;
+  static final int MAX_PAGE_SIZE = 500;
+  private static final Sort ID_ASC = Sort.by(Sort.Direction.ASC, "id");
+
   private final ClientRepository clientRepository;
+  private final Cache<String, Client> clientCache;
+  private final RequestCoalescer<String, Client> clientByIdCoalescer;
 
   /**
-   * Creates a new client after validating email and DNI uniqueness.
+   * Creates a new client with a single insert. Email and DNI uniqueness is enforced by the unique
+   * indexes of the collection: a violation surfaces as a {@link DuplicateKeyException} that
+   * {@code GlobalExceptionHandler} answers as an email or DNI conflict.
    *
    * @param request the client creation request
-   * @return the created client response
-   * @throws EmailAlreadyExistsException if email already exists
-   * @throws DniAlreadyExistsException if DNI already exists
+   * @return Mono emitting the created client response
+   * @throws DuplicateKeyException if the email or DNI already exists
    */
-  public ClientResponse createClient(CreateClientRequest request) {
+  public Mono<ClientResponse> createClient(CreateClientRequest request) {
     log.info("Creating new client with email: {}", request.getEmail());
 
-    validateEmailUniqueness(request.getEmail());
-    validateDniUniqueness(request.getDni());
-
     Client client = Client.builder().firstName(request.getFirstName())
         .lastName(request.getLastName()).email(request.getEmail()).dni(request.getDni()).build();
 
-    Client savedClient = clientRepository.save(client);
-    log.info("Client created successfully with id: {}", savedClient.getId());
+    return clientRepository.insert(client)
+        .doOnNext(
+            savedClient -> log.info("Client created successfully with id: {}", savedClient.getId()))
+        .map(ClientResponse::from);
+  }
+
+  /**
+   * Retrieves one keyset page of clients ordered by id. One extra document is read to know whether
+   * another page exists, so the cost of a page does not depend on its position in the collection.
+   *
+   * @param after the id of the last client of the previous page, or null for the first page
+   * @param limit the requested page size, or null for the default; clamped to [1,
+   *        {@value #MAX_PAGE_SIZE}]
+   * @return Mono emitting the page and the cursor of the next one
+   * @throws InvalidCursorException if the cursor is not a valid client id
+   */
+  public Mono<ClientPageResponse> getClientsPage(String after, Integer limit) {
+    int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    log.info("Retrieving clients page after: {} limit: {}", after, pageSize);
+
+    Limit lookahead = Limit.of(pageSize + 1);
+    Flux<Client> clients = after == null ? clientRepository.findAllBy(ID_ASC, lookahead)
+        : validateCursor(after)
+            .thenMany(clientRepository.findByIdGreaterThan(after, ID_ASC, lookahead));
 
-    return ClientResponse.from(savedClient);
+    return clients.map(ClientResponse::from).collectList()
+        .map(items -> ClientPageResponse.of(items, pageSize));
   }
 
   /**
-   * Retrieves all clients from the database.
+   * Streams clients ordered by id straight off the Mongo cursor. Documents are pulled on demand, so
+   * memory stays bounded regardless of collection size.
    *
-   * @return list of all client responses
+   * @param after the id to resume after, or null to stream the whole collection
+   * @return Flux emitting client responses
+   * @throws InvalidCursorException if the cursor is not a valid client id
    */
-  public List<ClientResponse> getAllClients() {
-    log.info("Retrieving all clients");
-    return clientRepository.findAll().stream().map(ClientResponse::from).toList();
+  public Flux<ClientResponse> streamClients(String after) {
+    log.info("Streaming clients after: {}", after);
+    Flux<Client> clients = after == null ? clientRepository.streamAllBy(ID_ASC)
+        : validateCursor(after).thenMany(clientRepository.streamByIdGreaterThan(after, ID_ASC));
+    return clients.map(ClientResponse::from);
   }
 
   /**
-   * Retrieves a client by ID.
+   * Retrieves a client by ID, reading through the in-process client cache. Only found clients are
+   * cached; entries are dropped on write and expire after the configured TTL. Concurrent misses for
+   * the same ID share a single MongoDB query, and a query overtaken by a write does not cache what
+   * it read.
    *
    * @param id the client ID
-   * @return the client response
+   * @return Mono emitting the client response
    * @throws ClientNotFoundException if client is not found
    */
-  public ClientResponse getClientById(String id) {
+  public Mono<ClientResponse> getClientById(String id) {
     log.info("Retrieving client with id: {}", id);
-    return ClientResponse.from(findClientByIdOrThrow(id));
+    return Mono.defer(() -> Mono.justOrEmpty(clientCache.getIfPresent(id)))
+        .switchIfEmpty(
+            clientByIdCoalescer.execute(id, this::findClientByIdOrThrow, clientCache::put))
+        .map(ClientResponse::from);
+  }
+
+  /**
+   * Retrieves the last modification time of a client straight from MongoDB, reading only
+   * {@code updated_at}. Used to answer conditional requests without loading the whole document.
+   *
+   * @param id the client ID
+   * @return Mono emitting the client version
+   * @throws ClientNotFoundException if client is not found
+   */
+  public Mono<ClientVersion> getClientVersion(String id) {
+    log.info("Retrieving version of client with id: {}", id);
+    return clientRepository.findVersionById(id)
+        .switchIfEmpty(Mono.error(() -> new ClientNotFoundException(id)));
   }
 
   /**
-   * Updates a client completely (PUT operation).
+   * Updates a client completely (PUT operation) with one atomic {@code findAndModify}. A new email
+   * is checked by the unique index as part of the same command.
    *
    * @param id the client ID to update
    * @param request the update request
-   * @return the updated client response
+   * @param expectedVersions the versions the client must still be at, or null for no precondition
+   * @return Mono emitting the updated client response
    * @throws ClientNotFoundException if client is not found
-   * @throws EmailAlreadyExistsException if email already exists for another client
+   * @throws ClientVersionMismatchException if the client is not at one of the expected versions
+   * @throws DuplicateKeyException if email already exists for another client
    */
-  public ClientResponse updateClient(String id, UpdateClientRequest request) {
+  public Mono<ClientResponse> updateClient(String id, UpdateClientRequest request,
+      List<LocalDateTime> expectedVersions) {
     log.info("Updating client with id: {}", id);
 
-    Client existingClient = findClientByIdOrThrow(id);
-    validateEmailUniquenessForUpdate(request.getEmail(), id);
-
-    existingClient.setFirstName(request.getFirstName());
-    existingClient.setLastName(request.getLastName());
-    existingClient.setEmail(request.getEmail());
-
-    Client updatedClient = clientRepository.save(existingClient);
-    log.info("Client updated successfully with id: {}", updatedClient.getId());
+    Update update = new Update().set("firstName", request.getFirstName())
+        .set("lastName", request.getLastName()).set("email", request.getEmail());
 
-    return ClientResponse.from(updatedClient);
+    return findAndUpdateByIdOrThrow(id, expectedVersions, update).doOnNext(
+        updatedClient -> log.info("Client updated successfully with id: {}", updatedClient.getId()))
+        .doFinally(signal -> evict(id)).map(ClientResponse::from);
   }
 
   /**
-   * Partially updates a client (PATCH operation).
+   * Partially updates a client (PATCH operation) with one atomic {@code findAndModify} that sets
+   * only the fields present in the request. A new email or DNI is checked by the unique indexes as
+   * part of the same command.
    *
    * @param id the client ID to update
    * @param request the patch request
-   * @return the updated client response
+   * @param expectedVersions the versions the client must still be at, or null for no precondition
+   * @return Mono emitting the updated client response
    * @throws ClientNotFoundException if client is not found
-   * @throws EmailAlreadyExistsException if email already exists for another client
-   * @throws DniAlreadyExistsException if DNI already exists for another client
+   * @throws ClientVersionMismatchException if the client is not at one of the expected versions
+   * @throws DuplicateKeyException if email or DNI already exists for another client
    */
-  public ClientResponse patchClient(String id, PatchClientRequest request) {
+  public Mono<ClientResponse> patchClient(String id, PatchClientRequest request,
+      List<LocalDateTime> expectedVersions) {
     log.info("Patching client with id: {}", id);
 
-    Client existingClient = findClientByIdOrThrow(id);
-
+    Update update = new Update();
     if (request.getFirstName() != null) {
-      existingClient.setFirstName(request.getFirstName());
+      update.set("firstName", request.getFirstName());
     }
     if (request.getLastName() != null) {
-      existingClient.setLastName(request.getLastName());
+      update.set("lastName", request.getLastName());
     }
     if (request.getEmail() != null) {
-      validateEmailUniquenessForUpdate(request.getEmail(), id);
-      existingClient.setEmail(request.getEmail());
+      update.set("email", request.getEmail());
     }
     if (request.getDni() != null) {
-      validateDniUniquenessForUpdate(request.getDni(), id);
-      existingClient.setDni(request.getDni());
+      update.set("dni", request.getDni());
     }
 
-    Client updatedClient = clientRepository.save(existingClient);
-    log.info("Client patched successfully with id: {}", updatedClient.getId());
-
-    return ClientResponse.from(updatedClient);
+    return findAndUpdateByIdOrThrow(id, expectedVersions, update).doOnNext(
+        updatedClient -> log.info("Client patched successfully with id: {}", updatedClient.getId()))
+        .doFinally(signal -> evict(id)).map(ClientResponse::from);
   }
 
   /**
-   * Deletes a client by ID.
+   * Deletes a client by ID with a single delete command.
    *
    * @param id the client ID to delete
+   * @return Mono completing once the client is deleted
    * @throws ClientNotFoundException if client is not found
    */
-  public void deleteClient(String id) {
+  public Mono<Void> deleteClient(String id) {
     log.info("Deleting client with id: {}", id);
-    Client client = findClientByIdOrThrow(id);
-    clientRepository.delete(client);
-    log.info("Client deleted successfully with id: {}", id);
-  }
-
-  /**
-   * Helper method to find a client by ID or throw exception if not found.
-   */
-  private Client findClientByIdOrThrow(String id) {
-    return clientRepository.findById(id).orElseThrow(() -> new ClientNotFoundException(id));
+    return clientRepository.removeById(id).flatMap(deletedCount -> {
+      if (deletedCount == 0) {
+        return Mono.error(new ClientNotFoundException(id));
+      }
+      log.info("Client deleted successfully with id: {}", id);
+      return Mono.<Void>empty();
+    }).doFinally(signal -> evict(id));
   }
 
   /**
-   * Validates that the email is unique in the database.
+   * Helper method to drop a client from the cache and stop sharing any lookup already in flight for
+   * it, so the next read sees the write. The lookup is forgotten first: once it can no longer cache
+   * what it read, the invalidation cannot be undone by it.
    */
-  private void validateEmailUniqueness(String email) {
-    if (clientRepository.existsByEmail(email)) {
-      log.warn("Attempt to create client with existing email: {}", email);
-      throw new EmailAlreadyExistsException(email);
-    }
+  private void evict(String id) {
+    clientByIdCoalescer.forget(id);
+    clientCache.invalidate(id);
   }
 
   /**
-   * Validates that the DNI is unique in the database.
+   * Helper method to find a client by ID or signal an error if not found.
    */
-  private void validateDniUniqueness(String dni) {
-    if (clientRepository.existsByDni(dni)) {
-      log.warn("Attempt to create client with existing DNI: {}", dni);
-      throw new DniAlreadyExistsException(dni);
-    }
+  private Mono<Client> findClientByIdOrThrow(String id) {
+    return clientRepository.findById(id)
+        .switchIfEmpty(Mono.error(() -> new ClientNotFoundException(id)));
   }
 
   /**
-   * Validates email uniqueness for update operations, excluding the current client.
+   * Helper method to atomically update a client by ID or signal an error if not found. When the
+   * conditional update matches nothing, an extra existence check tells a stale version from a
+   * missing client.
    */
-  private void validateEmailUniquenessForUpdate(String email, String currentClientId) {
-    if (clientRepository.existsByEmailAndIdNot(email, currentClientId)) {
-      log.warn("Attempt to update client with existing email: {}", email);
-      throw new EmailAlreadyExistsException(email);
-    }
+  private Mono<Client> findAndUpdateByIdOrThrow(String id, List<LocalDateTime> expectedVersions,
+      Update update) {
+    Mono<Client> notUpdated =
+        expectedVersions == null ? Mono.error(() -> new ClientNotFoundException(id))
+            : clientRepository.existsById(id).flatMap(exists -> Mono.error(
+                exists ? new ClientVersionMismatchException(id) : new ClientNotFoundException(id)));
+    return clientRepository.findAndUpdateById(id, expectedVersions, update)
+        .switchIfEmpty(notUpdated);
   }
 
   /**
-   * Validates DNI uniqueness for update operations, excluding the current client.
+   * Validates that a pagination cursor is a client id (a MongoDB ObjectId).
    */
-  private void validateDniUniquenessForUpdate(String dni, String currentClientId) {
-    if (clientRepository.existsByDniAndIdNot(dni, currentClientId)) {
-      log.warn("Attempt to update client with existing DNI: {}", dni);
-      throw new DniAlreadyExistsException(dni);
-    }
+  private Mono<Void> validateCursor(String after) {
+    return ObjectId.isValid(after) ? Mono.empty() : Mono.error(new InvalidCursorException(after));
   }
 }
@@ -0,0 +1,122 @@
+package com.bootcamp.transactions.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Single-flight coalescing of concurrent lookups. While a lookup for a key is in flight, further
+ * lookups of the same key subscribe to it instead of issuing their own query, and all of them
+ * receive the same value, empty signal or error. The in-flight entry is dropped as soon as the
+ * query terminates, so results are never reused after that.
+ *
+ * <p>
+ * A lookup can publish its value (for instance into a cache) through {@code onLoaded}. Once the key
+ * is {@linkplain #forget forgotten} the lookup still answers its own subscribers, but no longer
+ * publishes: a query that read the document before a write cannot put the old value back after the
+ * write has invalidated it.
+ *
+ * <p>
+ * Publishes {@code client.lookup.requests}, {@code client.lookup.executions} and the gauge
+ * {@code client.lookup.dedup.ratio} (share of requests served by another request's query), tagged
+ * with the lookup name.
+ *
+ * @param <K> the lookup key type
+ * @param <V> the looked up value type
+ */
+public class RequestCoalescer<K, V> {
+
+  private final ConcurrentMap<K, Flight> inFlight = new ConcurrentHashMap<>();
+  private final Counter requests;
+  private final Counter executions;
+
+  public RequestCoalescer(String lookup, MeterRegistry meterRegistry) {
+    this.requests = Counter.builder("client.lookup.requests").tag("lookup", lookup)
+        .description("Lookups requested").register(meterRegistry);
+    this.executions = Counter.builder("client.lookup.executions").tag("lookup", lookup)
+        .description("Lookups actually sent to MongoDB").register(meterRegistry);
+    Gauge.builder("client.lookup.dedup.ratio", this, RequestCoalescer::dedupRatio)
+        .tag("lookup", lookup).description("Share of lookups served by a coalesced query")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Runs the lookup for a key, joining the one already in flight if there is one.
+   *
+   * @param key the lookup key
+   * @param loader the query to run when no lookup for the key is in flight
+   * @return Mono emitting the shared result
+   */
+  public Mono<V> execute(K key, Function<K, Mono<V>> loader) {
+    return execute(key, loader, (k, value) -> {
+    });
+  }
+
+  /**
+   * Runs the lookup for a key, joining the one already in flight if there is one, and hands the
+   * value it finds to {@code onLoaded} unless the key is forgotten first. {@code onLoaded} runs at
+   * most once per query and never concurrently with {@link #forget} for the same key.
+   *
+   * @param key the lookup key
+   * @param loader the query to run when no lookup for the key is in flight
+   * @param onLoaded receives the value of a query that is still current
+   * @return Mono emitting the shared result
+   */
+  public Mono<V> execute(K key, Function<K, Mono<V>> loader, BiConsumer<K, V> onLoaded) {
+    return Mono.defer(() -> {
+      requests.increment();
+      return inFlight.computeIfAbsent(key, k -> new Flight(k, loader, onLoaded)).result;
+    });
+  }
+
+  /**
+   * Stops sharing the in-flight lookup for a key, so later callers start a fresh query, and stops
+   * that lookup from publishing what it read. Used when the underlying document changes while a
+   * lookup is running; once this returns, the old lookup can no longer call {@code onLoaded}.
+   *
+   * @param key the lookup key
+   */
+  public void forget(K key) {
+    Flight flight = inFlight.remove(key);
+    if (flight != null) {
+      flight.supersede();
+    }
+  }
+
+  private double dedupRatio() {
+    double total = requests.count();
+    return total == 0 ? 0 : (total - executions.count()) / total;
+  }
+
+  /**
+   * One query in flight. Publishing and superseding lock the flight, so a value is either published
+   * before {@link #forget} returns or not at all.
+   */
+  private final class Flight {
+
+    private final Mono<V> result;
+    private boolean superseded;
+
+    Flight(K key, Function<K, Mono<V>> loader, BiConsumer<K, V> onLoaded) {
+      executions.increment();
+      this.result = loader.apply(key).doOnNext(value -> publish(key, value, onLoaded))
+          .doFinally(signal -> inFlight.remove(key, this)).cache();
+    }
+
+    private synchronized void publish(K key, V value, BiConsumer<K, V> onLoaded) {
+      if (!superseded) {
+        onLoaded.accept(key, value);
+      }
+    }
+
+    private synchronized void supersede() {
+      superseded = true;
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package com.bootcamp.transactions;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.bootcamp.transactions.domain.Client;
+import com.bootcamp.transactions.repository.ClientRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+/**
+ * Base class of the tests that need MongoDB. Starts an in-memory server speaking the wire protocol
+ * once and points {@code spring.data.mongodb.uri} at it, so every subclass shares one application
+ * context. Each test starts with an empty client collection and an empty client cache.
+ */
+@SpringBootTest
+@AutoConfigureWebTestClient
+public abstract class InMemoryMongoTest {
+
+  private static final MongoServer MONGO = new MongoServer(new MemoryBackend());
+
+  static {
+    MONGO.bind("localhost", 0);
+    Runtime.getRuntime().addShutdownHook(new Thread(MONGO::shutdownNow));
+  }
+
+  @Autowired
+  protected WebTestClient webTestClient;
+
+  @Autowired
+  protected ClientRepository clientRepository;
+
+  @Autowired
+  protected Cache<String, Client> clientCache;
+
+  @DynamicPropertySource
+  static void mongo(DynamicPropertyRegistry registry) {
+    registry.add("spring.data.mongodb.uri",
+        () -> "mongodb://localhost:" + MONGO.getLocalAddress().getPort() + "/banking");
+  }
+
+  @BeforeEach
+  void cleanUp() {
+    clientRepository.deleteAll().block();
+    clientCache.invalidateAll();
+  }
+}
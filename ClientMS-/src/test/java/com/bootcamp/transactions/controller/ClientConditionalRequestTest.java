@@ -0,0 +1,124 @@
+package com.bootcamp.transactions.controller;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient.ResponseSpec;
+
+import com.bootcamp.transactions.InMemoryMongoTest;
+import com.bootcamp.transactions.domain.Client;
+import com.bootcamp.transactions.dto_2.request.PatchClientRequest;
+import com.bootcamp.transactions.dto_2.request.UpdateClientRequest;
+
+@DisplayName("Conditional requests on /clientes/{id}")
+class ClientConditionalRequestTest extends InMemoryMongoTest {
+
+  /** Stored version of the seeded client, well before any write made by a test. */
+  private static final LocalDateTime VERSION =
+      LocalDateTime.of(2024, 1, 15, 10, 30, 0, 123_000_000);
+
+  @Autowired
+  ReactiveMongoOperations mongoOperations;
+
+  private String id;
+  private String etag;
+
+  @BeforeEach
+  void seed() {
+    id = clientRepository.insert(Client.builder().firstName("Ana").lastName("Torres")
+        .email("ana@bank.com").dni("12345678").build()).block().getId();
+    mongoOperations.updateFirst(query(where("id").is(id)), Update.update("updatedAt", VERSION),
+        Client.class).block();
+    etag = ClientValidators.etag(VERSION);
+  }
+
+  @Test
+  @DisplayName("GET carries an ETag and Last-Modified derived from updated_at")
+  void getCarriesValidators() {
+    webTestClient.get().uri("/clientes/{id}", id).exchange().expectStatus().isOk().expectHeader()
+        .valueEquals(HttpHeaders.ETAG, etag).expectHeader()
+        .lastModified(zoned(VERSION.withNano(0)).toInstant().toEpochMilli());
+  }
+
+  @Test
+  @DisplayName("If-None-Match or If-Modified-Since on the current version answers 304 without body")
+  void notModified() {
+    webTestClient.get().uri("/clientes/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag)
+        .exchange().expectStatus().isNotModified().expectHeader()
+        .valueEquals(HttpHeaders.ETAG, etag).expectBody().isEmpty();
+    webTestClient.get().uri("/clientes/{id}", id)
+        .ifModifiedSince(zoned(VERSION).plusSeconds(1)).exchange().expectStatus().isNotModified();
+  }
+
+  @Test
+  @DisplayName("A validator of an older version gets 200 with the new body and ETag")
+  void modifiedAfterWrite() {
+    String newEtag = put(etag, "ana.torres@bank.com").expectStatus().isOk()
+        .returnResult(Void.class).getResponseHeaders().getETag();
+    assertNotEquals(etag, newEtag);
+
+    webTestClient.get().uri("/clientes/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag)
+        .exchange().expectStatus().isOk().expectHeader().valueEquals(HttpHeaders.ETAG, newEtag)
+        .expectBody().jsonPath("$.email").isEqualTo("ana.torres@bank.com");
+    webTestClient.get().uri("/clientes/{id}", id)
+        .ifModifiedSince(zoned(VERSION).plusSeconds(1)).exchange().expectStatus().isOk();
+  }
+
+  @Test
+  @DisplayName("PUT and PATCH with a stale If-Match answer 412 and change nothing")
+  void staleIfMatchIsRejected() {
+    String newEtag =
+        put(etag, "first@bank.com").returnResult(Void.class).getResponseHeaders().getETag();
+
+    put(etag, "second@bank.com").expectStatus().isEqualTo(412).expectBody()
+        .jsonPath("$.status").isEqualTo(412);
+    webTestClient.patch().uri("/clientes/{id}", id).header(HttpHeaders.IF_MATCH, etag)
+        .bodyValue(new PatchClientRequest("Eva", null, null, null)).exchange().expectStatus()
+        .isEqualTo(412);
+    put("\"not-one-of-ours\"", "third@bank.com").expectStatus().isEqualTo(412);
+
+    webTestClient.get().uri("/clientes/{id}", id).exchange().expectStatus().isOk().expectHeader()
+        .valueEquals(HttpHeaders.ETAG, newEtag).expectBody().jsonPath("$.email")
+        .isEqualTo("first@bank.com").jsonPath("$.firstName").isEqualTo("Ana");
+  }
+
+  @Test
+  @DisplayName("If-Match accepts the current version, any version in a list and the wildcard")
+  void currentIfMatchIsAccepted() {
+    put("\"1\", " + etag, "first@bank.com").expectStatus().isOk();
+    put("*", "second@bank.com").expectStatus().isOk().expectBody().jsonPath("$.email")
+        .isEqualTo("second@bank.com");
+  }
+
+  @Test
+  @DisplayName("If-Match on a missing client answers 404, not 412")
+  void ifMatchOnMissingClient() {
+    clientRepository.deleteById(id).block();
+
+    put(etag, "first@bank.com").expectStatus().isNotFound();
+  }
+
+  private ResponseSpec put(String ifMatch, String email) {
+    return webTestClient.put().uri("/clientes/{id}", id).header(HttpHeaders.IF_MATCH, ifMatch)
+        .bodyValue(new UpdateClientRequest("Ana", "Torres", email)).exchange();
+  }
+
+  /**
+   * Places a stored version in the server time zone, as {@link ClientValidators} does.
+   */
+  private static ZonedDateTime zoned(LocalDateTime version) {
+    return version.atZone(ZoneId.systemDefault());
+  }
+}
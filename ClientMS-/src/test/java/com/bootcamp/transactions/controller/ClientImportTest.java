@@ -0,0 +1,95 @@
+package com.bootcamp.transactions.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import com.bootcamp.transactions.InMemoryMongoTest;
+import com.bootcamp.transactions.domain.Client;
+import com.bootcamp.transactions.dto_2.request.CreateClientRequest;
+import com.bootcamp.transactions.dto_2.response.ClientImportResult;
+import com.bootcamp.transactions.dto_2.response.ClientImportResult.Status;
+
+@DisplayName("POST /clientes/batch")
+class ClientImportTest extends InMemoryMongoTest {
+
+  @BeforeEach
+  void createExisting() {
+    clientRepository.insert(Client.builder().firstName("Ana").lastName("Torres")
+        .email("ana@bank.com").dni("12345678").build()).block();
+  }
+
+  @Test
+  @DisplayName("Rejected items do not stop the others and each result names its reason")
+  void partialFailure() {
+    List<CreateClientRequest> batch = List.of(
+        new CreateClientRequest("Luis", "Paz", "20000001", "luis@bank.com"),
+        new CreateClientRequest("Eva", "Ruiz", "20000002", "ana@bank.com"),
+        new CreateClientRequest("", "Soto", "20000003", "not-an-email"),
+        new CreateClientRequest("Iván", "Gil", "12345678", "ivan@bank.com"),
+        new CreateClientRequest("Rosa", "Mora", "20000005", "rosa@bank.com"),
+        new CreateClientRequest("Rosa", "Mora", "20000006", "rosa@bank.com"));
+
+    List<ClientImportResult> results = importClients(MediaType.APPLICATION_JSON, batch);
+
+    assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L),
+        results.stream().map(ClientImportResult::getIndex).toList());
+    assertEquals(List.of(Status.CREATED, Status.DUPLICATE_EMAIL, Status.INVALID,
+        Status.DUPLICATE_DNI, Status.CREATED, Status.DUPLICATE_EMAIL),
+        results.stream().map(ClientImportResult::getStatus).toList());
+    assertNotNull(results.get(0).getId());
+    assertNull(results.get(1).getId());
+    assertEquals(
+        "Validation failed: email - Email must be valid; firstName - First name is required;",
+        results.get(2).getMessage());
+
+    assertEquals(3L, clientRepository.count().block());
+    Client imported = clientRepository.findById(results.get(0).getId()).block();
+    assertEquals("luis@bank.com", imported.getEmail());
+    assertNotNull(imported.getCreatedAt());
+    assertNotNull(imported.getUpdatedAt());
+  }
+
+  @Test
+  @DisplayName("An NDJSON upload larger than one chunk keeps upload order in its results")
+  void ndjsonAcrossChunks() {
+    List<CreateClientRequest> batch = IntStream.range(0, 1_203)
+        .mapToObj(i -> new CreateClientRequest("Client" + i, "Bulk", String.format("3%07d", i),
+            i == 700 ? "ana@bank.com" : "bulk" + i + "@bank.com"))
+        .toList();
+
+    List<ClientImportResult> results = importClients(MediaType.APPLICATION_NDJSON, batch);
+
+    assertEquals(1_203, results.size());
+    for (int i = 0; i < results.size(); i++) {
+      assertEquals(i, results.get(i).getIndex());
+      assertEquals(i == 700 ? Status.DUPLICATE_EMAIL : Status.CREATED, results.get(i).getStatus());
+    }
+    assertEquals(1_203L, clientRepository.count().block());
+  }
+
+  private List<ClientImportResult> importClients(MediaType contentType,
+      List<CreateClientRequest> batch) {
+    Object body = MediaType.APPLICATION_NDJSON.equals(contentType)
+        ? batch.stream().map(ClientImportTest::json).collect(Collectors.joining("\n"))
+        : batch;
+    return webTestClient.post().uri("/clientes/batch").contentType(contentType)
+        .accept(MediaType.APPLICATION_NDJSON).bodyValue(body).exchange().expectStatus().isOk()
+        .returnResult(ClientImportResult.class).getResponseBody().collectList().block();
+  }
+
+  private static String json(CreateClientRequest request) {
+    return String.format(
+        "{\"firstName\":\"%s\",\"lastName\":\"%s\",\"dni\":\"%s\",\"email\":\"%s\"}",
+        request.getFirstName(), request.getLastName(), request.getDni(), request.getEmail());
+  }
+}
@@ -0,0 +1,126 @@
+package com.bootcamp.transactions.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import com.bootcamp.transactions.InMemoryMongoTest;
+import com.bootcamp.transactions.domain.Client;
+import com.bootcamp.transactions.dto_2.response.ClientPageResponse;
+import com.bootcamp.transactions.dto_2.response.ClientResponse;
+
+@DisplayName("GET /clientes pagination and streaming")
+class ClientPaginationTest extends InMemoryMongoTest {
+
+  @Test
+  @DisplayName("Pages follow the cursor without gaps or repeats and the last page has no cursor")
+  void walksEveryPage() {
+    List<String> ids = seed(7);
+
+    ClientPageResponse first = page(null, 3);
+    ClientPageResponse second = page(first.getNext(), 3);
+    ClientPageResponse third = page(second.getNext(), 3);
+
+    assertEquals(ids.subList(0, 3), ids(first));
+    assertEquals(ids.get(2), first.getNext());
+    assertEquals(ids.subList(3, 6), ids(second));
+    assertEquals(ids.get(5), second.getNext());
+    assertEquals(ids.subList(6, 7), ids(third));
+    assertNull(third.getNext());
+  }
+
+  @Test
+  @DisplayName("A page that ends exactly at the last client has no cursor")
+  void exactLastPageHasNoCursor() {
+    List<String> ids = seed(6);
+
+    ClientPageResponse full = page(null, 6);
+    assertEquals(ids, ids(full));
+    assertNull(full.getNext());
+
+    ClientPageResponse second = page(page(null, 3).getNext(), 3);
+    assertEquals(ids.subList(3, 6), ids(second));
+    assertNull(second.getNext());
+  }
+
+  @Test
+  @DisplayName("A cursor past the last client yields an empty page")
+  void cursorAfterLastClient() {
+    List<String> ids = seed(2);
+
+    ClientPageResponse empty = page(ids.get(1), 5);
+    assertEquals(List.of(), empty.getItems());
+    assertNull(empty.getNext());
+  }
+
+  @Test
+  @DisplayName("The page size defaults to 50 and is clamped to at least one client")
+  void limitDefaultsAndClamps() {
+    List<String> ids = seed(52);
+
+    ClientPageResponse byDefault = page(null, null);
+    assertEquals(ids.subList(0, 50), ids(byDefault));
+    assertEquals(ids.get(49), byDefault.getNext());
+
+    ClientPageResponse clamped = page(null, 0);
+    assertEquals(ids.subList(0, 1), ids(clamped));
+    assertEquals(ids.get(0), clamped.getNext());
+  }
+
+  @Test
+  @DisplayName("A cursor that is not a client id is rejected with 400")
+  void invalidCursorIsRejected() {
+    webTestClient.get().uri("/clientes?after=not-an-id").accept(MediaType.APPLICATION_JSON)
+        .exchange().expectStatus().isBadRequest().expectBody().jsonPath("$.status")
+        .isEqualTo(400);
+  }
+
+  @Test
+  @DisplayName("The NDJSON stream returns every client in id order and resumes after a cursor")
+  void streamsAsNdjson() {
+    List<String> ids = seed(5);
+
+    assertEquals(ids, stream("/clientes"));
+    assertEquals(ids.subList(2, 5), stream("/clientes?after=" + ids.get(1)));
+  }
+
+  /**
+   * Inserts {@code count} clients and returns their ids in ascending order.
+   */
+  private List<String> seed(int count) {
+    List<Client> clients = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      clients.add(Client.builder().id(new ObjectId().toHexString()).firstName("Client" + i)
+          .lastName("Page").email("client" + i + "@bank.com").dni(String.format("%08d", i))
+          .build());
+    }
+    clientRepository.insert(clients).blockLast();
+    return clients.stream().map(Client::getId).sorted().toList();
+  }
+
+  private ClientPageResponse page(String after, Integer limit) {
+    return webTestClient.get()
+        .uri(uri -> uri.path("/clientes").queryParamIfPresent("after", Optional.ofNullable(after))
+            .queryParamIfPresent("limit", Optional.ofNullable(limit)).build())
+        .accept(MediaType.APPLICATION_JSON).exchange().expectStatus().isOk()
+        .expectBody(ClientPageResponse.class).returnResult().getResponseBody();
+  }
+
+  private List<String> stream(String uri) {
+    return webTestClient.get().uri(uri).accept(MediaType.APPLICATION_NDJSON).exchange()
+        .expectStatus().isOk().returnResult(ClientResponse.class).getResponseBody()
+        .map(ClientResponse::getId).collectList().block();
+  }
+
+  private static List<String> ids(ClientPageResponse page) {
+    return page.getItems().stream().map(ClientResponse::getId).toList();
+  }
+}
@@ -0,0 +1,83 @@
+package com.bootcamp.transactions.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.reactive.server.WebTestClient.ResponseSpec;
+
+import com.bootcamp.transactions.InMemoryMongoTest;
+import com.bootcamp.transactions.dto_2.request.CreateClientRequest;
+import com.bootcamp.transactions.dto_2.request.PatchClientRequest;
+import com.bootcamp.transactions.dto_2.request.UpdateClientRequest;
+import com.bootcamp.transactions.dto_2.response.ClientResponse;
+
+@DisplayName("Client email and DNI uniqueness")
+class ClientUniquenessTest extends InMemoryMongoTest {
+
+  private ClientResponse existing;
+
+  @BeforeEach
+  void createExisting() {
+    existing = create(new CreateClientRequest("Ana", "Torres", "12345678", "ana@bank.com"))
+        .expectStatus().isOk().expectBody(ClientResponse.class).returnResult().getResponseBody();
+  }
+
+  @Test
+  @DisplayName("Creating a client with a taken email answers 409 naming the email")
+  void duplicateEmailOnCreate() {
+    create(new CreateClientRequest("Luis", "Paz", "87654321", "ana@bank.com")).expectStatus()
+        .isEqualTo(409).expectBody().jsonPath("$.status").isEqualTo(409).jsonPath("$.message")
+        .value(message -> assertContains(message, "ana@bank.com"));
+    assertEquals(1L, clientRepository.count().block());
+  }
+
+  @Test
+  @DisplayName("Creating a client with a taken DNI answers 409 naming the DNI")
+  void duplicateDniOnCreate() {
+    create(new CreateClientRequest("Luis", "Paz", "12345678", "luis@bank.com")).expectStatus()
+        .isEqualTo(409).expectBody().jsonPath("$.message")
+        .value(message -> assertContains(message, "12345678"));
+    assertEquals(1L, clientRepository.count().block());
+  }
+
+  @Test
+  @DisplayName("PUT or PATCH onto another client's email or DNI answers 409 and changes nothing")
+  void duplicateOnUpdate() {
+    ClientResponse other =
+        create(new CreateClientRequest("Luis", "Paz", "87654321", "luis@bank.com")).expectStatus()
+            .isOk().expectBody(ClientResponse.class).returnResult().getResponseBody();
+
+    webTestClient.put().uri("/clientes/{id}", other.getId())
+        .bodyValue(new UpdateClientRequest("Luis", "Paz", "ana@bank.com")).exchange()
+        .expectStatus().isEqualTo(409).expectBody().jsonPath("$.message")
+        .value(message -> assertContains(message, "ana@bank.com"));
+    webTestClient.patch().uri("/clientes/{id}", other.getId())
+        .bodyValue(new PatchClientRequest(null, null, existing.getDni(), null)).exchange()
+        .expectStatus().isEqualTo(409).expectBody().jsonPath("$.message")
+        .value(message -> assertContains(message, existing.getDni()));
+
+    webTestClient.get().uri("/clientes/{id}", other.getId()).exchange().expectStatus().isOk()
+        .expectBody().jsonPath("$.email").isEqualTo("luis@bank.com").jsonPath("$.dni")
+        .isEqualTo("87654321");
+  }
+
+  @Test
+  @DisplayName("Keeping one's own email on update is not a conflict")
+  void ownEmailIsNotAConflict() {
+    webTestClient.put().uri("/clientes/{id}", existing.getId())
+        .bodyValue(new UpdateClientRequest("Ana María", "Torres", "ana@bank.com")).exchange()
+        .expectStatus().isOk().expectBody().jsonPath("$.firstName").isEqualTo("Ana María");
+  }
+
+  private ResponseSpec create(CreateClientRequest request) {
+    return webTestClient.post().uri("/clientes").bodyValue(request).exchange();
+  }
+
+  private static void assertContains(Object message, String expected) {
+    assertTrue(String.valueOf(message).contains(expected),
+        () -> message + " should mention " + expected);
+  }
+}
@@ -0,0 +1,46 @@
+package com.bootcamp.transactions.exception;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("DuplicateKeyErrors")
+class DuplicateKeyErrorsTest {
+
+  @Test
+  @DisplayName("A MongoDB E11000 message on the email index maps to an email conflict")
+  void emailIndex() {
+    RuntimeException conflict = DuplicateKeyErrors.translate(
+        "E11000 duplicate key error collection: banking.client index: uk_client_email "
+            + "dup key: { email: \"ana@bank.com\" }")
+        .orElseThrow();
+
+    assertInstanceOf(EmailAlreadyExistsException.class, conflict);
+    assertEquals("Email already exists: ana@bank.com", conflict.getMessage());
+  }
+
+  @Test
+  @DisplayName("A MongoDB E11000 message on the DNI index maps to a DNI conflict")
+  void dniIndex() {
+    RuntimeException conflict = DuplicateKeyErrors.translate(
+        "E11000 duplicate key error collection: banking.client index: uk_client_dni "
+            + "dup key: { dni: \"12345678\" }")
+        .orElseThrow();
+
+    assertInstanceOf(DniAlreadyExistsException.class, conflict);
+    assertTrue(conflict.getMessage().contains("12345678"));
+  }
+
+  @Test
+  @DisplayName("Other indexes and unrelated messages are not translated")
+  void otherMessages() {
+    assertTrue(DuplicateKeyErrors.translate(
+        "E11000 duplicate key error collection: banking.client index: _id_ dup key: { _id: 1 }")
+        .isEmpty());
+    assertTrue(DuplicateKeyErrors.translate("connection reset").isEmpty());
+    assertTrue(DuplicateKeyErrors.translate(null).isEmpty());
+  }
+}
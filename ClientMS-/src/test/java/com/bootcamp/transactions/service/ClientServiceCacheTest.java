@@ -0,0 +1,201 @@
+package com.bootcamp.transactions.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bootcamp.transactions.domain.Client;
+import com.bootcamp.transactions.dto_2.request.PatchClientRequest;
+import com.bootcamp.transactions.dto_2.request.UpdateClientRequest;
+import com.bootcamp.transactions.dto_2.response.ClientResponse;
+import com.bootcamp.transactions.exception.ClientNotFoundException;
+import com.bootcamp.transactions.exception.ClientVersionMismatchException;
+import com.bootcamp.transactions.repository.ClientRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+@DisplayName("ClientService cache")
+class ClientServiceCacheTest {
+
+  private static final String ID = "65a1b2c3d4e5f60718293a4b";
+
+  private ClientRepository clientRepository;
+  private Cache<String, Client> clientCache;
+  private ClientService clientService;
+
+  @BeforeEach
+  void setUp() {
+    clientRepository = mock(ClientRepository.class);
+    clientCache = Caffeine.newBuilder().build();
+    clientService = new ClientService(clientRepository, clientCache,
+        new RequestCoalescer<>("findById", new SimpleMeterRegistry()));
+  }
+
+  @Test
+  @DisplayName("A found client is cached and served without another query")
+  void cachesFoundClient() {
+    when(clientRepository.findById(ID)).thenReturn(Mono.just(client("old@bank.com")));
+
+    clientService.getClientById(ID).block();
+    ClientResponse cached = clientService.getClientById(ID).block();
+
+    assertEquals("old@bank.com", cached.getEmail());
+    verify(clientRepository, times(1)).findById(ID);
+  }
+
+  @Test
+  @DisplayName("Concurrent misses for the same client share one query and all get the client")
+  void concurrentMissesShareOneQuery() {
+    Sinks.One<Client> read = Sinks.one();
+    when(clientRepository.findById(ID)).thenReturn(read.asMono());
+
+    List<CompletableFuture<ClientResponse>> readers = IntStream.range(0, 20)
+        .mapToObj(i -> clientService.getClientById(ID).toFuture()).toList();
+    read.tryEmitValue(client("old@bank.com"));
+
+    readers.forEach(reader -> assertEquals("old@bank.com", reader.join().getEmail()));
+    verify(clientRepository, times(1)).findById(ID);
+  }
+
+  @Test
+  @DisplayName("Concurrent misses for a missing client share one query and all get 404")
+  void concurrentMissesShareNotFound() {
+    Sinks.One<Client> read = Sinks.one();
+    when(clientRepository.findById(ID)).thenReturn(read.asMono());
+
+    List<CompletableFuture<ClientResponse>> readers = IntStream.range(0, 5)
+        .mapToObj(i -> clientService.getClientById(ID).toFuture()).toList();
+    read.tryEmitEmpty();
+
+    readers.forEach(reader -> assertInstanceOf(ClientNotFoundException.class,
+        assertThrows(CompletionException.class, reader::join).getCause()));
+    verify(clientRepository, times(1)).findById(ID);
+  }
+
+  @Test
+  @DisplayName("A missing client is not cached")
+  void missingClientIsNotCached() {
+    when(clientRepository.findById(ID)).thenReturn(Mono.empty())
+        .thenReturn(Mono.just(client("new@bank.com")));
+
+    assertThrows(ClientNotFoundException.class, () -> clientService.getClientById(ID).block());
+    assertNull(clientCache.getIfPresent(ID));
+    assertEquals("new@bank.com", clientService.getClientById(ID).block().getEmail());
+  }
+
+  @Test
+  @DisplayName("PUT and PATCH drop the cached client so the next read sees the write")
+  void updateAndPatchInvalidate() {
+    when(clientRepository.findById(ID)).thenReturn(Mono.just(client("old@bank.com")))
+        .thenReturn(Mono.just(client("put@bank.com")))
+        .thenReturn(Mono.just(client("patch@bank.com")));
+    when(clientRepository.findAndUpdateById(any(), isNull(), any()))
+        .thenReturn(Mono.just(client("put@bank.com")))
+        .thenReturn(Mono.just(client("patch@bank.com")));
+
+    assertEquals("old@bank.com", clientService.getClientById(ID).block().getEmail());
+    clientService
+        .updateClient(ID, new UpdateClientRequest("Ana", "Torres", "put@bank.com"), null).block();
+    assertNull(clientCache.getIfPresent(ID));
+    assertEquals("put@bank.com", clientService.getClientById(ID).block().getEmail());
+
+    clientService
+        .patchClient(ID, new PatchClientRequest(null, null, null, "patch@bank.com"), null).block();
+    assertNull(clientCache.getIfPresent(ID));
+    assertEquals("patch@bank.com", clientService.getClientById(ID).block().getEmail());
+    verify(clientRepository, times(3)).findById(ID);
+  }
+
+  @Test
+  @DisplayName("DELETE drops the cached client so the next read is a 404")
+  void deleteInvalidates() {
+    when(clientRepository.findById(ID)).thenReturn(Mono.just(client("old@bank.com")))
+        .thenReturn(Mono.empty());
+    when(clientRepository.removeById(ID)).thenReturn(Mono.just(1L));
+
+    clientService.getClientById(ID).block();
+    clientService.deleteClient(ID).block();
+
+    assertNull(clientCache.getIfPresent(ID));
+    assertThrows(ClientNotFoundException.class, () -> clientService.getClientById(ID).block());
+  }
+
+  @Test
+  @DisplayName("A failed conditional update still drops the cached client")
+  void failedUpdateInvalidates() {
+    when(clientRepository.findById(ID)).thenReturn(Mono.just(client("old@bank.com")));
+    when(clientRepository.findAndUpdateById(any(), any(), any())).thenReturn(Mono.empty());
+    when(clientRepository.existsById(ID)).thenReturn(Mono.just(true));
+
+    clientService.getClientById(ID).block();
+    assertThrows(ClientVersionMismatchException.class,
+        () -> clientService.updateClient(ID,
+            new UpdateClientRequest("Ana", "Torres", "put@bank.com"), List.of(LocalDateTime.MIN))
+            .block());
+
+    assertNull(clientCache.getIfPresent(ID));
+  }
+
+  @Test
+  @DisplayName("A lookup overtaken by a delete does not put the deleted client back")
+  void lateLookupAfterDeleteIsNotCached() {
+    Sinks.One<Client> slowRead = Sinks.one();
+    when(clientRepository.findById(ID)).thenReturn(slowRead.asMono()).thenReturn(Mono.empty());
+    when(clientRepository.removeById(ID)).thenReturn(Mono.just(1L));
+
+    CompletableFuture<ClientResponse> concurrentRead = clientService.getClientById(ID).toFuture();
+    clientService.deleteClient(ID).block();
+    slowRead.tryEmitValue(client("old@bank.com"));
+
+    assertEquals("old@bank.com", concurrentRead.join().getEmail());
+    assertNull(clientCache.getIfPresent(ID));
+    assertThrows(ClientNotFoundException.class, () -> clientService.getClientById(ID).block());
+  }
+
+  @Test
+  @DisplayName("A lookup overtaken by an update does not put the old version back")
+  void lateLookupAfterUpdateIsNotCached() {
+    Sinks.One<Client> slowRead = Sinks.one();
+    when(clientRepository.findById(ID)).thenReturn(slowRead.asMono())
+        .thenReturn(Mono.just(client("new@bank.com")));
+    when(clientRepository.findAndUpdateById(any(), isNull(), any()))
+        .thenReturn(Mono.just(client("new@bank.com")));
+
+    CompletableFuture<ClientResponse> concurrentRead = clientService.getClientById(ID).toFuture();
+    clientService
+        .updateClient(ID, new UpdateClientRequest("Ana", "Torres", "new@bank.com"), null).block();
+    slowRead.tryEmitValue(client("old@bank.com"));
+    concurrentRead.join();
+
+    assertNull(clientCache.getIfPresent(ID));
+    assertEquals("new@bank.com", clientService.getClientById(ID).block().getEmail());
+    assertEquals("new@bank.com", clientService.getClientById(ID).block().getEmail());
+    verify(clientRepository, times(2)).findById(ID);
+  }
+
+  private static Client client(String email) {
+    return Client.builder().id(ID).firstName("Ana").lastName("Torres").email(email)
+        .dni("12345678").build();
+  }
+}
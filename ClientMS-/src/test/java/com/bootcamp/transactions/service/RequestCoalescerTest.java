@@ -0,0 +1,96 @@
+package com.bootcamp.transactions.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Sinks;
+
+@DisplayName("RequestCoalescer")
+class RequestCoalescerTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private RequestCoalescer<String, String> coalescer;
+  private AtomicInteger queries;
+  private List<Sinks.One<String>> pending;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    coalescer = new RequestCoalescer<>("test", meterRegistry);
+    queries = new AtomicInteger();
+    pending = new ArrayList<>();
+  }
+
+  @Test
+  @DisplayName("Lookups of the same key in flight share one query; other keys run their own")
+  void sharesInFlightQueryPerKey() {
+    CompletableFuture<String> first = lookup("a");
+    CompletableFuture<String> second = lookup("a");
+    CompletableFuture<String> other = lookup("b");
+
+    assertEquals(2, queries.get());
+    pending.get(0).tryEmitValue("a1");
+    pending.get(1).tryEmitValue("b1");
+
+    assertEquals("a1", first.join());
+    assertEquals("a1", second.join());
+    assertEquals("b1", other.join());
+    assertEquals(1.0 / 3, meterRegistry.get("client.lookup.dedup.ratio").gauge().value(), 1e-9);
+  }
+
+  @Test
+  @DisplayName("A finished query is not reused and errors are shared but not kept")
+  void resultsAreNotReusedAfterTermination() {
+    CompletableFuture<String> first = lookup("a");
+    CompletableFuture<String> joined = lookup("a");
+    pending.get(0).tryEmitError(new IllegalStateException("boom"));
+
+    assertThrows(Exception.class, first::join);
+    assertThrows(Exception.class, joined::join);
+
+    CompletableFuture<String> retry = lookup("a");
+    pending.get(1).tryEmitValue("a2");
+    assertEquals("a2", retry.join());
+    assertEquals(2, queries.get());
+  }
+
+  @Test
+  @DisplayName("After forget, new lookups start a fresh query and the old one no longer publishes")
+  void forgetStartsFreshQueryAndSilencesOldOne() {
+    List<String> published = new ArrayList<>();
+    CompletableFuture<String> old = lookup("a", published);
+    coalescer.forget("a");
+    CompletableFuture<String> fresh = lookup("a", published);
+
+    pending.get(0).tryEmitValue("stale");
+    pending.get(1).tryEmitValue("current");
+
+    assertEquals("stale", old.join());
+    assertEquals("current", fresh.join());
+    assertEquals(List.of("current"), published);
+    assertEquals(2, queries.get());
+  }
+
+  private CompletableFuture<String> lookup(String key) {
+    return lookup(key, new ArrayList<>());
+  }
+
+  private CompletableFuture<String> lookup(String key, List<String> published) {
+    return coalescer.execute(key, k -> {
+      queries.incrementAndGet();
+      Sinks.One<String> sink = Sinks.one();
+      pending.add(sink);
+      return sink.asMono();
+    }, (k, value) -> published.add(value)).toFuture();
+  }
+}
@@ -0,0 +1,81 @@
+package com.bootcamp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bootcamp.transactions.domain.Account;
+import com.bootcamp.transactions.domain.Money;
+
+/**
+ * Benchmarks the balance arithmetic of deposits, withdrawals and transfers on {@link Account}'s
+ * {@link Money} balance: the add, the sufficient-funds comparison and the subtract.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BalanceArithmeticBenchmark {
+
+  private static final Money OPENING_BALANCE = Money.parse("1000000000.00");
+
+  private Account source;
+  private Account destination;
+  private Money[] amounts;
+  private int next;
+
+  /** Opens two accounts and prepares a cycle of amounts with two decimals, as the API accepts. */
+  @Setup
+  public void setUp() {
+    source = new Account("ACC-0001", OPENING_BALANCE);
+    destination = new Account("ACC-0002", OPENING_BALANCE);
+    amounts = new Money[1024];
+    for (int i = 0; i < amounts.length; i++) {
+      amounts[i] = Money.ofMinor(1 + i * 7919L % 100_000);
+    }
+  }
+
+  @Benchmark
+  public Money deposit() {
+    source.setBalance(source.getBalance().plus(nextAmount()));
+    return source.getBalance();
+  }
+
+  @Benchmark
+  public Money withdraw() {
+    Money amount = nextAmount();
+    if (source.getBalance().compareTo(amount) < 0) {
+      source.setBalance(OPENING_BALANCE);
+    }
+    source.setBalance(source.getBalance().minus(amount));
+    return source.getBalance();
+  }
+
+  /** Transfers alternate direction so neither account drains. */
+  @Benchmark
+  public Money transfer() {
+    Money amount = nextAmount();
+    Account from = (next & 1) == 0 ? source : destination;
+    Account to = from == source ? destination : source;
+    if (from.getBalance().compareTo(amount) >= 0) {
+      from.setBalance(from.getBalance().minus(amount));
+      to.setBalance(to.getBalance().plus(amount));
+    }
+    return to.getBalance();
+  }
+
+  private Money nextAmount() {
+    return amounts[next++ & (amounts.length - 1)];
+  }
+}
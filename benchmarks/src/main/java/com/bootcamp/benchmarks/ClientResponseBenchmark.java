@@ -0,0 +1,63 @@
+package com.bootcamp.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.bootcamp.transactions.domain.Client;
+import com.bootcamp.transactions.dto_2.response.ClientResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Benchmarks the mapping of client documents to responses and the JSON encoding of a page of
+ * responses, the per-request CPU work of {@code GET /clientes}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClientResponseBenchmark {
+
+  /** Page sizes: the default and the maximum of {@code GET /clientes}. */
+  @Param({"50", "500"})
+  int size;
+
+  private List<Client> clients;
+  private List<ClientResponse> responses;
+  private ObjectMapper objectMapper;
+
+  /** Builds the data and an object mapper configured like Spring Boot's. */
+  @Setup
+  public void setUp() {
+    clients = Fixtures.clients(size);
+    responses = clients.stream().map(ClientResponse::from).toList();
+    objectMapper = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+  }
+
+  @Benchmark
+  public List<ClientResponse> mapClients() {
+    return clients.stream().map(ClientResponse::from).toList();
+  }
+
+  @Benchmark
+  public byte[] serializeClients() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(responses);
+  }
+}
@@ -0,0 +1,105 @@
+package com.bootcamp.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bootcamp.transactions.domain.Client;
+import com.bootcamp.transactions.dto_2.request.PatchClientRequest;
+import com.bootcamp.transactions.dto_2.request.UpdateClientRequest;
+import com.bootcamp.transactions.dto_2.response.ClientPageResponse;
+import com.bootcamp.transactions.dto_2.response.ClientResponse;
+import com.bootcamp.transactions.service.ClientService;
+import com.bootcamp.transactions.service.RequestCoalescer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Benchmarks {@link ClientService} end to end over an {@link InMemoryClientRepository}, so the
+ * numbers cover the reactive pipeline, the cache and the mapping but no network round trip.
+ * {@code getClientByIdCached} hits the client cache; {@code getClientByIdUncached} runs with an
+ * empty cache and always reaches the repository through the request coalescer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ClientServiceBenchmark {
+
+  private static final int CLIENTS = 10_000;
+
+  private ClientService cachedService;
+  private ClientService uncachedService;
+  private List<String> ids;
+  private int next;
+
+  /** Seeds one repository per service so writes of one benchmark do not leak into another. */
+  @Setup
+  public void setUp() {
+    InMemoryClientRepository.Seeded cached = InMemoryClientRepository.seeded(CLIENTS);
+    InMemoryClientRepository.Seeded uncached = InMemoryClientRepository.seeded(CLIENTS);
+    ids = cached.ids();
+    cachedService = service(cached, Caffeine.newBuilder().maximumSize(CLIENTS).build());
+    uncachedService =
+        service(uncached, Caffeine.newBuilder().maximumSize(0).executor(Runnable::run).build());
+  }
+
+  @Benchmark
+  public ClientResponse getClientByIdCached() {
+    return cachedService.getClientById(nextId()).block();
+  }
+
+  @Benchmark
+  public ClientResponse getClientByIdUncached() {
+    return uncachedService.getClientById(nextId()).block();
+  }
+
+  @Benchmark
+  public ClientPageResponse getClientsPage() {
+    return uncachedService.getClientsPage(null, null).block();
+  }
+
+  @Benchmark
+  public ClientPageResponse getClientsPageAfter() {
+    return uncachedService.getClientsPage(nextId(), null).block();
+  }
+
+  @Benchmark
+  public ClientResponse updateClient() {
+    int i = next;
+    String id = nextId();
+    return uncachedService.updateClient(id,
+        new UpdateClientRequest("Nombre" + i, "Apellido" + i, "cliente" + i + "@bootcamp.com"),
+        null).block();
+  }
+
+  @Benchmark
+  public ClientResponse patchClient() {
+    return uncachedService
+        .patchClient(nextId(), new PatchClientRequest("Nombre", null, null, null), null).block();
+  }
+
+  private String nextId() {
+    return ids.get(next++ % ids.size());
+  }
+
+  private static ClientService service(InMemoryClientRepository.Seeded seeded,
+      Cache<String, Client> cache) {
+    return new ClientService(seeded.repository(), cache,
+        new RequestCoalescer<>("findById", new SimpleMeterRegistry()));
+  }
+}
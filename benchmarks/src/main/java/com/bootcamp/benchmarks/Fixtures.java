@@ -0,0 +1,59 @@
+package com.bootcamp.benchmarks;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+
+import com.bootcamp.transactions.domain.Client;
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionType;
+
+/**
+ * Deterministic test data shared by the benchmarks, shaped like the documents in the
+ * {@code client} and {@code transactions} collections.
+ */
+final class Fixtures {
+
+  private static final LocalDateTime EPOCH = LocalDateTime.of(2025, 1, 1, 0, 0);
+  private static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+  private static final TransactionType[] TYPES = TransactionType.values();
+
+  private Fixtures() {}
+
+  /**
+   * Builds the i-th client. Ids are zero-padded hex, so they sort like the seeding order.
+   */
+  static Client client(int i) {
+    return Client.builder().id(String.format("%024x", i))
+        .firstName("Nombre" + i).lastName("Apellido" + i).email("cliente" + i + "@bootcamp.com")
+        .dni(String.format("%08d", i)).createdAt(EPOCH.plusSeconds(i))
+        .updatedAt(EPOCH.plusSeconds(i)).build();
+  }
+
+  static List<Client> clients(int size) {
+    List<Client> clients = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      clients.add(client(i));
+    }
+    return clients;
+  }
+
+  /**
+   * Builds the history of one account, newest first, mixing deposits, withdrawals and transfers.
+   */
+  static List<Transaction> history(int size) {
+    List<Transaction> history = new ArrayList<>(size);
+    for (int i = size - 1; i >= 0; i--) {
+      TransactionType type = TYPES[i % TYPES.length];
+      history.add(Transaction.builder().id(new ObjectId().toHexString()).type(type)
+          .amount(Money.ofMinor(1_000 + i * 37L)).date(START.plusSeconds(i * 60L))
+          .sourceAccount("ACC-0001")
+          .destAccount(type == TransactionType.TRANSFERENCIA ? "ACC-" + (i % 97) : null).build());
+    }
+    return history;
+  }
+}
@@ -0,0 +1,116 @@
+package com.bootcamp.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.bootcamp.transactions.domain.Client;
+import com.bootcamp.transactions.domain.ClientVersion;
+import com.bootcamp.transactions.repository.ClientRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * In-memory stand-in for {@link ClientRepository}, backed by a sorted map so keyset pages behave
+ * like an ascending {@code _id} scan. Only the methods {@code ClientService} calls are implemented;
+ * anything else throws {@link UnsupportedOperationException}. Results are emitted synchronously,
+ * so benchmarks measure the service pipeline rather than I/O.
+ */
+final class InMemoryClientRepository implements InvocationHandler {
+
+  private final NavigableMap<String, Client> clients = new ConcurrentSkipListMap<>();
+
+  private InMemoryClientRepository() {}
+
+  /**
+   * Creates a repository pre-loaded with {@code size} clients.
+   *
+   * @param size number of clients to seed
+   * @return the repository and the ids of the seeded clients, in ascending order
+   */
+  static Seeded seeded(int size) {
+    InMemoryClientRepository store = new InMemoryClientRepository();
+    for (int i = 0; i < size; i++) {
+      Client client = Fixtures.client(i);
+      store.clients.put(client.getId(), client);
+    }
+    ClientRepository repository = (ClientRepository) Proxy.newProxyInstance(
+        ClientRepository.class.getClassLoader(), new Class<?>[] {ClientRepository.class}, store);
+    return new Seeded(repository, List.copyOf(store.clients.keySet()));
+  }
+
+  record Seeded(ClientRepository repository, List<String> ids) {}
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) {
+    return switch (method.getName()) {
+      case "insert" -> insert((Client) args[0]);
+      case "findById" -> Mono.justOrEmpty(clients.get((String) args[0]));
+      case "existsById" -> Mono.just(clients.containsKey((String) args[0]));
+      case "findVersionById" -> Mono.justOrEmpty(clients.get((String) args[0]))
+          .map(client -> (ClientVersion) client::getUpdatedAt);
+      case "findAllBy" -> page(clients, (Limit) args[1]);
+      case "findByIdGreaterThan" -> page(clients.tailMap((String) args[0], false), (Limit) args[2]);
+      case "streamAllBy" -> Flux.fromIterable(clients.values());
+      case "streamByIdGreaterThan" -> Flux.fromIterable(
+          clients.tailMap((String) args[0], false).values());
+      case "findAndUpdateById" -> findAndUpdate((String) args[0], (List<?>) args[1], (Update) args[2]);
+      case "removeById" -> Mono.just(clients.remove((String) args[0]) == null ? 0L : 1L);
+      case "hashCode" -> System.identityHashCode(proxy);
+      case "equals" -> proxy == args[0];
+      case "toString" -> "InMemoryClientRepository";
+      default -> throw new UnsupportedOperationException(method.getName());
+    };
+  }
+
+  private Mono<Client> insert(Client client) {
+    client.setId(new ObjectId().toHexString());
+    client.setCreatedAt(LocalDateTime.now());
+    client.setUpdatedAt(client.getCreatedAt());
+    clients.put(client.getId(), client);
+    return Mono.just(client);
+  }
+
+  private static Flux<Client> page(Map<String, Client> from, Limit limit) {
+    return Flux.fromIterable(from.values()).take(limit.max());
+  }
+
+  /**
+   * Applies the {@code $set} part of an update, the only operator {@code ClientService} uses, to a
+   * copy of the stored client when it is at one of the expected versions.
+   */
+  private Mono<Client> findAndUpdate(String id, List<?> expectedVersions, Update update) {
+    Client stored = clients.get(id);
+    if (stored == null
+        || expectedVersions != null && !expectedVersions.contains(stored.getUpdatedAt())) {
+      return Mono.empty();
+    }
+    Client updated = Client.builder().id(stored.getId()).firstName(stored.getFirstName())
+        .lastName(stored.getLastName()).email(stored.getEmail()).dni(stored.getDni())
+        .createdAt(stored.getCreatedAt()).updatedAt(stored.getUpdatedAt()).build();
+    Document set = (Document) update.getUpdateObject().get("$set");
+    set.forEach((field, value) -> {
+      switch (field) {
+        case "firstName" -> updated.setFirstName((String) value);
+        case "lastName" -> updated.setLastName((String) value);
+        case "email" -> updated.setEmail((String) value);
+        case "dni" -> updated.setDni((String) value);
+        case "updatedAt" -> updated.setUpdatedAt((LocalDateTime) value);
+        default -> throw new UnsupportedOperationException(field);
+      }
+    });
+    clients.put(id, updated);
+    return Mono.just(updated);
+  }
+}
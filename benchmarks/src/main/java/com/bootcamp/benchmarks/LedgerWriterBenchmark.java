@@ -0,0 +1,104 @@
+package com.bootcamp.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionStatus;
+import com.bootcamp.transactions.domain.TransactionType;
+import com.bootcamp.transactions.repository.TransactionRepository;
+import com.bootcamp.transactions.service.LedgerWriter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Benchmarks {@link LedgerWriter} across batch sizes and linger times. MongoDB is replaced by a
+ * repository whose inserts complete after a fixed round trip, whatever the number of documents, so
+ * the numbers show how batching amortises that round trip: {@code throughput} pushes bursts of
+ * concurrent writes, {@code latency} samples the time a single caller waits with 16 writers.
+ */
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LedgerWriterBenchmark {
+
+  private static final int BURST = 1024;
+
+  @Param({"1", "16", "64", "256"})
+  int batchSize;
+
+  @Param({"500", "2000"})
+  long lingerMicros;
+
+  @Param({"1000"})
+  long roundTripMicros;
+
+  private LedgerWriter ledgerWriter;
+
+  /** Builds a writer over a repository with the configured round trip. */
+  @Setup
+  public void setUp() {
+    Duration roundTrip = Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+    TransactionRepository repository = (TransactionRepository) Proxy.newProxyInstance(
+        TransactionRepository.class.getClassLoader(), new Class<?>[] {TransactionRepository.class},
+        (proxy, method, args) -> switch (method.getName()) {
+          case "insert" -> args[0] instanceof Iterable<?> batch
+              ? Mono.delay(roundTrip).thenMany(Flux.fromIterable(batch))
+              : Mono.delay(roundTrip).thenReturn(args[0]);
+          case "existsById" -> Mono.just(false);
+          case "hashCode" -> System.identityHashCode(proxy);
+          case "equals" -> proxy == args[0];
+          case "toString" -> "SimulatedTransactionRepository";
+          default -> throw new UnsupportedOperationException(method.getName());
+        });
+    ledgerWriter = new LedgerWriter(repository, batchSize,
+        Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(lingerMicros)), 4, new SimpleMeterRegistry());
+  }
+
+  @TearDown
+  public void tearDown() {
+    ledgerWriter.close();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @OperationsPerInvocation(BURST)
+  public Transaction throughput() {
+    return Flux.range(0, BURST).flatMap(i -> ledgerWriter.write(transaction()), BURST).blockLast();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Threads(16)
+  public Transaction latency() {
+    return ledgerWriter.write(transaction()).block();
+  }
+
+  private static Transaction transaction() {
+    return Transaction.builder().type(TransactionType.DEPOSITO).status(TransactionStatus.COMMITTED)
+        .amount(Money.ofMinor(1_000)).date(Instant.now()).sourceAccount("ACC-1").build();
+  }
+}
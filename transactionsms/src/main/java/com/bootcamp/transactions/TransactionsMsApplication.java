@@ -2,8 +2,10 @@ package com.bootcamp.transactions;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class TransactionsMsApplication {
     public static void main(String[] args) {
         SpringApplication.run(TransactionsMsApplication.class, args);
@@ -0,0 +1,44 @@
+package com.bootcamp.transactions.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * {@link WebClient} hacia client-ms con su propio pool de conexiones. Los tiempos son cortos a
+ * propósito: si client-ms va lento, quien consulta recibe un error enseguida en vez de quedarse
+ * esperando una conexión o una respuesta. El pool publica sus métricas como
+ * {@code reactor.netty.connection.provider.*} con {@code name=client-ms}.
+ */
+@Configuration
+public class ClientMsConfig {
+
+    @Bean
+    public WebClient clientMsWebClient(WebClient.Builder builder,
+                                       @Value("${clientms.base-url:http://localhost:8080}") String baseUrl,
+                                       @Value("${clientms.pool.max-connections:50}") int maxConnections,
+                                       @Value("${clientms.pool.pending-acquire-timeout:PT0.1S}") Duration pendingAcquireTimeout,
+                                       @Value("${clientms.pool.max-idle-time:PT30S}") Duration maxIdleTime,
+                                       @Value("${clientms.connect-timeout:PT0.5S}") Duration connectTimeout,
+                                       @Value("${clientms.response-timeout:PT1S}") Duration responseTimeout) {
+        ConnectionProvider pool = ConnectionProvider.builder("client-ms")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                // se cierran antes que el keep-alive del servidor para no reutilizar una conexión ya cerrada
+                .maxIdleTime(maxIdleTime)
+                .evictInBackground(maxIdleTime)
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(pool)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout);
+        return builder.baseUrl(baseUrl).clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    }
+}
@@ -0,0 +1,21 @@
+package com.bootcamp.transactions.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Métricas: Spring Boot ya publica la latencia HTTP ({@code http.server.requests}), los timers por
+ * método de repositorio ({@code spring.data.repository.invocations}), la latencia por comando de
+ * MongoDB ({@code mongodb.driver.commands}) y los gauges del pool ({@code mongodb.driver.pool.*}).
+ * Aquí se añade el número de documentos devueltos por cada lectura.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoDocumentsMetricsCustomizer(MeterRegistry meterRegistry) {
+        return builder -> builder.addCommandListener(new MongoDocumentsCommandListener(meterRegistry));
+    }
+}
@@ -0,0 +1,66 @@
+package com.bootcamp.transactions.config;
+
+import com.bootcamp.transactions.domain.Money;
+import org.bson.types.Decimal128;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import java.util.List;
+
+/**
+ * Conversión de {@link Money} a {@code Decimal128} con exponente {@code -SCALE}, armando y leyendo
+ * la codificación BID directamente desde el {@code long} de céntimos. Lo que no tenga esa forma (por
+ * ejemplo saldos guardados antes como {@code BigDecimal} con otra escala) se lee por
+ * {@link Decimal128#bigDecimalValue()} y debe ser exacto en céntimos.
+ */
+public final class MoneyConverters {
+
+    private static final int EXPONENT_BIAS = 6176;
+    private static final long SIGN_BIT = Long.MIN_VALUE;
+    private static final long SPECIAL_FORM = 0x6000_0000_0000_0000L;
+    private static final long COEFFICIENT_HIGH = 0x0001_FFFF_FFFF_FFFFL;
+    private static final long MONEY_EXPONENT = (long) (EXPONENT_BIAS - Money.SCALE) << 49;
+
+    private MoneyConverters() {
+    }
+
+    public static List<Converter<?, ?>> all() {
+        return List.of(MoneyToDecimal128.INSTANCE, Decimal128ToMoney.INSTANCE);
+    }
+
+    @WritingConverter
+    public enum MoneyToDecimal128 implements Converter<Money, Decimal128> {
+        INSTANCE;
+
+        @Override
+        public Decimal128 convert(Money source) {
+            long minor = source.minorUnits();
+            // el coeficiente es un entero sin signo de 64 bits en la parte baja, así que -Long.MIN_VALUE también cabe
+            return minor < 0
+                    ? Decimal128.fromIEEE754BIDEncoding(SIGN_BIT | MONEY_EXPONENT, -minor)
+                    : Decimal128.fromIEEE754BIDEncoding(MONEY_EXPONENT, minor);
+        }
+    }
+
+    @ReadingConverter
+    public enum Decimal128ToMoney implements Converter<Decimal128, Money> {
+        INSTANCE;
+
+        @Override
+        public Money convert(Decimal128 source) {
+            long high = source.getHigh();
+            long low = source.getLow();
+            boolean plainForm = (high & SPECIAL_FORM) != SPECIAL_FORM;
+            if (plainForm && (high & COEFFICIENT_HIGH) == 0) {
+                if (low == 0) {
+                    return Money.ZERO;
+                }
+                if ((high & ~SIGN_BIT) == MONEY_EXPONENT && low > 0) {
+                    return Money.ofMinor(source.isNegative() ? -low : low);
+                }
+            }
+            return Money.ofMinor(source.bigDecimalValue().movePointRight(Money.SCALE).longValueExact());
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.bootcamp.transactions.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+/** Conversiones propias del mapeo a MongoDB; Spring Boot las toma de este bean. */
+@Configuration
+public class MongoConfig {
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(MoneyConverters.all());
+    }
+}
@@ -0,0 +1,74 @@
+package com.bootcamp.transactions.config;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Listener de comandos MongoDB que registra cuántos documentos devuelve cada lectura, como el
+ * summary {@code mongodb.driver.commands.documents} etiquetado por comando y colección. La latencia
+ * de cada comando ya la mide el listener que registra Spring Boot ({@code mongodb.driver.commands}).
+ */
+public class MongoDocumentsCommandListener implements CommandListener {
+
+    static final String METRIC_NAME = "mongodb.driver.commands.documents";
+
+    private static final Set<String> READ_COMMANDS = Set.of("find", "getMore", "aggregate");
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Integer, String> collectionsByRequestId = new ConcurrentHashMap<>();
+
+    public MongoDocumentsCommandListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (READ_COMMANDS.contains(event.getCommandName())) {
+            collectionsByRequestId.put(event.getRequestId(), collection(event));
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        String collection = collectionsByRequestId.remove(event.getRequestId());
+        if (collection == null) {
+            return;
+        }
+        BsonDocument cursor = event.getResponse().getDocument("cursor", null);
+        if (cursor == null) {
+            return;
+        }
+        BsonArray batch = cursor.containsKey("firstBatch") ? cursor.getArray("firstBatch")
+                : cursor.getArray("nextBatch", new BsonArray());
+        DistributionSummary.builder(METRIC_NAME).baseUnit("documents")
+                .description("Documents returned by MongoDB read commands")
+                .tag("command", event.getCommandName()).tag("collection", collection)
+                .register(meterRegistry).record(batch.size());
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        collectionsByRequestId.remove(event.getRequestId());
+    }
+
+    /** Colección del comando: {@code find}/{@code aggregate} la llevan como valor, {@code getMore} en {@code collection}. */
+    private static String collection(CommandStartedEvent event) {
+        BsonDocument command = event.getCommand();
+        BsonValue value = "getMore".equals(event.getCommandName()) ? command.get("collection")
+                : command.get(event.getCommandName());
+        return value != null && value.isString() ? value.asString().getValue() : "unknown";
+    }
+}
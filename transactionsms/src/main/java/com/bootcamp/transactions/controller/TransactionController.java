@@ -0,0 +1,93 @@
+package com.bootcamp.transactions.controller;
+
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.dto.BatchTransferResult;
+import com.bootcamp.transactions.dto.DepositRequest;
+import com.bootcamp.transactions.dto.StatementResponse;
+import com.bootcamp.transactions.dto.TransferRequest;
+import com.bootcamp.transactions.dto.WithdrawalRequest;
+import com.bootcamp.transactions.service.AdmissionLimiter;
+import com.bootcamp.transactions.service.BalanceCheckpointService;
+import com.bootcamp.transactions.service.BatchTransferService;
+import com.bootcamp.transactions.service.IdempotencyService;
+import com.bootcamp.transactions.service.TransactionService;
+import com.bootcamp.transactions.service.TransferService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/transacciones")
+@RequiredArgsConstructor
+public class TransactionController {
+
+    /** Los reintentos con la misma clave reciben la respuesta de la primera petición. */
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    private final TransactionService transactionService;
+    private final TransferService transferService;
+    private final BatchTransferService batchTransferService;
+    private final BalanceCheckpointService checkpointService;
+    private final AdmissionLimiter admissionLimiter;
+    private final IdempotencyService idempotencyService;
+
+    @PostMapping("/deposito")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Transaction> deposit(@Valid @RequestBody DepositRequest request,
+                                     @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return idempotencyService.execute("deposito", idempotencyKey, request,
+                () -> admissionLimiter.admit(() -> transactionService.deposit(request)));
+    }
+
+    @PostMapping("/retiro")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Transaction> withdraw(@Valid @RequestBody WithdrawalRequest request,
+                                      @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return idempotencyService.execute("retiro", idempotencyKey, request,
+                () -> admissionLimiter.admit(() -> transactionService.withdraw(request)));
+    }
+
+    @PostMapping("/transferencia")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Transaction> transfer(@Valid @RequestBody TransferRequest request,
+                                      @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return idempotencyService.execute("transferencia", idempotencyKey, request,
+                () -> admissionLimiter.admit(() -> transferService.transfer(request)));
+    }
+
+    /**
+     * Lote de transferencias desde una misma cuenta, como array JSON o una por línea (NDJSON). Responde
+     * con el resultado de cada elemento según se cierra, en el mismo formato que se pidió.
+     */
+    @PostMapping(value = "/transferencia/lote",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BatchTransferResult> transferBatch(@RequestBody Flux<TransferRequest> requests) {
+        return batchTransferService.transfer(requests);
+    }
+
+    /** Se emite según llega de MongoDB: un array JSON, o una transacción por línea si se pide NDJSON. */
+    @GetMapping(value = "/historial", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Transaction> history(@RequestParam String cuenta,
+                                     @RequestParam(required = false) String before,
+                                     @RequestParam(required = false) Integer limit,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant desde,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant hasta) {
+        return transactionService.history(cuenta, before, desde, hasta, limit);
+    }
+
+    /** Saldo de la cuenta en una fecha, por defecto ahora. */
+    @GetMapping("/extracto")
+    public Mono<StatementResponse> statement(@RequestParam String cuenta,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant fecha) {
+        Instant at = fecha == null ? Instant.now() : fecha;
+        return checkpointService.balanceAt(cuenta, at).map(saldo -> new StatementResponse(cuenta, at, saldo));
+    }
+}
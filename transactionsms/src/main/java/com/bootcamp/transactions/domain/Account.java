@@ -4,12 +4,19 @@ import lombok.*;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 @Data @NoArgsConstructor @AllArgsConstructor
 @Document("accounts")
 public class Account {
     @Id
     private String id;          // número de cuenta
-    private BigDecimal balance; // saldo disponible
+    private Money balance;      // saldo disponible (Decimal128 en MongoDB para poder aplicar $inc)
+    private List<String> pendingTransactions = new ArrayList<>(); // transferencias aplicadas a esta cuenta y aún no cerradas
+    private String clientId;    // titular en client-ms; null en cuentas abiertas antes de registrarlo
+
+    public Account(String id, Money balance) {
+        this(id, balance, new ArrayList<>(), null);
+    }
 }
@@ -0,0 +1,29 @@
+package com.bootcamp.transactions.domain;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+
+/**
+ * Variación neta del saldo de una cuenta en un día, según el ledger. Se actualiza con {@code $inc} a
+ * medida que se confirman transacciones, así que el orden en que llegan no importa. Que una
+ * transacción no se sume dos veces lo garantiza su {@link CheckpointClaim}, no este documento, que
+ * mantiene el mismo tamaño por mucho que se mueva la cuenta.
+ */
+@Data @NoArgsConstructor @AllArgsConstructor
+@Document("balance_checkpoints")
+@CompoundIndex(name = "idx_checkpoint_account_day", def = "{account: 1, day: 1}")
+public class BalanceCheckpoint {
+    @Id
+    private String id;        // cuenta|día
+    private String account;
+    private LocalDate day;    // día en la zona de checkpoint.zone
+    private Money net;        // suma de abonos menos cargos del día
+
+    public static String id(String account, LocalDate day) {
+        return account + "|" + day;
+    }
+}
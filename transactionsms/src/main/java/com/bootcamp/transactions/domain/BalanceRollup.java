@@ -0,0 +1,28 @@
+package com.bootcamp.transactions.domain;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.YearMonth;
+
+/**
+ * Variación acumulada del saldo de una cuenta hasta el final de un mes cerrado: la suma de los
+ * {@link BalanceCheckpoint} de ese mes y de todos los anteriores. Solo importa la diferencia entre
+ * dos meses, así que el origen es el primer mes con checkpoints y no hace falta el saldo de apertura.
+ */
+@Data @NoArgsConstructor @AllArgsConstructor
+@Document("balance_rollups")
+@CompoundIndex(name = "idx_rollup_account_month", def = "{account: 1, month: -1}")
+public class BalanceRollup {
+    @Id
+    private String id;          // cuenta|yyyy-MM
+    private String account;
+    private String month;       // yyyy-MM en la zona de checkpoint.zone
+    private Money cumulative;   // suma de las variaciones diarias hasta el final del mes
+
+    public static String id(String account, YearMonth month) {
+        return account + "|" + month;
+    }
+}
@@ -0,0 +1,27 @@
+package com.bootcamp.transactions.domain;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Marca de que una transacción ya se sumó al {@link BalanceCheckpoint} de una cuenta. Se inserta antes
+ * del {@code $inc} y el {@code _id} es único, así que una segunda escritura de la misma transacción no
+ * suma. MongoDB la borra al llegar a {@code expiresAt} ({@code checkpoint.claim-ttl}): los reintentos y
+ * la recuperación ocurren mucho antes, y así la colección no crece con la historia del ledger.
+ */
+@Data @NoArgsConstructor @AllArgsConstructor
+@Document("checkpoint_claims")
+public class CheckpointClaim {
+    @Id
+    private String id;          // cuenta|transacción
+    @Indexed(name = "idx_checkpoint_claim_ttl", expireAfterSeconds = 0)
+    private Instant expiresAt;
+
+    public static String id(String account, String transactionId) {
+        return account + "|" + transactionId;
+    }
+}
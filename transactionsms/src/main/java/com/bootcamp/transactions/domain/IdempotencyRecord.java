@@ -0,0 +1,48 @@
+package com.bootcamp.transactions.domain;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Petición con {@code Idempotency-Key} y la respuesta que se dio. Mientras la primera ejecución está en
+ * curso {@code response} es {@code null} y la clave es de {@code owner} hasta {@code leaseUntil}, que
+ * renueva mientras ejecuta; pasado ese momento otra petición igual puede quedársela. MongoDB borra el
+ * documento al llegar a {@code expiresAt}: el fin del lease mientras está en curso, y el de
+ * {@code idempotency.ttl} una vez guardada la respuesta. La respuesta se guarda como
+ * {@link TransactionSnapshot} para no heredar los índices de {@link Transaction}.
+ */
+@Data @NoArgsConstructor @AllArgsConstructor
+@Document("idempotency_keys")
+public class IdempotencyRecord {
+    @Id
+    private String id;            // operación|clave
+    private String request;       // huella de la petición original, para detectar una clave reutilizada con otra
+    private TransactionSnapshot response;
+    private String owner;         // ejecución que tiene la clave mientras está en curso
+    private Instant createdAt;
+    private Instant leaseUntil;   // null una vez completada
+    @Indexed(name = "idx_idempotency_ttl", expireAfterSeconds = 0)
+    private Instant expiresAt;
+
+    public static String id(String operation, String key) {
+        return operation + "|" + key;
+    }
+
+    /** Clave recién ocupada por {@code owner}, en curso hasta {@code leaseUntil}. */
+    public static IdempotencyRecord claim(String id, String request, String owner, Instant now, Instant leaseUntil) {
+        return new IdempotencyRecord(id, request, null, owner, now, leaseUntil, leaseUntil);
+    }
+
+    public boolean isCompleted() {
+        return response != null;
+    }
+
+    /** En curso y sin renovar a tiempo: su dueño cayó o la abandonó. */
+    public boolean isAbandoned(Instant now) {
+        return !isCompleted() && leaseUntil != null && leaseUntil.isBefore(now);
+    }
+}
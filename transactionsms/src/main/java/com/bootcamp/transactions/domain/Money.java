@@ -0,0 +1,162 @@
+package com.bootcamp.transactions.domain;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Importe en unidades mínimas de la moneda (céntimos, {@value #SCALE} decimales) sobre un {@code long}.
+ * La aritmética es entera y exacta, desborda con {@link ArithmeticException} en vez de perder
+ * precisión, y no reserva memoria más allá del propio valor.
+ * <p>
+ * En JSON se lee y se escribe como número decimal ({@code 125.50}) a partir del texto, sin pasar
+ * nunca por {@code double}; en MongoDB se guarda como {@code Decimal128} (ver {@code MoneyConverters}),
+ * así que {@code $inc}, {@code $gte} y {@code $sum} operan en el servidor.
+ */
+@JsonSerialize(using = Money.Serializer.class)
+@JsonDeserialize(using = Money.Deserializer.class)
+public record Money(long minorUnits) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    private static final long MINOR_PER_UNIT = 100;
+
+    public static Money ofMinor(long minorUnits) {
+        return new Money(minorUnits);
+    }
+
+    /**
+     * Lee un importe decimal como {@code "125"}, {@code "125.5"} o {@code "-3.25"}.
+     *
+     * @throws NumberFormatException si el texto no es un número
+     * @throws ArithmeticException si tiene más de {@value #SCALE} decimales o no cabe en un {@code long}
+     */
+    public static Money parse(CharSequence text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+        long units = 0;
+        int digits = 0;
+        for (; i < length && text.charAt(i) != '.'; i++, digits++) {
+            char c = text.charAt(i);
+            if (c == 'e' || c == 'E') {
+                return new Money(new BigDecimal(text.toString()).movePointRight(SCALE).longValueExact());
+            }
+            units = Math.addExact(Math.multiplyExact(units, 10), digit(text, c));
+        }
+        long fraction = 0;
+        int decimals = 0;
+        if (i < length) {
+            for (i++; i < length; i++, decimals++) {
+                char c = text.charAt(i);
+                if (c == 'e' || c == 'E') {
+                    return new Money(new BigDecimal(text.toString()).movePointRight(SCALE).longValueExact());
+                }
+                int d = digit(text, c);
+                if (decimals >= SCALE) {
+                    if (d != 0) {
+                        throw new ArithmeticException("Un importe admite como mucho " + SCALE + " decimales: " + text);
+                    }
+                    continue;
+                }
+                fraction = fraction * 10 + d;
+            }
+        }
+        if (digits == 0 && decimals == 0) {
+            throw new NumberFormatException("Importe vacío: " + text);
+        }
+        for (int d = Math.min(decimals, SCALE); d < SCALE; d++) {
+            fraction *= 10;
+        }
+        long minor = Math.addExact(Math.multiplyExact(units, MINOR_PER_UNIT), fraction);
+        return new Money(negative ? -minor : minor);
+    }
+
+    private static int digit(CharSequence text, char c) {
+        if (c < '0' || c > '9') {
+            throw new NumberFormatException("Importe no válido: " + text);
+        }
+        return c - '0';
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money times(long factor) {
+        return new Money(Math.multiplyExact(minorUnits, factor));
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits));
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    /** Formato decimal con {@value #SCALE} decimales, por ejemplo {@code 125.50} o {@code -0.05}. */
+    @Override
+    public String toString() {
+        long units = minorUnits / MINOR_PER_UNIT;
+        long cents = Math.abs(minorUnits % MINOR_PER_UNIT);
+        String sign = minorUnits < 0 && units == 0 ? "-" : "";
+        return sign + units + (cents < 10 ? ".0" : ".") + cents;
+    }
+
+    static final class Serializer extends StdScalarSerializer<Money> {
+
+        Serializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(value.toString());
+        }
+    }
+
+    static final class Deserializer extends StdScalarDeserializer<Money> {
+
+        Deserializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!p.hasToken(JsonToken.VALUE_NUMBER_INT) && !p.hasToken(JsonToken.VALUE_NUMBER_FLOAT)
+                    && !p.hasToken(JsonToken.VALUE_STRING)) {
+                return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+            }
+            String text = p.getText().trim();
+            try {
+                return parse(text);
+            } catch (NumberFormatException | ArithmeticException ex) {
+                return (Money) ctxt.handleWeirdStringValue(Money.class, text, ex.getMessage());
+            }
+        }
+    }
+}
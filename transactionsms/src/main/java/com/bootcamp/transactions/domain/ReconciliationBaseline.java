@@ -0,0 +1,21 @@
+package com.bootcamp.transactions.domain;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Saldo de apertura de una cuenta: las cuentas se abren fuera de este servicio, sin apunte en el ledger,
+ * así que se toma {@code saldo - ledger} la primera vez que la conciliación ve la cuenta y a partir de
+ * ahí es lo que se espera en cada pasada.
+ */
+@Data @NoArgsConstructor @AllArgsConstructor
+@Document("reconciliation_baselines")
+public class ReconciliationBaseline {
+    @Id
+    private String id;          // cuenta
+    private Money opening;
+    private Instant recordedAt;
+}
@@ -0,0 +1,27 @@
+package com.bootcamp.transactions.domain;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Cuenta cuyo saldo no cuadra con su ledger en una pasada: {@code balance} debería ser
+ * {@code opening + ledgerNet} y se desvía en {@code difference}.
+ */
+@Data @NoArgsConstructor @AllArgsConstructor
+@Document("reconciliation_discrepancies")
+public class ReconciliationDiscrepancy {
+    @Id
+    private String id;          // pasada|cuenta
+    @Indexed(name = "idx_discrepancy_run")
+    private String runId;
+    private String account;
+    private Money balance;
+    private Money ledgerNet;
+    private Money opening;
+    private Money difference;
+    private Instant detectedAt;
+}
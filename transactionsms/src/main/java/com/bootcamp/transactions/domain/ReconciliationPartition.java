@@ -0,0 +1,31 @@
+package com.bootcamp.transactions.domain;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Tramo de cuentas {@code (afterAccount, lastAccount]} de una pasada de conciliación. Se guarda antes de
+ * procesarlo y se marca al terminar, así que una pasada cortada sabe qué tramos rehacer y dónde seguir.
+ */
+@Data @NoArgsConstructor @AllArgsConstructor
+@Document("reconciliation_partitions")
+@CompoundIndex(name = "idx_partition_run_last", def = "{runId: 1, lastAccount: -1}")
+public class ReconciliationPartition {
+    @Id
+    private String id;            // pasada|última cuenta
+    private String runId;
+    private String afterAccount;  // null en el primer tramo
+    private String lastAccount;
+    private Instant finishedAt;   // null hasta que el tramo está conciliado
+    private int accounts;
+    private int inFlight;
+    private int discrepancies;
+
+    public static ReconciliationPartition open(String runId, String afterAccount, String lastAccount) {
+        return new ReconciliationPartition(runId + "|" + lastAccount, runId, afterAccount, lastAccount, null, 0, 0, 0);
+    }
+}
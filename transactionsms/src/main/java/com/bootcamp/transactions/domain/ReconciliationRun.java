@@ -0,0 +1,25 @@
+package com.bootcamp.transactions.domain;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/** Una pasada de conciliación de saldos contra el ledger, con sus totales al terminar. */
+@Data @NoArgsConstructor @AllArgsConstructor
+@Document("reconciliation_runs")
+public class ReconciliationRun {
+    @Id
+    private String id;
+    private Instant startedAt;
+    private Instant finishedAt;   // null mientras está en curso o si se cortó: la siguiente la retoma
+    private int partitions;
+    private long accounts;
+    private long inFlight;        // cuentas con transferencias a medias, que no se comparan
+    private long discrepancies;
+
+    public static ReconciliationRun start() {
+        return new ReconciliationRun(null, Instant.now(), null, 0, 0, 0, 0);
+    }
+}
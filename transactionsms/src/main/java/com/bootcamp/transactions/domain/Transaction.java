@@ -2,21 +2,35 @@ package com.bootcamp.transactions.domain;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 
 @Data @NoArgsConstructor @AllArgsConstructor @Builder
 @Document("transactions")
+@CompoundIndexes({
+        @CompoundIndex(name = "idx_tx_status_date", def = "{status: 1, date: 1}"), // barrido de transferencias a medias
+        // historial por cuenta: cada rama del $or usa su índice, ya ordenado por (date, _id) descendente
+        @CompoundIndex(name = "idx_tx_source_date", def = "{sourceAccount: 1, date: -1, _id: -1}"),
+        @CompoundIndex(name = "idx_tx_dest_date", def = "{destAccount: 1, date: -1, _id: -1}")
+})
 public class Transaction {
     @Id
     private String id;
 
     private TransactionType type;
-    private BigDecimal amount;
+    private TransactionStatus status;
+    private Money amount;
     private Instant date;
 
     private String sourceAccount; // cuenta origen
     private String destAccount;   // cuenta destino (solo transferencias)
+
+    /** Importe con el signo que tiene para {@code cuenta}: abono en depósitos y como destino, cargo si no. */
+    public Money signedAmountFor(String cuenta) {
+        boolean credit = type == TransactionType.DEPOSITO || cuenta.equals(destAccount);
+        return credit ? amount : amount.negate();
+    }
 }
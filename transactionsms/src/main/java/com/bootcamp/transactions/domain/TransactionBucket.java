@@ -0,0 +1,45 @@
+package com.bootcamp.transactions.domain;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transacciones ya cerradas de una cuenta y un mes, agrupadas en un solo documento (bucket pattern).
+ * Las entradas se añaden en orden {@code (date, id)} y como mucho {@code ledger.buckets.max-entries}
+ * por bucket, así que los buckets de una cuenta no se solapan en el tiempo y se leen en orden sin
+ * índices por transacción. Los totales se mantienen al añadir cada entrada. Las entradas son
+ * {@link TransactionSnapshot}, sin los índices de {@link Transaction}: el único índice es el del bucket.
+ */
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+@Document(TransactionBucket.HOT)
+@CompoundIndex(name = "idx_bucket_account_month", def = "{account: 1, month: -1, minDate: -1}")
+public class TransactionBucket {
+
+    public static final String HOT = "transaction_buckets";
+    public static final String ARCHIVE = "transaction_buckets_archive";
+
+    @Id
+    private String id;
+    private String account;
+    private String month;     // yyyy-MM
+    private Instant minDate;  // primera entrada
+    private Instant maxDate;  // última entrada
+    private String maxId;     // id de la última entrada, para desempatar con maxDate
+    private int count;
+    private Money credits;    // abonos confirmados del bucket
+    private Money debits;     // cargos confirmados del bucket
+    @Builder.Default
+    private List<TransactionSnapshot> entries = new ArrayList<>();
+
+    /** Indica si la transacción ya está en el bucket o antes, según el orden {@code (date, id)}. */
+    public boolean covers(Transaction tx) {
+        int byDate = tx.getDate().compareTo(maxDate);
+        return byDate < 0 || byDate == 0 && tx.getId().compareTo(maxId) <= 0;
+    }
+}
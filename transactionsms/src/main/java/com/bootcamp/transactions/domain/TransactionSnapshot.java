@@ -0,0 +1,33 @@
+package com.bootcamp.transactions.domain;
+
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Copia de una {@link Transaction} embebida en otro documento: las entradas de un
+ * {@link TransactionBucket} y la respuesta guardada de un {@link IdempotencyRecord}. Es una clase aparte
+ * y sin anotaciones de mapeo a propósito: embebida como {@link Transaction}, la creación automática de
+ * índices copiaría sus {@code @CompoundIndex} a la ruta del campo ({@code entries.*},
+ * {@code response.*}) en colecciones que nunca se consultan por ahí. Se guarda con la misma forma que
+ * la transacción.
+ */
+@Data @NoArgsConstructor @AllArgsConstructor
+public class TransactionSnapshot {
+    private String id;
+    private TransactionType type;
+    private TransactionStatus status;
+    private Money amount;
+    private Instant date;
+    private String sourceAccount;
+    private String destAccount;
+
+    public static TransactionSnapshot of(Transaction tx) {
+        return new TransactionSnapshot(tx.getId(), tx.getType(), tx.getStatus(), tx.getAmount(), tx.getDate(),
+                tx.getSourceAccount(), tx.getDestAccount());
+    }
+
+    public Transaction toTransaction() {
+        return new Transaction(id, type, status, amount, date, sourceAccount, destAccount);
+    }
+}
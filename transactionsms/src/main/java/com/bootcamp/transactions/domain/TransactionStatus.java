@@ -0,0 +1,10 @@
+package com.bootcamp.transactions.domain;
+
+/**
+ * Estado de una transacción. Depósitos y retiros nacen {@code COMMITTED}; una transferencia pasa por
+ * {@code PENDING} (débito/abono en curso) y {@code APPLIED} (saldos movidos, marcas de las cuentas sin
+ * limpiar) hasta {@code COMMITTED}, o acaba {@code CANCELLED} si se rechaza o se compensa.
+ */
+public enum TransactionStatus {
+    PENDING, APPLIED, COMMITTED, CANCELLED
+}
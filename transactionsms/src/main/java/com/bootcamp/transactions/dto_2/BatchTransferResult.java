@@ -0,0 +1,18 @@
+package com.bootcamp.transactions.dto;
+
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.TransactionStatus;
+
+/**
+ * Resultado de un elemento de un lote de transferencias. {@code indice} es su posición en la
+ * petición; {@code transaccionId} es null si se rechazó antes de registrarse y {@code motivo} solo
+ * viene en las canceladas.
+ */
+public record BatchTransferResult(
+        int indice,
+        String cuentaDestino,
+        Money monto,
+        String transaccionId,
+        TransactionStatus estado,
+        String motivo
+) {}
@@ -0,0 +1,8 @@
+package com.bootcamp.transactions.dto;
+
+/** Cliente tal como lo devuelve client-ms en {@code GET /clientes/{id}}; el resto de campos se ignora. */
+public record ClientResponse(
+        String id,
+        String firstName,
+        String lastName
+) {}
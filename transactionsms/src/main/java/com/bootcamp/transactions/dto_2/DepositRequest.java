@@ -1,12 +1,16 @@
 package com.bootcamp.transactions.dto;
 
-import jakarta.validation.constraints.DecimalMin;
+import com.bootcamp.transactions.domain.Money;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
-import java.math.BigDecimal;
-
 public record DepositRequest(
         @NotBlank String cuenta,
-        @NotNull @DecimalMin("0.01") BigDecimal monto
-) {}
+        @NotNull @PositiveAmount Money monto
+) implements IdempotentRequest {
+
+    @Override
+    public String fingerprint() {
+        return IdempotentRequest.fingerprint(cuenta, monto.minorUnits());
+    }
+}
@@ -0,0 +1,21 @@
+package com.bootcamp.transactions.dto;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Petición que admite {@code Idempotency-Key}. Un reintento con la misma clave solo recibe la respuesta
+ * guardada si su huella coincide con la de la primera petición.
+ */
+public interface IdempotentRequest {
+
+    /** Campos que definen la operación, en orden fijo y con los importes en céntimos. */
+    String fingerprint();
+
+    /** Une los campos con {@code |}, escapando {@code \} y {@code |} para que la unión no sea ambigua. */
+    static String fingerprint(Object... fields) {
+        return Arrays.stream(fields)
+                .map(field -> String.valueOf(field).replace("\\", "\\\\").replace("|", "\\|"))
+                .collect(Collectors.joining("|"));
+    }
+}
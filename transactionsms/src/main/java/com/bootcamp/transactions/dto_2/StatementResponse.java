@@ -0,0 +1,11 @@
+package com.bootcamp.transactions.dto;
+
+import com.bootcamp.transactions.domain.Money;
+
+import java.time.Instant;
+
+public record StatementResponse(
+        String cuenta,
+        Instant fecha,
+        Money saldo
+) {}
@@ -1,13 +1,17 @@
 package com.bootcamp.transactions.dto;
 
-import jakarta.validation.constraints.DecimalMin;
+import com.bootcamp.transactions.domain.Money;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
-import java.math.BigDecimal;
-
 public record TransferRequest(
         @NotBlank String cuentaOrigen,
         @NotBlank String cuentaDestino,
-        @NotNull @DecimalMin("0.01") BigDecimal monto
-) {}
+        @NotNull @PositiveAmount Money monto
+) implements IdempotentRequest {
+
+    @Override
+    public String fingerprint() {
+        return IdempotentRequest.fingerprint(cuentaOrigen, cuentaDestino, monto.minorUnits());
+    }
+}
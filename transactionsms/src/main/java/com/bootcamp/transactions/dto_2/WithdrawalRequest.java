@@ -1,24 +1,16 @@
 package com.bootcamp.transactions.dto;
 
-import jakarta.validation.constraints.DecimalMin;
+import com.bootcamp.transactions.domain.Money;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
-import java.math.BigDecimal;
-
 public record WithdrawalRequest(
         @NotBlank String cuenta,
-        @NotNull @DecimalMin("0.01") BigDecimal monto
-) {}
-package com.bootcamp.transactions.dto;
-
-import jakarta.validation.constraints.DecimalMin;
-import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotNull;
-
-import java.math.BigDecimal;
+        @NotNull @PositiveAmount Money monto
+) implements IdempotentRequest {
 
-public record WithdrawalRequest(
-        @NotBlank String cuenta,
-        @NotNull @DecimalMin("0.01") BigDecimal monto
-) {}
+    @Override
+    public String fingerprint() {
+        return IdempotentRequest.fingerprint(cuenta, monto.minorUnits());
+    }
+}
@@ -0,0 +1,7 @@
+package com.bootcamp.transactions.exception;
+
+public class AccountBusyException extends RuntimeException {
+    public AccountBusyException(String cuenta) {
+        super("Demasiadas operaciones en curso para la cuenta " + cuenta + ", reintenta en unos instantes");
+    }
+}
@@ -0,0 +1,5 @@
+package com.bootcamp.transactions.exception;
+
+public class AccountNotFoundException extends BusinessException {
+    public AccountNotFoundException(String cuenta) { super("Cuenta no encontrada: " + cuenta); }
+}
@@ -0,0 +1,7 @@
+package com.bootcamp.transactions.exception;
+
+public class ClientMsUnavailableException extends RuntimeException {
+    public ClientMsUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
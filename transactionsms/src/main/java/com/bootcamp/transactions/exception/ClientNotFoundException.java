@@ -0,0 +1,7 @@
+package com.bootcamp.transactions.exception;
+
+public class ClientNotFoundException extends BusinessException {
+    public ClientNotFoundException(String clientId, String cuenta) {
+        super("El titular " + clientId + " de la cuenta " + cuenta + " no existe en client-ms");
+    }
+}
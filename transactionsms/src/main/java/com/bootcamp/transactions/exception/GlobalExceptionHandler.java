@@ -0,0 +1,91 @@
+package com.bootcamp.transactions.exception;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/** Errores con el mismo cuerpo JSON que client-ms: timestamp, status, error, message y path. */
+@RestControllerAdvice
+@Slf4j
+public class GlobalExceptionHandler {
+
+    @ExceptionHandler(AccountNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleAccountNotFound(AccountNotFoundException ex, ServerWebExchange exchange) {
+        log.warn(ex.getMessage());
+        return error(HttpStatus.NOT_FOUND, ex.getMessage(), exchange);
+    }
+
+    @ExceptionHandler(BusinessException.class)
+    public ResponseEntity<Map<String, Object>> handleBusiness(BusinessException ex, ServerWebExchange exchange) {
+        log.warn(ex.getMessage());
+        return error(HttpStatus.UNPROCESSABLE_ENTITY, ex.getMessage(), exchange);
+    }
+
+    /** Carril de la cuenta lleno, o el limitador de admisión no deja pasar más escrituras. */
+    @ExceptionHandler({AccountBusyException.class, ServiceOverloadedException.class})
+    public ResponseEntity<Map<String, Object>> handleBusy(RuntimeException ex, ServerWebExchange exchange) {
+        log.warn(ex.getMessage());
+        ResponseEntity<Map<String, Object>> response = error(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage(), exchange);
+        return ResponseEntity.status(response.getStatusCode()).header(HttpHeaders.RETRY_AFTER, "1").body(response.getBody());
+    }
+
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<Map<String, Object>> handleIdempotencyKeyInProgress(IdempotencyKeyInProgressException ex, ServerWebExchange exchange) {
+        log.warn(ex.getMessage());
+        ResponseEntity<Map<String, Object>> response = error(HttpStatus.CONFLICT, ex.getMessage(), exchange);
+        return ResponseEntity.status(response.getStatusCode()).header(HttpHeaders.RETRY_AFTER, "1").body(response.getBody());
+    }
+
+    @ExceptionHandler(ClientMsUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleClientMsUnavailable(ClientMsUnavailableException ex, ServerWebExchange exchange) {
+        log.warn(ex.getMessage());
+        ResponseEntity<Map<String, Object>> response = error(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), exchange);
+        return ResponseEntity.status(response.getStatusCode()).header(HttpHeaders.RETRY_AFTER, "1").body(response.getBody());
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidCursor(InvalidCursorException ex, ServerWebExchange exchange) {
+        log.warn(ex.getMessage());
+        return error(HttpStatus.BAD_REQUEST, ex.getMessage(), exchange);
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Map<String, Object>> handleValidation(WebExchangeBindException ex, ServerWebExchange exchange) {
+        String message = ex.getFieldErrors().stream()
+                .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                .collect(Collectors.joining(", ", "Validation failed: ", ""));
+        log.warn(message);
+        return error(HttpStatus.BAD_REQUEST, message, exchange);
+    }
+
+    /**
+     * Cuerpo ilegible o parámetro que falta, por ejemplo un {@code monto} con más de dos decimales. La
+     * causa (mensajes de Jackson con clases y posiciones internas) solo va al log.
+     */
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<Map<String, Object>> handleInput(ServerWebInputException ex, ServerWebExchange exchange) {
+        log.warn("Petición mal formada: {}", ex.getMostSpecificCause().getMessage());
+        return error(HttpStatus.BAD_REQUEST, "Petición mal formada: revisa el cuerpo y los parámetros", exchange);
+    }
+
+    private ResponseEntity<Map<String, Object>> error(HttpStatus status, String message, ServerWebExchange exchange) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", Instant.now().toString());
+        body.put("status", status.value());
+        body.put("error", status.getReasonPhrase());
+        body.put("message", message);
+        body.put("path", exchange.getRequest().getPath().value());
+        return ResponseEntity.status(status).body(body);
+    }
+}
@@ -0,0 +1,7 @@
+package com.bootcamp.transactions.exception;
+
+public class IdempotencyKeyInProgressException extends RuntimeException {
+    public IdempotencyKeyInProgressException(String key) {
+        super("La petición con Idempotency-Key " + key + " sigue en curso, reintenta en unos instantes");
+    }
+}
@@ -0,0 +1,7 @@
+package com.bootcamp.transactions.exception;
+
+public class IdempotencyKeyReuseException extends BusinessException {
+    public IdempotencyKeyReuseException(String key) {
+        super("La Idempotency-Key " + key + " ya se usó con otra petición");
+    }
+}
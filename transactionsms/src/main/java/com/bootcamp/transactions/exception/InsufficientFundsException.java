@@ -0,0 +1,5 @@
+package com.bootcamp.transactions.exception;
+
+public class InsufficientFundsException extends BusinessException {
+    public InsufficientFundsException(String cuenta) { super("Saldo insuficiente en la cuenta: " + cuenta); }
+}
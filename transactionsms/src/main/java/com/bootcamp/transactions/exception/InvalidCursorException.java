@@ -0,0 +1,8 @@
+package com.bootcamp.transactions.exception;
+
+/** El cursor de paginación no es el id de una transacción existente. */
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String cursor) {
+        super("Cursor de paginación no válido: " + cursor);
+    }
+}
@@ -0,0 +1,7 @@
+package com.bootcamp.transactions.exception;
+
+public class ServiceOverloadedException extends RuntimeException {
+    public ServiceOverloadedException() {
+        super("Servicio saturado, reintenta en unos instantes");
+    }
+}
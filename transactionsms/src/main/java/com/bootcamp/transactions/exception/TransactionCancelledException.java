@@ -0,0 +1,5 @@
+package com.bootcamp.transactions.exception;
+
+public class TransactionCancelledException extends BusinessException {
+    public TransactionCancelledException(String id) { super("La transacción " + id + " se canceló antes de completarse"); }
+}
@@ -0,0 +1,11 @@
+package com.bootcamp.transactions.exception;
+
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.TransactionType;
+
+public class VelocityLimitExceededException extends BusinessException {
+    public VelocityLimitExceededException(String cuenta, TransactionType type, String window, Money limit) {
+        super("La cuenta " + cuenta + " supera el límite " + window + " de "
+                + (type == TransactionType.RETIRO ? "retiros" : "transferencias") + " (" + limit + ")");
+    }
+}
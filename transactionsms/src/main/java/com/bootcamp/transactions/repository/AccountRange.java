@@ -0,0 +1,19 @@
+package com.bootcamp.transactions.repository;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+
+/**
+ * Tramo de cuentas por id, {@code (after, last]} en el orden de {@code _id}. {@code after} es null en
+ * el primer tramo.
+ */
+public record AccountRange(String after, String last) {
+
+    /** Filtro del tramo sobre un campo con ids de cuenta. */
+    public Criteria on(String field) {
+        Criteria criteria = Criteria.where(field);
+        if (after != null) {
+            criteria.gt(after);
+        }
+        return criteria.lte(last);
+    }
+}
@@ -0,0 +1,75 @@
+package com.bootcamp.transactions.repository;
+
+import com.bootcamp.transactions.domain.Account;
+import com.bootcamp.transactions.domain.Money;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Movimientos de saldo como un único {@code findAndModify} atómico sobre la cuenta: sin leer,
+ * modificar y guardar, y sin locks en la aplicación.
+ */
+public interface AccountRepositoryCustom {
+
+    /** Suma {@code amount} al saldo con {@code $inc}. Vacío si la cuenta no existe. */
+    Mono<Account> credit(String id, Money amount);
+
+    /**
+     * Resta {@code amount} al saldo con {@code $inc} solo si {@code balance >= amount}; la condición va
+     * en el filtro, así que dos retiros concurrentes nunca dejan el saldo negativo. Vacío si la cuenta
+     * no existe o no tiene saldo suficiente.
+     */
+    Mono<Account> debitIfSufficient(String id, Money amount);
+
+    /*
+     * Transferencias: cada cuenta tocada guarda el id de la transferencia en pendingTransactions hasta
+     * que esta se cierra. La marca hace idempotente cada paso (el filtro exige que no esté o que esté)
+     * y le dice al barrido de recuperación qué pasos llegaron a aplicarse.
+     */
+
+    /** Débito condicional ({@code balance >= amount}) que deja la marca de la transferencia. */
+    Mono<Account> debitPending(String id, Money amount, String transactionId);
+
+    /**
+     * Débito condicional de un lote de transferencias desde la misma cuenta: resta el total de una vez
+     * y deja la marca de cada una. Vacío si la cuenta no existe o no tiene saldo para el total.
+     */
+    Mono<Account> debitPendingAll(String id, Money total, List<String> transactionIds);
+
+    /** Abono que deja la marca de la transferencia. Vacío si la cuenta no existe o ya tiene la marca. */
+    Mono<Account> creditPending(String id, Money amount, String transactionId);
+
+    /** Devuelve un débito de transferencia y quita su marca. Vacío si la cuenta no la tiene. */
+    Mono<Account> refundPending(String id, Money amount, String transactionId);
+
+    /**
+     * Deshace el abono de una transferencia y quita su marca, sin mirar el saldo: el dinero no debió
+     * llegar. Vacío si la cuenta no la tiene.
+     */
+    Mono<Account> revertCreditPending(String id, Money amount, String transactionId);
+
+    /** Indica si la cuenta tiene la marca de la transferencia, es decir, si el paso se aplicó. */
+    Mono<Boolean> hasPending(String id, String transactionId);
+
+    /** Quita la marca de la transferencia de las cuentas dadas. */
+    Mono<Void> clearPending(String transactionId, String... ids);
+
+    /** Quita las marcas de varias transferencias de las cuentas dadas en un solo comando. */
+    Mono<Void> clearPendingAll(Collection<String> transactionIds, Collection<String> ids);
+
+    /*
+     * Conciliación: las cuentas se recorren por tramos de id sobre el índice de _id.
+     */
+
+    /**
+     * Id de la cuenta que cierra un tramo de {@code size} cuentas después de {@code after} (null para
+     * empezar por la primera), o el de la última si quedan menos. Vacío si no queda ninguna.
+     */
+    Mono<String> findRangeEnd(String after, int size);
+
+    /** Cuentas del tramo, solo con saldo y marcas. */
+    Flux<Account> findInRange(AccountRange range);
+}
@@ -0,0 +1,120 @@
+package com.bootcamp.transactions.repository;
+
+import com.bootcamp.transactions.domain.Account;
+import com.bootcamp.transactions.config.MoneyConverters;
+import com.bootcamp.transactions.domain.Money;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.Decimal128;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@RequiredArgsConstructor
+class AccountRepositoryCustomImpl implements AccountRepositoryCustom {
+
+    private static final String PENDING = "pendingTransactions";
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    @Override
+    public Mono<Account> credit(String id, Money amount) {
+        return mongoOperations.findAndModify(query(where("id").is(id)),
+                new Update().inc("balance", decimal(amount)), RETURN_NEW, Account.class);
+    }
+
+    @Override
+    public Mono<Account> debitIfSufficient(String id, Money amount) {
+        return mongoOperations.findAndModify(query(where("id").is(id).and("balance").gte(decimal(amount))),
+                new Update().inc("balance", decimal(amount.negate())), RETURN_NEW, Account.class);
+    }
+
+    @Override
+    public Mono<Account> debitPending(String id, Money amount, String transactionId) {
+        return mongoOperations.findAndModify(
+                query(where("id").is(id).and("balance").gte(decimal(amount)).and(PENDING).ne(transactionId)),
+                new Update().inc("balance", decimal(amount.negate())).push(PENDING, transactionId), RETURN_NEW, Account.class);
+    }
+
+    @Override
+    public Mono<Account> debitPendingAll(String id, Money total, List<String> transactionIds) {
+        // las marcas del lote entran juntas: basta con comprobar la primera para no debitarlo dos veces
+        return mongoOperations.findAndModify(
+                query(where("id").is(id).and("balance").gte(decimal(total)).and(PENDING).ne(transactionIds.get(0))),
+                new Update().inc("balance", decimal(total.negate())).push(PENDING).each(transactionIds.toArray()),
+                RETURN_NEW, Account.class);
+    }
+
+    @Override
+    public Mono<Account> creditPending(String id, Money amount, String transactionId) {
+        return mongoOperations.findAndModify(query(where("id").is(id).and(PENDING).ne(transactionId)),
+                new Update().inc("balance", decimal(amount)).push(PENDING, transactionId), RETURN_NEW, Account.class);
+    }
+
+    @Override
+    public Mono<Account> refundPending(String id, Money amount, String transactionId) {
+        return mongoOperations.findAndModify(query(where("id").is(id).and(PENDING).is(transactionId)),
+                new Update().inc("balance", decimal(amount)).pull(PENDING, transactionId), RETURN_NEW, Account.class);
+    }
+
+    @Override
+    public Mono<Account> revertCreditPending(String id, Money amount, String transactionId) {
+        return mongoOperations.findAndModify(query(where("id").is(id).and(PENDING).is(transactionId)),
+                new Update().inc("balance", decimal(amount.negate())).pull(PENDING, transactionId), RETURN_NEW, Account.class);
+    }
+
+    @Override
+    public Mono<Boolean> hasPending(String id, String transactionId) {
+        return mongoOperations.exists(query(where("id").is(id).and(PENDING).is(transactionId)), Account.class);
+    }
+
+    @Override
+    public Mono<Void> clearPending(String transactionId, String... ids) {
+        return mongoOperations.updateMulti(query(where("id").in((Object[]) ids)),
+                new Update().pull(PENDING, transactionId), Account.class).then();
+    }
+
+    @Override
+    public Mono<Void> clearPendingAll(Collection<String> transactionIds, Collection<String> ids) {
+        return mongoOperations.updateMulti(query(where("id").in(ids)),
+                new Update().pullAll(PENDING, transactionIds.toArray()), Account.class).then();
+    }
+
+    @Override
+    public Mono<String> findRangeEnd(String after, int size) {
+        Query nth = idsAfter(after).with(Sort.by(Sort.Direction.ASC, "id")).skip(size - 1L).limit(1);
+        Query last = idsAfter(after).with(Sort.by(Sort.Direction.DESC, "id")).limit(1);
+        return mongoOperations.find(nth, Account.class).next()
+                .switchIfEmpty(mongoOperations.find(last, Account.class).next())
+                .map(Account::getId);
+    }
+
+    @Override
+    public Flux<Account> findInRange(AccountRange range) {
+        Query query = query(range.on("id"));
+        query.fields().include("balance", PENDING);
+        return mongoOperations.find(query, Account.class);
+    }
+
+    private static Query idsAfter(String after) {
+        Query query = query(after == null ? new Criteria() : where("id").gt(after));
+        query.fields().include("id");
+        return query;
+    }
+
+    /** {@code Update.inc} solo admite {@link Number}: el importe se pasa ya como {@code Decimal128}. */
+    private static Decimal128 decimal(Money amount) {
+        return MoneyConverters.MoneyToDecimal128.INSTANCE.convert(amount);
+    }
+}
@@ -0,0 +1,11 @@
+package com.bootcamp.transactions.repository;
+
+import com.bootcamp.transactions.domain.BalanceCheckpoint;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+public interface BalanceCheckpointRepository extends ReactiveMongoRepository<BalanceCheckpoint, String>, BalanceCheckpointRepositoryCustom {
+
+    /** El primer día con checkpoint de la cuenta; usa {@code idx_checkpoint_account_day}. */
+    Mono<BalanceCheckpoint> findFirstByAccountOrderByDayAsc(String account);
+}
@@ -0,0 +1,28 @@
+package com.bootcamp.transactions.repository;
+
+import com.bootcamp.transactions.domain.BalanceCheckpoint;
+import com.bootcamp.transactions.domain.CheckpointClaim;
+import com.bootcamp.transactions.domain.Money;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+public interface BalanceCheckpointRepositoryCustom {
+
+    /**
+     * Suma {@code amount} a la variación del día con un upsert y {@code $inc}; crea el checkpoint si no
+     * existe. No es idempotente: quien llama marca antes las transacciones con {@link CheckpointClaim}.
+     */
+    Mono<Void> addNet(String account, LocalDate day, Money amount);
+
+    /**
+     * Checkpoints de la cuenta con día en {@code (after, until]}, en orden y solo con día y variación;
+     * {@code until} null para no acotar. Usa {@code idx_checkpoint_account_day}.
+     */
+    Flux<BalanceCheckpoint> findNets(String account, LocalDate after, LocalDate until);
+
+    /** Sustituye los checkpoints de la cuenta con día en {@code [desde, hasta]} por {@code days}. */
+    Mono<Void> replaceDays(String account, LocalDate desde, LocalDate hasta, Collection<BalanceCheckpoint> days);
+}
@@ -0,0 +1,57 @@
+package com.bootcamp.transactions.repository;
+
+import com.bootcamp.transactions.config.MoneyConverters;
+import com.bootcamp.transactions.domain.BalanceCheckpoint;
+import com.bootcamp.transactions.domain.Money;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@RequiredArgsConstructor
+class BalanceCheckpointRepositoryCustomImpl implements BalanceCheckpointRepositoryCustom {
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    @Override
+    public Mono<Void> addNet(String account, LocalDate day, Money amount) {
+        return mongoOperations.upsert(
+                        query(where("id").is(BalanceCheckpoint.id(account, day))),
+                        new Update().inc("net", MoneyConverters.MoneyToDecimal128.INSTANCE.convert(amount))
+                                .setOnInsert("account", account).setOnInsert("day", day),
+                        BalanceCheckpoint.class)
+                // dos upserts simultáneos del primer movimiento del día: el que pierde el insert reintenta como update
+                .retryWhen(Retry.max(1).filter(DuplicateKeyException.class::isInstance))
+                .then();
+    }
+
+    @Override
+    public Flux<BalanceCheckpoint> findNets(String account, LocalDate after, LocalDate until) {
+        Criteria days = where("day").gt(after);
+        if (until != null) {
+            days = days.lte(until);
+        }
+        Query query = query(where("account").is(account).andOperator(days)).with(Sort.by("day"));
+        query.fields().include("day", "net");
+        return mongoOperations.find(query, BalanceCheckpoint.class);
+    }
+
+    @Override
+    public Mono<Void> replaceDays(String account, LocalDate desde, LocalDate hasta, Collection<BalanceCheckpoint> days) {
+        return mongoOperations.remove(query(where("account").is(account).and("day").gte(desde).lte(hasta)), BalanceCheckpoint.class)
+                .thenMany(mongoOperations.insertAll(days))
+                .then();
+    }
+}
@@ -0,0 +1,14 @@
+package com.bootcamp.transactions.repository;
+
+import com.bootcamp.transactions.domain.BalanceRollup;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+public interface BalanceRollupRepository extends ReactiveMongoRepository<BalanceRollup, String> {
+
+    /** El último mes acumulado de la cuenta; usa {@code idx_rollup_account_month}. */
+    Mono<BalanceRollup> findFirstByAccountOrderByMonthDesc(String account);
+
+    /** Descarta los acumulados desde {@code month}, que se recalculan al volver a pedirlos. */
+    Mono<Long> deleteByAccountAndMonthGreaterThanEqual(String account, String month);
+}
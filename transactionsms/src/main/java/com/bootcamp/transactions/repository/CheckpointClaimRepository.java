@@ -0,0 +1,7 @@
+package com.bootcamp.transactions.repository;
+
+import com.bootcamp.transactions.domain.CheckpointClaim;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface CheckpointClaimRepository extends ReactiveMongoRepository<CheckpointClaim, String>, CheckpointClaimRepositoryCustom {
+}
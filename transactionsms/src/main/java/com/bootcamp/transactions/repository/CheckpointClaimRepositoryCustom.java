@@ -0,0 +1,18 @@
+package com.bootcamp.transactions.repository;
+
+import com.bootcamp.transactions.domain.CheckpointClaim;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Set;
+
+public interface CheckpointClaimRepositoryCustom {
+
+    /**
+     * Inserta las marcas con un solo insert no ordenado. Las que ya existían se ignoran.
+     *
+     * @return los ids de las marcas insertadas ahora; si falla por algo que no es un duplicado, borra
+     *         las que llegó a insertar antes de propagar el error, así que reintentar es seguro
+     */
+    Mono<Set<String>> claim(Collection<CheckpointClaim> claims);
+}
@@ -0,0 +1,69 @@
+package com.bootcamp.transactions.repository;
+
+import com.bootcamp.transactions.domain.CheckpointClaim;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@RequiredArgsConstructor
+class CheckpointClaimRepositoryCustomImpl implements CheckpointClaimRepositoryCustom {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    @Override
+    public Mono<Set<String>> claim(Collection<CheckpointClaim> claims) {
+        List<CheckpointClaim> batch = List.copyOf(claims);
+        return mongoOperations.bulkOps(BulkMode.UNORDERED, CheckpointClaim.class).insert(batch).execute()
+                .map(result -> ids(batch, List.of()))
+                .onErrorResume(ex -> writeErrors(ex).map(errors -> {
+                    Set<String> claimed = ids(batch, errors);
+                    return errors.stream().allMatch(error -> error.getCode() == DUPLICATE_KEY) ? Mono.just(claimed)
+                            : mongoOperations.remove(query(where("id").in(claimed)), CheckpointClaim.class)
+                                    .then(Mono.<Set<String>>error(ex));
+                }).orElseGet(() -> Mono.error(ex)));
+    }
+
+    /** Ids de las marcas del lote que no fallaron. */
+    private static Set<String> ids(List<CheckpointClaim> batch, List<BulkWriteError> errors) {
+        Set<Integer> failed = errors.stream().map(BulkWriteError::getIndex).collect(Collectors.toSet());
+        Set<String> ids = new LinkedHashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (!failed.contains(i)) {
+                ids.add(batch.get(i).getId());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Errores por documento de un insert parcialmente fallido; según los códigos, el del driver llega
+     * traducido como {@link BulkOperationException} o como causa de una {@code DuplicateKeyException}.
+     */
+    private static Optional<List<BulkWriteError>> writeErrors(Throwable ex) {
+        for (Throwable current = ex; current != null; current = current.getCause()) {
+            if (current instanceof BulkOperationException bulk) {
+                return Optional.of(bulk.getErrors());
+            }
+            if (current instanceof MongoBulkWriteException bulk) {
+                return Optional.of(bulk.getWriteErrors());
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,7 @@
+package com.bootcamp.transactions.repository;
+
+import com.bootcamp.transactions.domain.IdempotencyRecord;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface IdempotencyRecordRepository extends ReactiveMongoRepository<IdempotencyRecord, String>, IdempotencyRecordRepositoryCustom {
+}
@@ -0,0 +1,33 @@
+package com.bootcamp.transactions.repository;
+
+import com.bootcamp.transactions.domain.TransactionSnapshot;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Pasos sobre una clave en curso, cada uno un único comando condicionado a quién la tiene: una
+ * ejecución que perdió la clave no puede renovarla, completarla ni soltarla.
+ */
+public interface IdempotencyRecordRepositoryCustom {
+
+    /**
+     * Se queda una clave en curso con la misma petición cuyo lease venció antes de {@code now}.
+     *
+     * @return true si ahora es de {@code owner}
+     */
+    Mono<Boolean> takeOver(String id, String request, String owner, Instant now, Instant leaseUntil);
+
+    /** Alarga el lease si la clave sigue en curso y es de {@code owner}. */
+    Mono<Boolean> renew(String id, String owner, Instant leaseUntil);
+
+    /**
+     * Guarda la respuesta y la caducidad definitiva si la clave sigue siendo de {@code owner}.
+     *
+     * @return false si otra ejecución se la quedó entretanto
+     */
+    Mono<Boolean> complete(String id, String owner, TransactionSnapshot response, Instant expiresAt);
+
+    /** Borra la clave si sigue en curso y es de {@code owner}, para que un reintento vuelva a ejecutarse. */
+    Mono<Boolean> release(String id, String owner);
+}
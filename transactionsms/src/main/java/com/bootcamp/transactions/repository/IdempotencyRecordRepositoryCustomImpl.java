@@ -0,0 +1,51 @@
+package com.bootcamp.transactions.repository;
+
+import com.bootcamp.transactions.domain.IdempotencyRecord;
+import com.bootcamp.transactions.domain.TransactionSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@RequiredArgsConstructor
+class IdempotencyRecordRepositoryCustomImpl implements IdempotencyRecordRepositoryCustom {
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    @Override
+    public Mono<Boolean> takeOver(String id, String request, String owner, Instant now, Instant leaseUntil) {
+        return update(query(where("id").is(id).and("request").is(request).and("response").isNull().and("leaseUntil").lt(now)),
+                Update.update("owner", owner).set("createdAt", now).set("leaseUntil", leaseUntil).set("expiresAt", leaseUntil));
+    }
+
+    @Override
+    public Mono<Boolean> renew(String id, String owner, Instant leaseUntil) {
+        return update(inProgress(id, owner), Update.update("leaseUntil", leaseUntil).set("expiresAt", leaseUntil));
+    }
+
+    @Override
+    public Mono<Boolean> complete(String id, String owner, TransactionSnapshot response, Instant expiresAt) {
+        return update(inProgress(id, owner), Update.update("response", response).set("expiresAt", expiresAt).unset("leaseUntil"));
+    }
+
+    @Override
+    public Mono<Boolean> release(String id, String owner) {
+        return mongoOperations.remove(inProgress(id, owner), IdempotencyRecord.class)
+                .map(result -> result.getDeletedCount() > 0);
+    }
+
+    private Mono<Boolean> update(Query query, Update update) {
+        return mongoOperations.updateFirst(query, update, IdempotencyRecord.class)
+                .map(result -> result.getModifiedCount() > 0);
+    }
+
+    private static Query inProgress(String id, String owner) {
+        return query(where("id").is(id).and("owner").is(owner).and("response").isNull());
+    }
+}
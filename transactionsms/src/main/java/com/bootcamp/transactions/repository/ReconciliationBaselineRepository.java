@@ -0,0 +1,6 @@
+package com.bootcamp.transactions.repository;
+
+import com.bootcamp.transactions.domain.ReconciliationBaseline;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface ReconciliationBaselineRepository extends ReactiveMongoRepository<ReconciliationBaseline, String> {}
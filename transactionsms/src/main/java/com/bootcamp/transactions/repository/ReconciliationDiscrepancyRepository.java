@@ -0,0 +1,11 @@
+package com.bootcamp.transactions.repository;
+
+import com.bootcamp.transactions.domain.ReconciliationDiscrepancy;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+public interface ReconciliationDiscrepancyRepository extends ReactiveMongoRepository<ReconciliationDiscrepancy, String> {
+
+    /** Informe de descuadres de una pasada; usa {@code idx_discrepancy_run}. */
+    Flux<ReconciliationDiscrepancy> findByRunId(String runId);
+}
@@ -0,0 +1,17 @@
+package com.bootcamp.transactions.repository;
+
+import com.bootcamp.transactions.domain.ReconciliationPartition;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReconciliationPartitionRepository extends ReactiveMongoRepository<ReconciliationPartition, String> {
+
+    Flux<ReconciliationPartition> findByRunId(String runId);
+
+    /** Tramos de la pasada que se empezaron y no se terminaron. */
+    Flux<ReconciliationPartition> findByRunIdAndFinishedAtIsNull(String runId);
+
+    /** El último tramo creado en la pasada; usa {@code idx_partition_run_last}. */
+    Mono<ReconciliationPartition> findFirstByRunIdOrderByLastAccountDesc(String runId);
+}
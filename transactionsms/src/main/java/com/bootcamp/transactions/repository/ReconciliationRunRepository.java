@@ -0,0 +1,11 @@
+package com.bootcamp.transactions.repository;
+
+import com.bootcamp.transactions.domain.ReconciliationRun;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+public interface ReconciliationRunRepository extends ReactiveMongoRepository<ReconciliationRun, String> {
+
+    /** La pasada sin terminar más reciente, para retomarla. */
+    Mono<ReconciliationRun> findFirstByFinishedAtIsNullOrderByStartedAtDesc();
+}
@@ -0,0 +1,16 @@
+package com.bootcamp.transactions.repository;
+
+import com.bootcamp.transactions.domain.TransactionBucket;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/** Buckets de la colección caliente; lo que toca también el archivo está en {@link TransactionBucketRepositoryCustom}. */
+public interface TransactionBucketRepository extends ReactiveMongoRepository<TransactionBucket, String>, TransactionBucketRepositoryCustom {
+
+    /** Último bucket de la cuenta, al que se añaden las siguientes entradas mientras quepan. */
+    Mono<TransactionBucket> findFirstByAccountOrderByMinDateDescIdDesc(String account);
+
+    /** Buckets con mes anterior a {@code month} ({@code yyyy-MM}), candidatos a archivarse. */
+    Flux<TransactionBucket> findByMonthLessThan(String month);
+}
@@ -0,0 +1,42 @@
+package com.bootcamp.transactions.repository;
+
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionBucket;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Operaciones sobre buckets que no cubre un método derivado. Las de lectura reciben la colección, porque
+ * {@link TransactionBucket#HOT} y {@link TransactionBucket#ARCHIVE} tienen la misma forma e índice.
+ */
+public interface TransactionBucketRepositoryCustom {
+
+    /** Crea en el archivo el índice que la colección caliente recibe por anotación. */
+    Mono<String> ensureArchiveIndex();
+
+    /**
+     * Buckets de la cuenta con mes en {@code [fromMonth, toMonth]} (cualquiera de los dos puede ser null),
+     * del más reciente al más antiguo.
+     */
+    Flux<TransactionBucket> findForAccount(String collection, String account, String fromMonth, String toMonth);
+
+    /** Abre un bucket con la transacción como primera entrada. */
+    Mono<TransactionBucket> open(String account, String month, Transaction tx);
+
+    /**
+     * Añade la transacción al final del bucket y suma su importe a los totales. El filtro exige que el
+     * bucket siga acabando en la entrada que se leyó, así que nunca se intercala ni se duplica una entrada.
+     *
+     * @return true si se añadió
+     */
+    Mono<Boolean> append(TransactionBucket bucket, Transaction tx);
+
+    /** Copia el bucket al archivo y lo borra de la colección caliente; repetirlo es inocuo. */
+    Mono<Void> archive(TransactionBucket bucket);
+
+    /** Abonos menos cargos confirmados de cada cuenta del tramo, sumados en MongoDB. */
+    Mono<Map<String, Money>> sumNetByAccount(String collection, AccountRange range);
+}
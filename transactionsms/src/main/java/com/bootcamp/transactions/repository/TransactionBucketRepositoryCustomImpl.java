@@ -0,0 +1,110 @@
+package com.bootcamp.transactions.repository;
+
+import com.bootcamp.transactions.config.MoneyConverters;
+import com.bootcamp.transactions.domain.TransactionSnapshot;
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionBucket;
+import com.bootcamp.transactions.domain.TransactionStatus;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@RequiredArgsConstructor
+class TransactionBucketRepositoryCustomImpl implements TransactionBucketRepositoryCustom {
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "minDate", "id");
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    @Override
+    public Mono<String> ensureArchiveIndex() {
+        return mongoOperations.indexOps(TransactionBucket.ARCHIVE).ensureIndex(new Index()
+                .named("idx_bucket_account_month").on("account", Sort.Direction.ASC)
+                .on("month", Sort.Direction.DESC).on("minDate", Sort.Direction.DESC));
+    }
+
+    @Override
+    public Flux<TransactionBucket> findForAccount(String collection, String account, String fromMonth, String toMonth) {
+        Query query = query(where("account").is(account)).with(NEWEST_FIRST);
+        if (fromMonth != null || toMonth != null) {
+            Criteria month = where("month");
+            if (fromMonth != null) {
+                month.gte(fromMonth);
+            }
+            if (toMonth != null) {
+                month.lte(toMonth);
+            }
+            query.addCriteria(month);
+        }
+        return mongoOperations.find(query, TransactionBucket.class, collection);
+    }
+
+    @Override
+    public Mono<TransactionBucket> open(String account, String month, Transaction tx) {
+        Money amount = committedAmount(tx, account);
+        return mongoOperations.insert(TransactionBucket.builder()
+                .account(account).month(month).minDate(tx.getDate()).maxDate(tx.getDate()).maxId(tx.getId()).count(1)
+                .credits(amount.isPositive() ? amount : Money.ZERO)
+                .debits(amount.isPositive() ? Money.ZERO : amount.negate())
+                .entries(new ArrayList<>(List.of(TransactionSnapshot.of(tx))))
+                .build());
+    }
+
+    @Override
+    public Mono<Boolean> append(TransactionBucket bucket, Transaction tx) {
+        Money amount = committedAmount(tx, bucket.getAccount());
+        Update update = new Update().push("entries", TransactionSnapshot.of(tx)).inc("count", 1)
+                .set("maxDate", tx.getDate()).set("maxId", tx.getId())
+                .inc(amount.isPositive() ? "credits" : "debits", decimal(amount.isPositive() ? amount : amount.negate()));
+        return mongoOperations.updateFirst(query(where("id").is(bucket.getId()).and("maxId").is(bucket.getMaxId())),
+                        update, TransactionBucket.class)
+                .map(result -> result.getModifiedCount() > 0);
+    }
+
+    @Override
+    public Mono<Void> archive(TransactionBucket bucket) {
+        return mongoOperations.insert(bucket, TransactionBucket.ARCHIVE)
+                .onErrorResume(DuplicateKeyException.class, ex -> Mono.just(bucket))
+                .then(mongoOperations.remove(query(where("id").is(bucket.getId())), TransactionBucket.class))
+                .then();
+    }
+
+    @Override
+    public Mono<Map<String, Money>> sumNetByAccount(String collection, AccountRange range) {
+        Aggregation totals = newAggregation(match(range.on("account")),
+                group("account").sum("credits").as("credits").sum("debits").as("debits"));
+        return mongoOperations.aggregate(totals, collection, Document.class)
+                .collectMap(total -> total.getString("_id"), total -> TransactionRepositoryCustomImpl.money(total.get("credits"))
+                        .minus(TransactionRepositoryCustomImpl.money(total.get("debits"))));
+    }
+
+    /** Las transferencias canceladas se guardan pero no mueven saldo. */
+    private static Money committedAmount(Transaction tx, String account) {
+        return tx.getStatus() == TransactionStatus.COMMITTED ? tx.signedAmountFor(account) : Money.ZERO;
+    }
+
+    private static Decimal128 decimal(Money amount) {
+        return MoneyConverters.MoneyToDecimal128.INSTANCE.convert(amount);
+    }
+}
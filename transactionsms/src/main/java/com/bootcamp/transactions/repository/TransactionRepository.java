@@ -1,13 +1,28 @@
 package com.bootcamp.transactions.repository;
 
 import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.Arrays;
+import java.time.Instant;
+import java.util.Collection;
 
-public interface TransactionRepository extends ReactiveMongoRepository<Transaction, String> {
-    Flux<Transaction> findBySourceAccountOrDestAccountOrderByDateDesc(String source, String dest);
+public interface TransactionRepository extends ReactiveMongoRepository<Transaction, String>, TransactionRepositoryCustom {
+    /** Transferencias a medias más antiguas que {@code before}, para el barrido de recuperación. */
+    Flux<Transaction> findByStatusInAndDateBefore(Collection<TransactionStatus> statuses, Instant before);
 
-    Arrays findAll();
+    /** Transacciones en esos estados anteriores a {@code before}, en el orden en que se pasan a buckets. */
+    Flux<Transaction> findByStatusInAndDateBeforeOrderByDateAscIdAsc(Collection<TransactionStatus> statuses, Instant before, Limit limit);
+
+    /** La transacción más antigua en esos estados. */
+    Mono<Transaction> findFirstByStatusInOrderByDateAsc(Collection<TransactionStatus> statuses);
+
+    /** Indica si la transacción sigue en ese estado. */
+    Mono<Boolean> existsByIdAndStatus(String id, TransactionStatus status);
+
+    /** Cuántas de esas transacciones siguen en ese estado. */
+    Mono<Long> countByIdInAndStatus(Collection<String> ids, TransactionStatus status);
 }
@@ -0,0 +1,57 @@
+package com.bootcamp.transactions.repository;
+
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.TransactionStatus;
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+
+public interface TransactionRepositoryCustom {
+
+    /**
+     * Cambia el estado de una transacción solo si sigue en {@code from} (compare-and-set), para que el
+     * flujo en curso y el barrido de recuperación no pisen el avance del otro.
+     *
+     * @return true si la transacción pasó a {@code to}
+     */
+    Mono<Boolean> updateStatus(String id, TransactionStatus from, TransactionStatus to);
+
+    /**
+     * {@link #updateStatus} para varias transacciones en un solo comando.
+     *
+     * @return cuántas pasaron a {@code to}
+     */
+    Mono<Long> updateStatusAll(Collection<String> ids, TransactionStatus from, TransactionStatus to);
+
+    /**
+     * Historial confirmado ({@code COMMITTED}) de una cuenta (como origen o destino), del más reciente
+     * al más antiguo por {@code (date, id)}. Paginación por keyset: con {@code before} empieza justo después de esa
+     * transacción, así que el coste de una página no depende de su posición.
+     *
+     * @param desde  fecha mínima, inclusive; null para no acotar
+     * @param hasta  fecha máxima, exclusive; null para no acotar
+     * @param before última transacción de la página anterior; null para la primera página
+     */
+    Flux<Transaction> findHistory(String cuenta, Instant desde, Instant hasta, Transaction before, int limit);
+
+    /** Transacciones de la cuenta (origen o destino) con fecha en {@code [desde, hasta)}, sin orden. */
+    Flux<Transaction> findByAccountBetween(String cuenta, Instant desde, Instant hasta);
+
+    /**
+     * Transacciones confirmadas de esos tipos con fecha en {@code [desde, hasta)}, sin orden y solo con
+     * tipo, importe, fecha y cuenta origen. Usa {@code idx_tx_status_date}.
+     */
+    Flux<Transaction> findCommittedBetween(Collection<TransactionType> types, Instant desde, Instant hasta);
+
+    /**
+     * Variación neta del saldo de cada cuenta del tramo según sus transacciones {@code APPLIED} o
+     * {@code COMMITTED}, sumada en MongoDB: una agregación por la cuenta origen y otra por la destino,
+     * sobre {@code idx_tx_source_date} e {@code idx_tx_dest_date}. Solo vuelven los totales por cuenta.
+     */
+    Mono<Map<String, Money>> sumNetByAccount(AccountRange range);
+}
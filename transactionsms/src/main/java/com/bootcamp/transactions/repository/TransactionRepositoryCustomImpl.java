@@ -0,0 +1,125 @@
+package com.bootcamp.transactions.repository;
+
+import com.bootcamp.transactions.config.MoneyConverters;
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionStatus;
+import com.bootcamp.transactions.domain.TransactionType;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@RequiredArgsConstructor
+class TransactionRepositoryCustomImpl implements TransactionRepositoryCustom {
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "date", "id");
+    // saldo ya movido: COMMITTED, o APPLIED con las dos cuentas tocadas y el cierre pendiente
+    private static final List<String> MOVED = List.of(TransactionStatus.APPLIED.name(), TransactionStatus.COMMITTED.name());
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    @Override
+    public Mono<Boolean> updateStatus(String id, TransactionStatus from, TransactionStatus to) {
+        return mongoOperations.updateFirst(query(where("id").is(id).and("status").is(from)),
+                        Update.update("status", to), Transaction.class)
+                .map(result -> result.getModifiedCount() > 0);
+    }
+
+    @Override
+    public Mono<Long> updateStatusAll(Collection<String> ids, TransactionStatus from, TransactionStatus to) {
+        return mongoOperations.updateMulti(query(where("id").in(ids).and("status").is(from)),
+                        Update.update("status", to), Transaction.class)
+                .map(UpdateResult::getModifiedCount);
+    }
+
+    @Override
+    public Flux<Transaction> findHistory(String cuenta, Instant desde, Instant hasta, Transaction before, int limit) {
+        Criteria bySource = page(where("sourceAccount").is(cuenta).and("status").is(TransactionStatus.COMMITTED), desde, hasta, before);
+        Criteria byDest = page(where("destAccount").is(cuenta).and("status").is(TransactionStatus.COMMITTED), desde, hasta, before);
+        return mongoOperations.find(query(new Criteria().orOperator(bySource, byDest)).with(NEWEST_FIRST).limit(limit),
+                Transaction.class);
+    }
+
+    @Override
+    public Flux<Transaction> findByAccountBetween(String cuenta, Instant desde, Instant hasta) {
+        return mongoOperations.find(query(new Criteria().orOperator(
+                page(where("sourceAccount").is(cuenta), desde, hasta, null),
+                page(where("destAccount").is(cuenta), desde, hasta, null))), Transaction.class);
+    }
+
+    @Override
+    public Flux<Transaction> findCommittedBetween(Collection<TransactionType> types, Instant desde, Instant hasta) {
+        Query query = query(where("status").is(TransactionStatus.COMMITTED).and("date").gte(desde).lt(hasta).and("type").in(types));
+        query.fields().include("type", "amount", "date", "sourceAccount");
+        return mongoOperations.find(query, Transaction.class);
+    }
+
+    @Override
+    public Mono<Map<String, Money>> sumNetByAccount(AccountRange range) {
+        Aggregation bySource = newAggregation(
+                match(range.on("sourceAccount").and("status").in(MOVED)),
+                group("sourceAccount", "type").sum("amount").as("total"));
+        Aggregation byDest = newAggregation(
+                match(range.on("destAccount").and("status").in(MOVED)),
+                group("destAccount").sum("amount").as("total"));
+        Flux<Map.Entry<String, Money>> outgoing = mongoOperations.aggregate(bySource, Transaction.class, Document.class)
+                .map(total -> {
+                    Document key = total.get("_id", Document.class);
+                    Money amount = money(total.get("total"));
+                    // como origen, los depósitos abonan y los retiros y transferencias cargan
+                    boolean credit = TransactionType.DEPOSITO.name().equals(key.getString("type"));
+                    return Map.entry(key.getString("sourceAccount"), credit ? amount : amount.negate());
+                });
+        Flux<Map.Entry<String, Money>> incoming = mongoOperations.aggregate(byDest, Transaction.class, Document.class)
+                .map(total -> Map.entry(total.getString("_id"), money(total.get("total"))));
+        return Flux.concat(outgoing, incoming)
+                .<Map<String, Money>>collect(HashMap::new, (nets, net) -> nets.merge(net.getKey(), net.getValue(), Money::plus));
+    }
+
+    static Money money(Object sum) {
+        return MoneyConverters.Decimal128ToMoney.INSTANCE.convert((Decimal128) sum);
+    }
+
+    /**
+     * Una rama del {@code $or}: cuenta por igualdad y {@code date} por rango, que es lo que acota el
+     * índice; el desempate por id dentro de la misma fecha queda como filtro residual.
+     */
+    private static Criteria page(Criteria branch, Instant desde, Instant hasta, Transaction before) {
+        if (desde == null && hasta == null && before == null) {
+            return branch;
+        }
+        Criteria date = branch.and("date");
+        if (desde != null) {
+            date.gte(desde);
+        }
+        if (hasta != null) {
+            date.lt(hasta);
+        }
+        if (before != null) {
+            date.lte(before.getDate());
+            branch.orOperator(where("date").lt(before.getDate()), where("id").lt(before.getId()));
+        }
+        return branch;
+    }
+}
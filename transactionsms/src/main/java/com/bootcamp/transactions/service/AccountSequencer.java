@@ -0,0 +1,176 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.exception.AccountBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Secuenciador por cuenta: el id de la cuenta se reparte por hash entre un número fijo de carriles y
+ * cada carril ejecuta sus operaciones de una en una, en orden de llegada. Las operaciones de una misma
+ * cuenta nunca compiten entre sí por el documento, mientras que cuentas de carriles distintos avanzan
+ * en paralelo. Ningún hilo espera: la siguiente operación arranca cuando termina el {@link Mono} de la
+ * anterior.
+ * <p>
+ * Cada carril admite como mucho {@code account.sequencer.queue-capacity} operaciones (en cola más la
+ * que está en curso); las que no caben se rechazan con {@link AccountBusyException} (429). Una operación
+ * que no termina en {@code account.sequencer.task-timeout} falla con {@link java.util.concurrent.TimeoutException}
+ * y deja paso a la siguiente, de modo que una llamada a Mongo colgada no bloquea el carril para siempre.
+ */
+@Component
+public class AccountSequencer {
+
+    private final Lane[] lanes;
+    private final Counter rejected;
+    private final Duration taskTimeout;
+
+    public AccountSequencer(@Value("${account.sequencer.lanes:64}") int laneCount,
+                            @Value("${account.sequencer.queue-capacity:256}") int capacity,
+                            @Value("${account.sequencer.task-timeout:PT5S}") Duration taskTimeout,
+                            MeterRegistry meterRegistry) {
+        this.taskTimeout = taskTimeout;
+        lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(capacity);
+            Gauge.builder("account.sequencer.queue.depth", lanes[i].depth, AtomicInteger::get)
+                    .description("Operaciones en cola o en curso en el carril")
+                    .tag("lane", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+        rejected = Counter.builder("account.sequencer.rejected")
+                .description("Operaciones rechazadas por carril lleno")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ejecuta {@code operation} en el carril de la cuenta, después de las operaciones que ya estaban en
+     * él. Si quien la pidió cancela mientras espera, la operación no llega a ejecutarse; si cancela con
+     * la operación en curso, se cancela también la suscripción y el carril pasa a la siguiente.
+     */
+    public <T> Mono<T> submit(String cuenta, Supplier<Mono<T>> operation) {
+        Lane lane = lanes[Math.floorMod(cuenta.hashCode(), lanes.length)];
+        return Mono.create(sink -> {
+            Task<T> task = new Task<>(operation, sink, taskTimeout);
+            sink.onCancel(task::cancel);
+            if (!lane.offer(task)) {
+                rejected.increment();
+                sink.error(new AccountBusyException(cuenta));
+            }
+        });
+    }
+
+    /**
+     * Operación encolada. {@code onDone} se invoca una sola vez, termine como termine: con valor, vacía,
+     * con error, por timeout o cancelada por quien la pidió.
+     */
+    private static final class Task<T> {
+
+        private final Supplier<Mono<T>> operation;
+        private final MonoSink<T> sink;
+        private final Duration timeout;
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private volatile Disposable subscription;
+        private volatile boolean cancelled;
+
+        Task(Supplier<Mono<T>> operation, MonoSink<T> sink, Duration timeout) {
+            this.operation = operation;
+            this.sink = sink;
+            this.timeout = timeout;
+        }
+
+        void run(Runnable onDone) {
+            if (cancelled) {
+                finish(onDone);
+                return;
+            }
+            Mono<T> result;
+            try {
+                result = operation.get();
+            } catch (RuntimeException ex) {
+                result = Mono.error(ex);
+            }
+            subscription = result.timeout(timeout)
+                    .doFinally(signal -> finish(onDone))
+                    .subscribe(sink::success, sink::error, sink::success);
+            if (cancelled) {
+                subscription.dispose();
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            Disposable current = subscription;
+            if (current != null) {
+                current.dispose();
+            }
+        }
+
+        private void finish(Runnable onDone) {
+            if (finished.compareAndSet(false, true)) {
+                onDone.run();
+            }
+        }
+    }
+
+    /**
+     * Carril con cola sin locks. {@code wip} serializa el bucle de drenado, de modo que una operación
+     * que termina de forma síncrona arranca la siguiente sin recursión.
+     */
+    private static final class Lane {
+
+        private final Queue<Task<?>> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger depth = new AtomicInteger();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final int capacity;
+        private volatile boolean running;
+
+        Lane(int capacity) {
+            this.capacity = capacity;
+        }
+
+        boolean offer(Task<?> task) {
+            if (depth.incrementAndGet() > capacity) {
+                depth.decrementAndGet();
+                return false;
+            }
+            queue.offer(task);
+            drain();
+            return true;
+        }
+
+        private void done() {
+            depth.decrementAndGet();
+            running = false;
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (!running) {
+                    Task<?> task = queue.poll();
+                    if (task != null) {
+                        running = true;
+                        task.run(this::done);
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
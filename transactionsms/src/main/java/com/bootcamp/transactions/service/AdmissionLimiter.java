@@ -0,0 +1,207 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Control de admisión global de las escrituras (depósitos, retiros, transferencias y el débito de cada
+ * lote): como mucho {@code limit} operaciones en curso a la vez, con un límite que se adapta solo (AIMD)
+ * a la latencia observada de las operaciones, que es sobre todo la de MongoDB.
+ * <ul>
+ *   <li>Una operación que tarda más de {@code admission.latency-threshold}, o que falla por MongoDB o
+ *   por timeout, multiplica el límite por {@code admission.backoff-ratio}, sin bajar de
+ *   {@code admission.min-limit}.</li>
+ *   <li>Una operación rápida con el limitador al menos a medio llenar lo sube en uno, sin pasar de
+ *   {@code admission.max-limit}.</li>
+ *   <li>Las que no caben esperan en una cola de como mucho {@code admission.queue-capacity}, por orden de
+ *   llegada y durante {@code admission.queue-timeout} como máximo. Con la cola llena, o si se acaba la
+ *   espera, fallan con {@link ServiceOverloadedException} (429 con {@code Retry-After}).</li>
+ * </ul>
+ * Publica los gauges {@code admission.limit}, {@code admission.in-flight} y {@code admission.queue.depth}
+ * y el contador {@code admission.rejected} con la etiqueta {@code reason} ({@code queue-full} o
+ * {@code timeout}).
+ */
+@Component
+public class AdmissionLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final int queueCapacity;
+    private final Duration queueTimeout;
+    private final Deque<Waiter> waiting = new ArrayDeque<>();
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+
+    // Se escriben con el lock del limitador; volatile para que los gauges los lean sin él
+    private volatile double limit;
+    private volatile int inFlight;
+
+    public AdmissionLimiter(@Value("${admission.initial-limit:64}") int initialLimit,
+                            @Value("${admission.min-limit:8}") int minLimit,
+                            @Value("${admission.max-limit:512}") int maxLimit,
+                            @Value("${admission.latency-threshold:PT0.25S}") Duration latencyThreshold,
+                            @Value("${admission.backoff-ratio:0.9}") double backoffRatio,
+                            @Value("${admission.queue-capacity:256}") int queueCapacity,
+                            @Value("${admission.queue-timeout:PT0.5S}") Duration queueTimeout,
+                            MeterRegistry meterRegistry) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.queueCapacity = queueCapacity;
+        this.queueTimeout = queueTimeout;
+        Gauge.builder("admission.limit", this, AdmissionLimiter::currentLimit)
+                .description("Escrituras admitidas a la vez").register(meterRegistry);
+        Gauge.builder("admission.in-flight", this, limiter -> limiter.inFlight)
+                .description("Escrituras en curso").register(meterRegistry);
+        Gauge.builder("admission.queue.depth", this, AdmissionLimiter::queueDepth)
+                .description("Escrituras esperando a ser admitidas").register(meterRegistry);
+        this.rejectedQueueFull = Counter.builder("admission.rejected").tag("reason", "queue-full")
+                .description("Escrituras rechazadas por el control de admisión").register(meterRegistry);
+        this.rejectedTimeout = Counter.builder("admission.rejected").tag("reason", "timeout")
+                .description("Escrituras rechazadas por el control de admisión").register(meterRegistry);
+    }
+
+    /**
+     * Ejecuta {@code operation} en cuanto haya sitio. El hueco se libera cuando la operación termina,
+     * falla o se cancela, y solo las que terminan o fallan ajustan el límite.
+     */
+    public <T> Mono<T> admit(Supplier<Mono<T>> operation) {
+        return Mono.usingWhen(acquire(),
+                permit -> Mono.defer(operation),
+                permit -> Mono.fromRunnable(() -> release(permit, false)),
+                (permit, ex) -> Mono.fromRunnable(() -> release(permit, overloaded(ex))),
+                permit -> Mono.fromRunnable(() -> release(permit, null)));
+    }
+
+    int currentLimit() {
+        return (int) limit;
+    }
+
+    int inFlight() {
+        return inFlight;
+    }
+
+    private synchronized int queueDepth() {
+        return waiting.size();
+    }
+
+    private Mono<Permit> acquire() {
+        return Mono.<Permit>create(sink -> {
+                    Waiter waiter;
+                    synchronized (this) {
+                        if (inFlight < currentLimit() && waiting.isEmpty()) {
+                            inFlight++;
+                            waiter = null;
+                        } else if (waiting.size() >= queueCapacity) {
+                            rejectedQueueFull.increment();
+                            sink.error(new ServiceOverloadedException());
+                            return;
+                        } else {
+                            waiter = new Waiter(sink);
+                            waiting.addLast(waiter);
+                            waiter.timeout = Schedulers.parallel()
+                                    .schedule(() -> expire(waiter), queueTimeout.toNanos(), TimeUnit.NANOSECONDS);
+                        }
+                    }
+                    if (waiter == null) {
+                        sink.success(new Permit());
+                    } else {
+                        sink.onCancel(() -> abandon(waiter));
+                    }
+                })
+                // Un hueco concedido a quien ya había cancelado se devuelve sin llegar a usarse
+                .doOnDiscard(Permit.class, permit -> release(permit, null));
+    }
+
+    private void expire(Waiter waiter) {
+        synchronized (this) {
+            if (!waiting.remove(waiter)) {
+                return;
+            }
+        }
+        rejectedTimeout.increment();
+        waiter.sink.error(new ServiceOverloadedException());
+    }
+
+    private void abandon(Waiter waiter) {
+        synchronized (this) {
+            if (!waiting.remove(waiter)) {
+                return;
+            }
+        }
+        waiter.timeout.dispose();
+    }
+
+    /** {@code overloaded} es {@code null} si la operación se canceló: no hay latencia que medir. */
+    private void release(Permit permit, Boolean overloaded) {
+        if (!permit.released.compareAndSet(false, true)) {
+            return;
+        }
+        long latency = System.nanoTime() - permit.startedAt;
+        List<Waiter> admitted = new ArrayList<>();
+        synchronized (this) {
+            if (overloaded != null) {
+                adjust(latency, overloaded);
+            }
+            inFlight--;
+            while (inFlight < currentLimit() && !waiting.isEmpty()) {
+                Waiter waiter = waiting.pollFirst();
+                waiter.timeout.dispose();
+                inFlight++;
+                admitted.add(waiter);
+            }
+        }
+        admitted.forEach(waiter -> waiter.sink.success(new Permit()));
+    }
+
+    /** AIMD: baja multiplicativa si la operación fue lenta o falló por saturación, subida de uno si no. */
+    private void adjust(long latency, boolean overloaded) {
+        if (overloaded || latency > latencyThresholdNanos) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (inFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    /** Errores que indican que MongoDB no da abasto; los de negocio no cuentan. */
+    private static boolean overloaded(Throwable ex) {
+        return ex instanceof DataAccessException || ex instanceof TimeoutException;
+    }
+
+    private static final class Permit {
+        private final long startedAt = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+    }
+
+    private static final class Waiter {
+        private final MonoSink<Permit> sink;
+        private Disposable timeout;
+
+        Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.domain.Account;
+import com.bootcamp.transactions.domain.BalanceCheckpoint;
+import com.bootcamp.transactions.domain.BalanceRollup;
+import com.bootcamp.transactions.domain.CheckpointClaim;
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionStatus;
+import com.bootcamp.transactions.exception.AccountNotFoundException;
+import com.bootcamp.transactions.repository.AccountRepository;
+import com.bootcamp.transactions.repository.BalanceCheckpointRepository;
+import com.bootcamp.transactions.repository.BalanceRollupRepository;
+import com.bootcamp.transactions.repository.CheckpointClaimRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Saldo de una cuenta en una fecha pasada sin recorrer todo su ledger.
+ * <p>
+ * Por cada cuenta y día se guarda un {@link BalanceCheckpoint} con la variación neta del saldo, que
+ * se incrementa cuando una transacción queda confirmada en el ledger. El saldo al instante {@code T}
+ * es el saldo actual menos la variación de los días posteriores al de {@code T} y menos las
+ * transacciones de ese mismo día posteriores a {@code T}. Se parte del saldo actual porque es el único
+ * saldo absoluto conocido (las cuentas se abren fuera de este servicio, sin apunte en el ledger).
+ * <p>
+ * Para que el coste no crezca con la antigüedad de {@code T}, los meses cerrados hace más de
+ * {@code checkpoint.rollup-after} se acumulan en {@link BalanceRollup}: la variación de todos los meses
+ * entre el de {@code T} y el último cerrado es la diferencia de dos acumulados. Una consulta lee como
+ * mucho los días que quedan del mes de {@code T}, dos acumulados, los días desde el último mes cerrado
+ * y las transacciones de un solo día. Los acumulados se calculan al pedirlos y se descartan cuando
+ * cambia un día que cubren.
+ * <p>
+ * Antes de sumar una transacción a una cuenta se inserta su {@link CheckpointClaim}, con {@code _id}
+ * único: si ya existía, la transacción ya se sumó y no se vuelve a sumar. Así reintentar es seguro y
+ * {@link #record} reintenta antes de rendirse; si el {@code $inc} falla del todo se borra la marca. Lo
+ * que aun así se pierda (una caída entre la marca y el {@code $inc}) se recupera con {@link #rebuild},
+ * que recalcula los días desde el ledger y vuelve a marcar sus transacciones. Las marcas caducan a los
+ * {@code checkpoint.claim-ttl}, así que ni los checkpoints ni las marcas crecen con el volumen de la cuenta.
+ * <p>
+ * Los movimientos en curso (saldo ya aplicado y ledger aún sin confirmar) pueden desviar el resultado
+ * durante unos milisegundos.
+ */
+@Service
+@Slf4j
+public class BalanceCheckpointService {
+
+    private static final int RETRIES = 3;
+
+    private final BalanceCheckpointRepository checkpointRepository;
+    private final BalanceRollupRepository rollupRepository;
+    private final CheckpointClaimRepository claimRepository;
+    private final AccountRepository accountRepository;
+    private final LedgerReader ledgerReader;
+    private final ZoneId zone;
+    private final Duration rollupAfter;
+    private final Duration claimTtl;
+
+    public BalanceCheckpointService(BalanceCheckpointRepository checkpointRepository, BalanceRollupRepository rollupRepository,
+                                    CheckpointClaimRepository claimRepository,
+                                    AccountRepository accountRepository, LedgerReader ledgerReader,
+                                    @Value("${checkpoint.zone:UTC}") ZoneId zone,
+                                    @Value("${checkpoint.rollup-after:P1D}") Duration rollupAfter,
+                                    @Value("${checkpoint.claim-ttl:P7D}") Duration claimTtl) {
+        this.checkpointRepository = checkpointRepository;
+        this.rollupRepository = rollupRepository;
+        this.claimRepository = claimRepository;
+        this.accountRepository = accountRepository;
+        this.ledgerReader = ledgerReader;
+        this.zone = zone;
+        this.rollupAfter = rollupAfter;
+        this.claimTtl = claimTtl;
+    }
+
+    /**
+     * Lleva una transacción confirmada a los checkpoints de las cuentas que mueve. Si falla tras los
+     * reintentos solo se registra: la transacción ya es firme y no debe revertirse por esto, y el día
+     * se puede reconstruir con {@link #rebuild}.
+     */
+    public Mono<Void> record(Transaction tx) {
+        LocalDate day = day(tx.getDate());
+        Mono<Void> source = add(tx.getSourceAccount(), day, List.of(tx));
+        Mono<Void> dest = tx.getDestAccount() == null ? Mono.empty() : add(tx.getDestAccount(), day, List.of(tx));
+        return Mono.when(source, dest)
+                .onErrorResume(ex -> {
+                    log.error("No se pudo actualizar el checkpoint de la transacción {} del {}; reconstruir ese día",
+                            tx.getId(), day, ex);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * {@link #record} para un lote: suma primero las variaciones por cuenta y día, así que la cuenta
+     * origen de un lote de transferencias recibe un solo {@code $inc} por día en vez de uno por transferencia,
+     * y sus marcas van en un solo insert.
+     */
+    public Mono<Void> recordAll(Collection<Transaction> transactions) {
+        Map<AccountDay, List<Transaction>> groups = new LinkedHashMap<>();
+        for (Transaction tx : transactions) {
+            LocalDate day = day(tx.getDate());
+            groups.computeIfAbsent(new AccountDay(tx.getSourceAccount(), day), key -> new ArrayList<>()).add(tx);
+            if (tx.getDestAccount() != null) {
+                groups.computeIfAbsent(new AccountDay(tx.getDestAccount(), day), key -> new ArrayList<>()).add(tx);
+            }
+        }
+        return Flux.fromIterable(groups.entrySet())
+                .flatMap(group -> {
+                    String account = group.getKey().account();
+                    LocalDate day = group.getKey().day();
+                    return add(account, day, group.getValue())
+                            .onErrorResume(ex -> {
+                                log.error("No se pudo actualizar el checkpoint de la cuenta {} del {}; reconstruir ese día",
+                                        account, day, ex);
+                                return Mono.empty();
+                            });
+                })
+                .then();
+    }
+
+    /**
+     * Recalcula desde el ledger los checkpoints de la cuenta con día en {@code [desde, hasta]}, para
+     * recuperar escrituras perdidas, y marca sus transacciones para que un {@link #record} posterior no
+     * las vuelva a sumar. Los movimientos que se confirmen mientras tanto en esos días pueden perderse
+     * de nuevo: conviene reconstruir días ya cerrados.
+     */
+    public Mono<Void> rebuild(String cuenta, LocalDate desde, LocalDate hasta) {
+        log.info("Reconstruyendo los checkpoints de la cuenta {} del {} al {}", cuenta, desde, hasta);
+        Instant expiresAt = Instant.now().plus(claimTtl);
+        return ledgerReader.findByAccountBetween(cuenta, startOf(desde), startOf(hasta.plusDays(1)))
+                .filter(tx -> tx.getStatus() == TransactionStatus.COMMITTED)
+                .collectMultimap(tx -> day(tx.getDate()))
+                .flatMap(byDay -> checkpointRepository.replaceDays(cuenta, desde, hasta, byDay.entrySet().stream()
+                                .map(entry -> new BalanceCheckpoint(BalanceCheckpoint.id(cuenta, entry.getKey()), cuenta, entry.getKey(),
+                                        entry.getValue().stream().map(tx -> tx.signedAmountFor(cuenta)).reduce(Money.ZERO, Money::plus)))
+                                .toList())
+                        .then(claimRepository.saveAll(byDay.values().stream().flatMap(Collection::stream)
+                                .map(tx -> new CheckpointClaim(CheckpointClaim.id(cuenta, tx.getId()), expiresAt))
+                                .toList()).then()))
+                .then(rollupRepository.deleteByAccountAndMonthGreaterThanEqual(cuenta, YearMonth.from(desde).toString()))
+                .then();
+    }
+
+    /**
+     * Saldo de la cuenta justo después de las transacciones con fecha {@code <= at}.
+     *
+     * @throws AccountNotFoundException si la cuenta no existe
+     */
+    public Mono<Money> balanceAt(String cuenta, Instant at) {
+        LocalDate day = day(at);
+        Instant endOfDay = startOf(day.plusDays(1));
+        // el ledger guarda milisegundos: lo que cae en el mismo milisegundo que at ya cuenta
+        Instant afterAt = at.truncatedTo(ChronoUnit.MILLIS).plusMillis(1);
+
+        Mono<Money> current = accountRepository.findById(cuenta)
+                .switchIfEmpty(Mono.error(() -> new AccountNotFoundException(cuenta)))
+                .map(Account::getBalance);
+        YearMonth month = YearMonth.from(day);
+        YearMonth closed = lastClosedMonth();
+        Mono<Money> laterDays = month.isBefore(closed) ? rolledUp(cuenta, day, month, closed)
+                : sum(checkpointRepository.findNets(cuenta, day, null));
+        Mono<Money> restOfDay = afterAt.isBefore(endOfDay)
+                ? sum(ledgerReader.findByAccountBetween(cuenta, afterAt, endOfDay), cuenta)
+                : Mono.just(Money.ZERO);
+        return Mono.zip(current, laterDays, restOfDay)
+                .map(parts -> parts.getT1().minus(parts.getT2()).minus(parts.getT3()));
+    }
+
+    /**
+     * Variación de los días posteriores a {@code day}: lo que queda de su mes, los meses hasta
+     * {@code closed} como diferencia de acumulados y los días desde entonces.
+     */
+    private Mono<Money> rolledUp(String cuenta, LocalDate day, YearMonth month, YearMonth closed) {
+        return ensureRollups(cuenta, closed).then(Mono.zip(
+                        sum(checkpointRepository.findNets(cuenta, day, month.atEndOfMonth())),
+                        cumulative(cuenta, closed),
+                        cumulative(cuenta, month),
+                        sum(checkpointRepository.findNets(cuenta, closed.atEndOfMonth(), null))))
+                .map(parts -> parts.getT1().plus(parts.getT2().minus(parts.getT3())).plus(parts.getT4()));
+    }
+
+    /** Acumula los meses de la cuenta que falten hasta {@code closed}, a partir del último acumulado. */
+    private Mono<Void> ensureRollups(String cuenta, YearMonth closed) {
+        return rollupRepository.findFirstByAccountOrderByMonthDesc(cuenta)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(latest -> {
+                    if (latest.isPresent() && !YearMonth.parse(latest.get().getMonth()).isBefore(closed)) {
+                        return Mono.<Void>empty();
+                    }
+                    Money base = latest.map(BalanceRollup::getCumulative).orElse(Money.ZERO);
+                    Mono<YearMonth> first = latest.isPresent()
+                            ? Mono.just(YearMonth.parse(latest.get().getMonth()).plusMonths(1))
+                            : checkpointRepository.findFirstByAccountOrderByDayAsc(cuenta).map(checkpoint -> YearMonth.from(checkpoint.getDay()));
+                    return first.filter(start -> !start.isAfter(closed))
+                            .flatMap(start -> checkpointRepository.findNets(cuenta, start.atDay(1).minusDays(1), closed.atEndOfMonth())
+                                    .collectMultimap(checkpoint -> YearMonth.from(checkpoint.getDay()), BalanceCheckpoint::getNet)
+                                    .flatMap(nets -> {
+                                        List<BalanceRollup> rollups = new ArrayList<>();
+                                        Money cumulative = base;
+                                        for (YearMonth m = start; !m.isAfter(closed); m = m.plusMonths(1)) {
+                                            cumulative = nets.getOrDefault(m, List.of()).stream().reduce(cumulative, Money::plus);
+                                            rollups.add(new BalanceRollup(BalanceRollup.id(cuenta, m), cuenta, m.toString(), cumulative));
+                                        }
+                                        return rollupRepository.saveAll(rollups).then();
+                                    }));
+                });
+    }
+
+    /** Acumulado hasta el final del mes; cero si es anterior al primer mes con checkpoints. */
+    private Mono<Money> cumulative(String cuenta, YearMonth month) {
+        return rollupRepository.findById(BalanceRollup.id(cuenta, month))
+                .map(BalanceRollup::getCumulative)
+                .defaultIfEmpty(Money.ZERO);
+    }
+
+    /** El último mes que terminó hace más de {@code checkpoint.rollup-after}. */
+    private YearMonth lastClosedMonth() {
+        return YearMonth.from(day(Instant.now().minus(rollupAfter))).minusMonths(1);
+    }
+
+    /**
+     * Suma al checkpoint del día las transacciones que aún no tengan marca para la cuenta: primero las
+     * marca y luego aplica un solo {@code $inc} con lo que sumen. Los dos pasos reintentan; si el
+     * {@code $inc} falla del todo se borran las marcas para que un reintento posterior lo vuelva a
+     * intentar. Si cambia un día de un mes anterior al actual, descarta los acumulados que lo cubren.
+     */
+    private Mono<Void> add(String account, LocalDate day, List<Transaction> txs) {
+        YearMonth month = YearMonth.from(day);
+        Instant expiresAt = Instant.now().plus(claimTtl);
+        return claimRepository.claim(txs.stream()
+                        .map(tx -> new CheckpointClaim(CheckpointClaim.id(account, tx.getId()), expiresAt))
+                        .toList())
+                .retryWhen(Retry.backoff(RETRIES, Duration.ofMillis(50)))
+                .filter(claimed -> !claimed.isEmpty())
+                .flatMap(claimed -> checkpointRepository.addNet(account, day, txs.stream()
+                                .filter(tx -> claimed.contains(CheckpointClaim.id(account, tx.getId())))
+                                .map(tx -> tx.signedAmountFor(account))
+                                .reduce(Money.ZERO, Money::plus))
+                        .retryWhen(Retry.backoff(RETRIES, Duration.ofMillis(50)))
+                        .onErrorResume(ex -> claimRepository.deleteAllById(claimed).then(Mono.error(ex)))
+                        .then(month.isBefore(YearMonth.now(zone))
+                                ? rollupRepository.deleteByAccountAndMonthGreaterThanEqual(account, month.toString()).then()
+                                : Mono.empty()));
+    }
+
+    private LocalDate day(Instant instant) {
+        return LocalDate.ofInstant(instant, zone);
+    }
+
+    private Instant startOf(LocalDate day) {
+        return day.atStartOfDay(zone).toInstant();
+    }
+
+    private record AccountDay(String account, LocalDate day) {}
+
+    private static Mono<Money> sum(Flux<BalanceCheckpoint> checkpoints) {
+        return checkpoints.map(BalanceCheckpoint::getNet).reduce(Money.ZERO, Money::plus);
+    }
+
+    private static Mono<Money> sum(Flux<Transaction> transactions, String cuenta) {
+        return transactions.filter(tx -> tx.getStatus() == TransactionStatus.COMMITTED)
+                .map(tx -> tx.signedAmountFor(cuenta))
+                .reduce(Money.ZERO, Money::plus);
+    }
+}
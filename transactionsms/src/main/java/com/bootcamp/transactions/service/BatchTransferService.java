@@ -0,0 +1,390 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.domain.Account;
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionStatus;
+import com.bootcamp.transactions.domain.TransactionType;
+import com.bootcamp.transactions.dto.BatchTransferResult;
+import com.bootcamp.transactions.dto.TransferRequest;
+import com.bootcamp.transactions.exception.AccountBusyException;
+import com.bootcamp.transactions.exception.AccountNotFoundException;
+import com.bootcamp.transactions.exception.BusinessException;
+import com.bootcamp.transactions.exception.ClientNotFoundException;
+import com.bootcamp.transactions.exception.InsufficientFundsException;
+import com.bootcamp.transactions.exception.TransactionCancelledException;
+import com.bootcamp.transactions.exception.VelocityLimitExceededException;
+import com.bootcamp.transactions.repository.AccountRepository;
+import com.bootcamp.transactions.repository.TransactionRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Lotes de transferencias desde una misma cuenta (nóminas). Siguen los pasos de
+ * {@link TransferService}, con las mismas marcas en las cuentas, así que {@link TransferRecoveryJob}
+ * retoma cualquier transferencia del lote que quede a medias; lo que cambia es que cada paso se hace
+ * para muchas a la vez:
+ * <ol>
+ *   <li>se validan todos los elementos y se descartan los que no pueden hacerse (destino inexistente,
+ *   titular desconocido en client-ms, etc.);</li>
+ *   <li>cada elemento reserva su importe en los límites de velocidad del origen
+ *   ({@link VelocityLimiter#reserve}), en el orden de la petición; los que no caben se descartan;</li>
+ *   <li>las transacciones {@code PENDING} se insertan de una vez;</li>
+ *   <li>un solo débito del origen por el total, que deja todas las marcas, en el carril de la cuenta
+ *   del {@link AccountSequencer}; si no hay saldo para el total se cancela el lote entero. Inserción y
+ *   débito ocupan un hueco del {@link AdmissionLimiter}, como una transferencia suelta;</li>
+ *   <li>abonos en paralelo, como mucho {@code transfer.batch.concurrency} cuentas destino a la vez y
+ *   en el orden de la petición dentro de cada cuenta, cada uno en el carril de su cuenta destino; si
+ *   el carril está saturado, esa transferencia se compensa;</li>
+ *   <li>cada {@code transfer.batch.commit-size} abonos: {@code APPLIED}, marcas y checkpoints con
+ *   un comando para todas, y el paso a {@code COMMITTED} con la misma comparación por transacción
+ *   que una transferencia suelta.</li>
+ * </ol>
+ * Como en una transferencia suelta, débito y abonos solo se hacen sobre transferencias que siguen en
+ * {@code PENDING}, y cada resultado lleva el estado guardado: si el barrido se adelantó a un lote lento
+ * y canceló alguna, se revierte lo que movió el lote para ella.
+ * Los resultados se emiten por elemento según se cierran. Como en una transferencia suelta, la reserva
+ * de velocidad se devuelve ({@link VelocityLimiter#release}) si la transferencia no llega a confirmarla el
+ * lote: lote fallido, compensación, cancelación del barrido o paso a {@code COMMITTED} que ganó otro.
+ */
+@Service
+@Slf4j
+public class BatchTransferService {
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountSequencer accountSequencer;
+    private final BalanceCheckpointService checkpointService;
+    private final ClientMsClient clientMsClient;
+    private final VelocityLimiter velocityLimiter;
+    private final AdmissionLimiter admissionLimiter;
+    private final Validator validator;
+    private final int maxItems;
+    private final int concurrency;
+    private final int commitSize;
+
+    public BatchTransferService(AccountRepository accountRepository, TransactionRepository transactionRepository,
+                                AccountSequencer accountSequencer, BalanceCheckpointService checkpointService,
+                                ClientMsClient clientMsClient, VelocityLimiter velocityLimiter,
+                                AdmissionLimiter admissionLimiter, Validator validator,
+                                @Value("${transfer.batch.max-items:1000}") int maxItems,
+                                @Value("${transfer.batch.concurrency:16}") int concurrency,
+                                @Value("${transfer.batch.commit-size:256}") int commitSize) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountSequencer = accountSequencer;
+        this.checkpointService = checkpointService;
+        this.clientMsClient = clientMsClient;
+        this.velocityLimiter = velocityLimiter;
+        this.admissionLimiter = admissionLimiter;
+        this.validator = validator;
+        this.maxItems = maxItems;
+        this.concurrency = concurrency;
+        this.commitSize = commitSize;
+    }
+
+    /**
+     * Ejecuta el lote. Los elementos rechazados no detienen el resto; el lote entero falla solo si el
+     * origen no existe, no tiene saldo para el total o está saturado, o si el servicio no admite más
+     * escrituras, y en ese caso no se mueve dinero.
+     * <p>
+     * Para eso el total tiene que conocerse antes del débito, así que el lote se lee entero en memoria
+     * antes de empezar; {@code transfer.batch.max-items} acota lo que ocupa. Lotes mayores se parten en
+     * varias peticiones.
+     *
+     * @throws BusinessException si el lote supera {@code transfer.batch.max-items} elementos
+     */
+    public Flux<BatchTransferResult> transfer(Flux<TransferRequest> requests) {
+        return requests.index()
+                .take(maxItems + 1L)
+                .map(item -> new Item(item.getT1().intValue(), item.getT2()))
+                .collectList()
+                .flatMapMany(items -> {
+                    if (items.size() > maxItems) {
+                        return Flux.error(new BusinessException("El lote supera el máximo de " + maxItems + " transferencias"));
+                    }
+                    return screen(items).flatMapMany(this::run);
+                });
+    }
+
+    /** Separa los elementos que pueden hacerse de los que no, con una sola lectura de las cuentas destino. */
+    private Mono<Screening> screen(List<Item> items) {
+        Screening screening = new Screening();
+        String source = null;
+        for (Item item : items) {
+            TransferRequest request = item.request();
+            String invalid = violations(request);
+            if (invalid == null && source == null) {
+                source = request.cuentaOrigen();
+            }
+            if (invalid != null) {
+                screening.reject(item, invalid);
+            } else if (!request.cuentaOrigen().equals(source)) {
+                screening.reject(item, "Todas las transferencias del lote deben salir de la cuenta " + source);
+            } else if (request.cuentaDestino().equals(source)) {
+                screening.reject(item, "La cuenta origen y la cuenta destino deben ser distintas");
+            } else {
+                screening.accepted.add(item);
+            }
+        }
+        screening.source = source;
+        Set<String> destinations = screening.accepted.stream().map(item -> item.request().cuentaDestino())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        return accountRepository.findAllById(destinations)
+                .flatMap(account -> holderRejection(account).map(reason -> Map.entry(account.getId(), reason)), concurrency)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .map(checked -> {
+                    List<Item> accepted = new ArrayList<>();
+                    for (Item item : screening.accepted) {
+                        Optional<String> reason = checked.get(item.request().cuentaDestino());
+                        if (reason == null) {
+                            screening.reject(item, new AccountNotFoundException(item.request().cuentaDestino()).getMessage());
+                        } else if (reason.isPresent()) {
+                            screening.reject(item, reason.get());
+                        } else {
+                            accepted.add(item);
+                        }
+                    }
+                    screening.accepted = accepted;
+                    return screening;
+                });
+    }
+
+    /** Motivo de rechazo si la cuenta tiene titular y client-ms no lo conoce, como en {@link TransferService}. */
+    private Mono<Optional<String>> holderRejection(Account account) {
+        if (account.getClientId() == null) {
+            return Mono.just(Optional.empty());
+        }
+        return clientMsClient.findClient(account.getClientId())
+                .map(client -> Optional.<String>empty())
+                .defaultIfEmpty(Optional.of(new ClientNotFoundException(account.getClientId(), account.getId()).getMessage()));
+    }
+
+    private Flux<BatchTransferResult> run(Screening screening) {
+        if (screening.accepted.isEmpty()) {
+            return Flux.fromIterable(screening.rejected);
+        }
+        String source = screening.source;
+        Instant now = Instant.now();
+        Map<String, Integer> indexes = new HashMap<>();
+        Map<String, VelocityLimiter.Reservation> reservations = new HashMap<>();
+        List<Transaction> pending = new ArrayList<>();
+        for (Item item : screening.accepted) {
+            VelocityLimiter.Reservation reservation;
+            try {
+                reservation = velocityLimiter.reserve(TransactionType.TRANSFERENCIA, source, item.request().monto());
+            } catch (VelocityLimitExceededException ex) {
+                screening.reject(item, ex.getMessage());
+                continue;
+            }
+            Transaction tx = Transaction.builder().id(new ObjectId().toHexString())
+                    .type(TransactionType.TRANSFERENCIA).status(TransactionStatus.PENDING).amount(item.request().monto())
+                    .date(now).sourceAccount(source).destAccount(item.request().cuentaDestino()).build();
+            indexes.put(tx.getId(), item.index());
+            reservations.put(tx.getId(), reservation);
+            pending.add(tx);
+        }
+        if (pending.isEmpty()) {
+            return Flux.fromIterable(screening.rejected);
+        }
+        List<String> ids = pending.stream().map(Transaction::getId).toList();
+        Money total = pending.stream().map(Transaction::getAmount).reduce(Money.ZERO, Money::plus);
+        log.info("Lote de {} transferencias por {} desde la cuenta {}", pending.size(), total, source);
+
+        // el hueco de admisión cubre inserción y débito; los abonos los acota transfer.batch.concurrency
+        Mono<Account> debit = admissionLimiter.admit(() -> transactionRepository.insert(pending).then(
+                accountSequencer.submit(source, () -> debitAll(source, total, ids))
+                        .onErrorResume(AccountBusyException.class, ex -> cancelAll(ids).then(Mono.error(ex)))
+                        .switchIfEmpty(Mono.defer(() -> cancelAll(ids)
+                                .then(accountRepository.existsById(source))
+                                .flatMap(exists -> Mono.error(exists
+                                        ? new InsufficientFundsException(source) : new AccountNotFoundException(source))))))
+                        .doOnError(ex -> reservations.values().forEach(velocityLimiter::release)));
+
+        // cada cuenta destino recibe sus abonos en el orden de la petición; las cuentas van en paralelo
+        Map<String, List<Transaction>> byDestination = pending.stream()
+                .collect(Collectors.groupingBy(Transaction::getDestAccount, LinkedHashMap::new, Collectors.toList()));
+        Flux<BatchTransferResult> credited = Flux.fromIterable(byDestination.values())
+                .flatMap(group -> Flux.fromIterable(group).concatMap(tx -> credit(tx, reservations)), concurrency)
+                .bufferTimeout(commitSize, Duration.ofMillis(20), true)
+                .concatMap(outcomes -> commit(source, outcomes, indexes, reservations));
+
+        return debit.thenMany(Flux.concat(Flux.fromIterable(screening.rejected), credited));
+    }
+
+    /** Débito del total, si el barrido no canceló ninguna transferencia del lote mientras esperaba en el carril. */
+    private Mono<Account> debitAll(String source, Money total, List<String> ids) {
+        return transactionRepository.countByIdInAndStatus(ids, TransactionStatus.PENDING)
+                .flatMap(pending -> pending == ids.size()
+                        ? accountRepository.debitPendingAll(source, total, ids)
+                        : cancelAll(ids).then(Mono.error(new BusinessException(
+                                "El lote se canceló antes de debitar la cuenta " + source))));
+    }
+
+    /**
+     * Abona el destino; si ya no existe, devuelve el importe al origen y cancela esa transferencia. Si
+     * ya no está en {@code PENDING}, el barrido se adelantó y no se abona nada.
+     */
+    private Mono<Outcome> credit(Transaction tx, Map<String, VelocityLimiter.Reservation> reservations) {
+        return transactionRepository.existsByIdAndStatus(tx.getId(), TransactionStatus.PENDING)
+                .flatMap(pending -> !pending ? Mono.just(new Outcome(tx, false, null))
+                        : accountSequencer.submit(tx.getDestAccount(),
+                                        () -> accountRepository.creditPending(tx.getDestAccount(), tx.getAmount(), tx.getId()))
+                                .map(account -> new Outcome(tx, true, null))
+                                .switchIfEmpty(Mono.defer(() -> accountRepository.existsById(tx.getDestAccount())
+                                        .flatMap(exists -> exists ? Mono.just(new Outcome(tx, false, null))
+                                                : compensate(tx, new AccountNotFoundException(tx.getDestAccount()), reservations))))
+                                .onErrorResume(AccountBusyException.class, ex -> compensate(tx, ex, reservations)));
+    }
+
+    private Mono<Outcome> compensate(Transaction tx, RuntimeException reason,
+                                     Map<String, VelocityLimiter.Reservation> reservations) {
+        log.warn("Compensando la transferencia {} a {}: {}", tx.getId(), tx.getDestAccount(), reason.getMessage());
+        return accountRepository.refundPending(tx.getSourceAccount(), tx.getAmount(), tx.getId())
+                .then(transactionRepository.updateStatus(tx.getId(), TransactionStatus.PENDING, TransactionStatus.CANCELLED))
+                .doOnNext(cancelled -> velocityLimiter.release(reservations.get(tx.getId())))
+                .thenReturn(new Outcome(tx, false, reason.getMessage()));
+    }
+
+    /**
+     * Cierra un tramo de abonos: los pasos que no dependen de quién gane la comparación van en bloque.
+     * Si el paso a {@code APPLIED} no las movió todas, se mira cómo dejó el barrido cada una: las
+     * canceladas se revierten y las demás se cierran igual, que cada paso es idempotente.
+     */
+    private Flux<BatchTransferResult> commit(String source, List<Outcome> outcomes, Map<String, Integer> indexes,
+                                             Map<String, VelocityLimiter.Reservation> reservations) {
+        List<Outcome> credited = outcomes.stream().filter(outcome -> outcome.error() == null).toList();
+        List<String> ids = credited.stream().map(outcome -> outcome.tx().getId()).toList();
+
+        Mono<Map<String, TransactionStatus>> closed = credited.isEmpty() ? Mono.just(Map.of())
+                : transactionRepository.updateStatusAll(ids, TransactionStatus.PENDING, TransactionStatus.APPLIED)
+                        .flatMap(applied -> applied == ids.size() ? Mono.just(Map.<String, TransactionStatus>of()) : statuses(ids))
+                        .flatMap(found -> {
+                            List<Outcome> cancelled = credited.stream()
+                                    .filter(outcome -> found.get(outcome.tx().getId()) == TransactionStatus.CANCELLED).toList();
+                            List<Transaction> open = credited.stream()
+                                    .filter(outcome -> found.get(outcome.tx().getId()) != TransactionStatus.CANCELLED)
+                                    .map(Outcome::tx).toList();
+                            return Flux.fromIterable(cancelled).concatMap(outcome -> revert(outcome, reservations))
+                                    .then(close(source, open, reservations))
+                                    .doOnNext(status -> cancelled.forEach(outcome ->
+                                            status.put(outcome.tx().getId(), TransactionStatus.CANCELLED)));
+                        });
+        return closed.flatMapMany(status -> Flux.fromIterable(outcomes)
+                .sort(Comparator.comparing(outcome -> indexes.get(outcome.tx().getId())))
+                .map(outcome -> {
+                    Transaction tx = outcome.tx();
+                    String error = outcome.error();
+                    if (error == null) {
+                        tx.setStatus(status.get(tx.getId()));
+                        if (tx.getStatus() == TransactionStatus.CANCELLED) {
+                            error = new TransactionCancelledException(tx.getId()).getMessage();
+                        }
+                    } else {
+                        tx.setStatus(TransactionStatus.CANCELLED);
+                    }
+                    return new BatchTransferResult(indexes.get(tx.getId()), tx.getDestAccount(), tx.getAmount(),
+                            tx.getId(), tx.getStatus(), error);
+                }));
+    }
+
+    /**
+     * Marcas fuera y {@code COMMITTED}; devuelve el estado guardado de cada transacción. Las que cerró
+     * otro ({@link TransferRecoveryJob}, que ya las suma con {@link VelocityLimiter#record}) devuelven su
+     * reserva.
+     */
+    private Mono<Map<String, TransactionStatus>> close(String source, List<Transaction> open,
+                                                      Map<String, VelocityLimiter.Reservation> reservations) {
+        if (open.isEmpty()) {
+            return Mono.just(new HashMap<>());
+        }
+        List<String> ids = open.stream().map(Transaction::getId).toList();
+        Set<String> accounts = new LinkedHashSet<>();
+        accounts.add(source);
+        open.forEach(tx -> accounts.add(tx.getDestAccount()));
+        return accountRepository.clearPendingAll(ids, accounts)
+                // solo quien gana el paso a COMMITTED lo lleva a los checkpoints, como en TransferService
+                .thenMany(Flux.fromIterable(open).flatMap(tx -> transactionRepository
+                        .updateStatus(tx.getId(), TransactionStatus.APPLIED, TransactionStatus.COMMITTED)
+                        .filter(committed -> committed)
+                        .map(committed -> tx), concurrency))
+                .collectList()
+                .flatMap(committed -> checkpointService.recordAll(committed).then(Mono.defer(() -> {
+                    List<String> lost = new ArrayList<>(ids);
+                    committed.forEach(tx -> lost.remove(tx.getId()));
+                    lost.forEach(id -> velocityLimiter.release(reservations.get(id)));
+                    return (lost.isEmpty() ? Mono.<Map<String, TransactionStatus>>just(new HashMap<>()) : statuses(lost))
+                            .doOnNext(status -> committed.forEach(tx -> status.put(tx.getId(), TransactionStatus.COMMITTED)));
+                })));
+    }
+
+    /** Devuelve el débito y, si lo hizo el lote, el abono de una transferencia que el barrido canceló. */
+    private Mono<Void> revert(Outcome outcome, Map<String, VelocityLimiter.Reservation> reservations) {
+        Transaction tx = outcome.tx();
+        log.warn("Transferencia {} del lote cancelada por el barrido, revirtiendo", tx.getId());
+        velocityLimiter.release(reservations.get(tx.getId()));
+        Mono<Account> revertCredit = outcome.credited()
+                ? accountRepository.revertCreditPending(tx.getDestAccount(), tx.getAmount(), tx.getId())
+                : Mono.empty();
+        return accountRepository.refundPending(tx.getSourceAccount(), tx.getAmount(), tx.getId()).then(revertCredit).then();
+    }
+
+    private Mono<Map<String, TransactionStatus>> statuses(List<String> ids) {
+        return transactionRepository.findAllById(ids)
+                .<Map<String, TransactionStatus>>collect(HashMap::new, (status, tx) -> status.put(tx.getId(), tx.getStatus()));
+    }
+
+    private Mono<Long> cancelAll(List<String> ids) {
+        return transactionRepository.updateStatusAll(ids, TransactionStatus.PENDING, TransactionStatus.CANCELLED);
+    }
+
+    /** Mensaje con el mismo formato que las validaciones de una transferencia suelta, o null si es válida. */
+    private String violations(TransferRequest request) {
+        Set<ConstraintViolation<TransferRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", ", "Validation failed: ", ""));
+    }
+
+    private record Item(int index, TransferRequest request) {}
+
+    /**
+     * Resultado del abono de una transferencia: {@code error} es null si puede cerrarse y
+     * {@code credited} indica si el abono lo hizo el lote.
+     */
+    private record Outcome(Transaction tx, boolean credited, String error) {}
+
+    private static final class Screening {
+        private String source;
+        private List<Item> accepted = new ArrayList<>();
+        private final List<BatchTransferResult> rejected = new ArrayList<>();
+
+        void reject(Item item, String reason) {
+            rejected.add(new BatchTransferResult(item.index(), item.request().cuentaDestino(), item.request().monto(),
+                    null, TransactionStatus.CANCELLED, reason));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.dto.ClientResponse;
+import com.bootcamp.transactions.exception.ClientMsUnavailableException;
+import com.bootcamp.transactions.support.RequestCoalescer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Consultas de clientes a client-ms por HTTP, sin leer su base de datos.
+ * <ul>
+ *   <li>Caché con TTL de los clientes encontrados ({@code clientms.cache.*}); un cliente que no existe
+ *   no se guarda, así que se ve en cuanto se da de alta.</li>
+ *   <li>Las consultas simultáneas del mismo id que no están en caché comparten una sola petición
+ *   ({@link RequestCoalescer}).</li>
+ *   <li>Como mucho {@code clientms.max-concurrent-calls} peticiones en vuelo (bulkhead). Si client-ms
+ *   va lento y se agotan, las siguientes fallan al momento con {@link ClientMsUnavailableException}
+ *   en vez de encolarse.</li>
+ * </ul>
+ * Publica {@code cache.*} con {@code cache=client-ms}, {@code clientms.lookup.*},
+ * {@code clientms.calls.in-flight} y {@code clientms.calls.rejected}.
+ */
+@Component
+@Slf4j
+public class ClientMsClient {
+
+    private final WebClient webClient;
+    private final Cache<String, ClientResponse> cache;
+    private final RequestCoalescer<String, ClientResponse> coalescer;
+    private final Semaphore bulkhead;
+    private final Counter rejected;
+
+    public ClientMsClient(@Qualifier("clientMsWebClient") WebClient webClient,
+                          @Value("${clientms.cache.ttl:PT5M}") Duration ttl,
+                          @Value("${clientms.cache.maximum-size:10000}") long maximumSize,
+                          @Value("${clientms.max-concurrent-calls:32}") int maxConcurrentCalls,
+                          MeterRegistry meterRegistry) {
+        this.webClient = webClient;
+        this.cache = CaffeineCacheMetrics.monitor(meterRegistry,
+                Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().build(),
+                "client-ms");
+        this.coalescer = new RequestCoalescer<>("clientms.lookup", meterRegistry);
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        Gauge.builder("clientms.calls.in-flight", bulkhead, permits -> maxConcurrentCalls - permits.availablePermits())
+                .description("Peticiones a client-ms en curso").register(meterRegistry);
+        this.rejected = Counter.builder("clientms.calls.rejected")
+                .description("Peticiones a client-ms rechazadas por el bulkhead").register(meterRegistry);
+    }
+
+    /**
+     * Cliente por id, vacío si client-ms no lo conoce.
+     *
+     * @throws ClientMsUnavailableException si client-ms falla, no responde a tiempo o ya hay demasiadas
+     *                                      peticiones en curso
+     */
+    public Mono<ClientResponse> findClient(String clientId) {
+        return Mono.defer(() -> Mono.justOrEmpty(cache.getIfPresent(clientId)))
+                .switchIfEmpty(coalescer.execute(clientId, this::fetch));
+    }
+
+    private Mono<ClientResponse> fetch(String clientId) {
+        return Mono.defer(() -> {
+            if (!bulkhead.tryAcquire()) {
+                rejected.increment();
+                return Mono.error(new ClientMsUnavailableException("Demasiadas consultas en curso a client-ms", null));
+            }
+            return webClient.get().uri("/clientes/{id}", clientId)
+                    .retrieve()
+                    .bodyToMono(ClientResponse.class)
+                    .doOnNext(client -> cache.put(clientId, client))
+                    .onErrorResume(WebClientResponseException.NotFound.class, ex -> Mono.empty())
+                    .onErrorMap(ex -> {
+                        log.warn("Falló la consulta del cliente {} a client-ms: {}", clientId, ex.toString());
+                        return new ClientMsUnavailableException("client-ms no disponible", ex);
+                    })
+                    .doFinally(signal -> bulkhead.release());
+        });
+    }
+}
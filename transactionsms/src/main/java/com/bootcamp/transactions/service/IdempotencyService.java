@@ -0,0 +1,201 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.domain.IdempotencyRecord;
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionSnapshot;
+import com.bootcamp.transactions.dto.IdempotentRequest;
+import com.bootcamp.transactions.exception.IdempotencyKeyInProgressException;
+import com.bootcamp.transactions.exception.IdempotencyKeyReuseException;
+import com.bootcamp.transactions.repository.IdempotencyRecordRepository;
+import com.bootcamp.transactions.support.RequestCoalescer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Peticiones con {@code Idempotency-Key}: la primera se ejecuta y su respuesta se guarda en
+ * {@code idempotency_keys} durante {@code idempotency.ttl}; los reintentos con la misma clave reciben
+ * esa respuesta sin volver a tocar la cuenta ni el ledger.
+ * <ul>
+ *   <li>Las respuestas guardadas se sirven primero desde una caché en memoria ({@code idempotency.cache.*}),
+ *   así que una tormenta de reintentos no llega a MongoDB.</li>
+ *   <li>Los duplicados simultáneos en esta instancia comparten la ejecución de la primera
+ *   ({@link RequestCoalescer}); los de otras instancias ven la clave ocupada y esperan a que se complete
+ *   hasta {@code idempotency.wait-timeout}, tras lo que fallan con
+ *   {@link IdempotencyKeyInProgressException} (409).</li>
+ *   <li>Mientras se ejecuta, la clave se ocupa solo por {@code idempotency.lease}, que se renueva cada
+ *   tercio de lease; la caducidad de {@code idempotency.ttl} se aplica al guardar la respuesta. Si la
+ *   instancia cae a mitad, el lease vence y el siguiente reintento se queda la clave y ejecuta.</li>
+ *   <li>Si la ejecución falla, o la cancelan todos los que la esperaban antes de terminar, la clave se
+ *   libera y el reintento vuelve a ejecutarse.</li>
+ *   <li>La misma clave con otra petición se rechaza con {@link IdempotencyKeyReuseException} (422).</li>
+ * </ul>
+ * Publica {@code cache.*} con {@code cache=idempotency}, {@code idempotency.flight.*} e
+ * {@code idempotency.replayed}.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private final IdempotencyRecordRepository repository;
+    private final Duration ttl;
+    private final Duration lease;
+    private final Duration waitTimeout;
+    private final Duration pollInterval;
+    private final Cache<String, IdempotencyRecord> cache;
+    private final RequestCoalescer<String, IdempotencyRecord> coalescer;
+    private final Counter replayed;
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              @Value("${idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${idempotency.lease:PT15S}") Duration lease,
+                              @Value("${idempotency.wait-timeout:PT5S}") Duration waitTimeout,
+                              @Value("${idempotency.poll-interval:PT0.05S}") Duration pollInterval,
+                              @Value("${idempotency.cache.ttl:PT5M}") Duration cacheTtl,
+                              @Value("${idempotency.cache.maximum-size:10000}") long cacheMaximumSize,
+                              MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.ttl = ttl;
+        this.lease = lease;
+        this.waitTimeout = waitTimeout;
+        this.pollInterval = pollInterval;
+        this.cache = CaffeineCacheMetrics.monitor(meterRegistry,
+                Caffeine.newBuilder().maximumSize(cacheMaximumSize).expireAfterWrite(cacheTtl).recordStats().build(),
+                "idempotency");
+        this.coalescer = new RequestCoalescer<>("idempotency.flight", meterRegistry);
+        this.replayed = Counter.builder("idempotency.replayed")
+                .description("Reintentos respondidos con la respuesta guardada").register(meterRegistry);
+    }
+
+    /**
+     * Ejecuta {@code action} una sola vez por {@code operation} y {@code key}. Sin clave se ejecuta
+     * siempre, como antes.
+     *
+     * @param request la petición; se compara por su {@link IdempotentRequest#fingerprint} con la de la
+     *                primera ejecución
+     */
+    public Mono<Transaction> execute(String operation, String key, IdempotentRequest request,
+                                     Supplier<Mono<Transaction>> action) {
+        if (key == null || key.isBlank()) {
+            return Mono.defer(action);
+        }
+        String id = IdempotencyRecord.id(operation, key);
+        String fingerprint = request.fingerprint();
+        return Mono.defer(() -> Mono.justOrEmpty(cache.getIfPresent(id)).doOnNext(record -> replayed.increment()))
+                .switchIfEmpty(coalescer.execute(id, k -> claim(id, fingerprint, action)))
+                .flatMap(record -> record.getRequest().equals(fingerprint)
+                        ? Mono.just(record.getResponse().toTransaction())
+                        : Mono.error(new IdempotencyKeyReuseException(key)));
+    }
+
+    /**
+     * Ocupa la clave, o se queda una abandonada con la misma petición, y ejecuta; si la tiene otra
+     * ejecución viva, espera su respuesta.
+     */
+    private Mono<IdempotencyRecord> claim(String id, String fingerprint, Supplier<Mono<Transaction>> action) {
+        String owner = UUID.randomUUID().toString();
+        return Mono.defer(() -> {
+            Instant now = Instant.now();
+            return repository.insert(IdempotencyRecord.claim(id, fingerprint, owner, now, now.plus(lease)))
+                    .map(claimed -> true)
+                    .onErrorResume(DuplicateKeyException.class, ex -> repository.takeOver(id, fingerprint, owner, now, now.plus(lease))
+                            .doOnNext(taken -> {
+                                if (taken) {
+                                    log.warn("La clave {} estaba abandonada, se vuelve a ejecutar", id);
+                                }
+                            }))
+                    .flatMap(claimed -> claimed ? run(id, owner, fingerprint, now, action) : awaitOther(id, fingerprint, action));
+        });
+    }
+
+    private Mono<IdempotencyRecord> run(String id, String owner, String fingerprint, Instant createdAt,
+                                        Supplier<Mono<Transaction>> action) {
+        return Mono.defer(() -> {
+            Disposable heartbeat = renewWhileRunning(id, owner);
+            AtomicReference<Transaction> executed = new AtomicReference<>();
+            return Mono.defer(action)
+                    .doOnNext(executed::set)
+                    .onErrorResume(ex -> repository.release(id, owner).then(Mono.error(ex)))
+                    .flatMap(tx -> store(id, owner, fingerprint, createdAt, tx))
+                    // sin nadie esperando: si no llegó a ejecutarse se suelta la clave; si sí, se guarda igual
+                    .doOnCancel(() -> {
+                        Transaction tx = executed.get();
+                        (tx == null ? repository.release(id, owner).then() : store(id, owner, fingerprint, createdAt, tx).then())
+                                .subscribe(null, ex -> log.warn("No se pudo cerrar la clave cancelada {}: {}", id, ex.toString()));
+                    })
+                    .doFinally(signal -> heartbeat.dispose());
+        });
+    }
+
+    /**
+     * Guarda la respuesta con la caducidad definitiva. La operación ya está hecha: si no se puede
+     * guardar, se devuelve igual y los reintentos podrán volver a ejecutarla cuando venza el lease.
+     */
+    private Mono<IdempotencyRecord> store(String id, String owner, String fingerprint, Instant createdAt, Transaction tx) {
+        IdempotencyRecord completed = new IdempotencyRecord(id, fingerprint, TransactionSnapshot.of(tx), owner, createdAt,
+                null, createdAt.plus(ttl));
+        return repository.complete(id, owner, completed.getResponse(), completed.getExpiresAt())
+                .doOnNext(stored -> {
+                    if (!stored) {
+                        log.warn("No se guardó la respuesta de la clave {}: ya no estaba en curso a nombre de esta ejecución", id);
+                    }
+                })
+                .onErrorResume(ex -> {
+                    log.warn("No se pudo guardar la respuesta de la clave {}: {}", id, ex.toString());
+                    return Mono.just(false);
+                })
+                .thenReturn(completed)
+                .doOnNext(record -> cache.put(id, record));
+    }
+
+    private Disposable renewWhileRunning(String id, String owner) {
+        return Flux.interval(lease.dividedBy(3))
+                .concatMap(tick -> repository.renew(id, owner, Instant.now().plus(lease))
+                        .onErrorResume(ex -> {
+                            log.warn("No se pudo renovar el lease de la clave {}: {}", id, ex.toString());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    /**
+     * Espera a que otra ejecución complete la clave. Si desaparece es que falló y la soltó, y si su
+     * lease vence es que se abandonó: en los dos casos se vuelve a intentar ocuparla. Una clave con
+     * otra petición se devuelve al momento para rechazarla.
+     */
+    private Mono<IdempotencyRecord> awaitOther(String id, String fingerprint, Supplier<Mono<Transaction>> action) {
+        return Mono.defer(() -> repository.findById(id))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .filter(found -> found.map(record -> record.isCompleted() || !record.getRequest().equals(fingerprint)
+                                || record.isAbandoned(Instant.now()))
+                        .orElse(true))
+                .repeatWhenEmpty(repeats -> repeats.delayElements(pollInterval))
+                .timeout(waitTimeout, Mono.error(() -> new IdempotencyKeyInProgressException(id)))
+                .flatMap(found -> found.filter(record -> record.isCompleted() || !record.getRequest().equals(fingerprint))
+                        .map(record -> {
+                            if (record.isCompleted()) {
+                                replayed.increment();
+                                cache.put(id, record);
+                            }
+                            return Mono.just(record);
+                        })
+                        .orElseGet(() -> claim(id, fingerprint, action)));
+    }
+}
@@ -0,0 +1,144 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionBucket;
+import com.bootcamp.transactions.domain.TransactionStatus;
+import com.bootcamp.transactions.repository.TransactionBucketRepository;
+import com.bootcamp.transactions.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Con {@code ledger.storage=buckets}, pasa periódicamente las transacciones cerradas de
+ * {@code transactions} a buckets por cuenta y mes ({@link TransactionBucket}) y mueve al archivo los
+ * buckets de más de {@code ledger.buckets.archive-after-months} meses. Las escrituras siguen yendo a
+ * {@code transactions}; el compactado va por detrás, en orden {@code (date, id)}, y nunca pasa de la
+ * transferencia a medias más antigua, así que cada bucket solo recibe entradas más recientes que las
+ * que ya tiene. Cada paso se puede repetir tras una caída: la entrada ya añadida se reconoce con
+ * {@link TransactionBucket#covers} y la transacción se borra de {@code transactions} solo después.
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.storage", havingValue = "buckets")
+@Slf4j
+public class LedgerArchiver {
+
+    private static final List<TransactionStatus> FINAL = List.of(TransactionStatus.COMMITTED, TransactionStatus.CANCELLED);
+    private static final List<TransactionStatus> UNFINISHED = List.of(TransactionStatus.PENDING, TransactionStatus.APPLIED);
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionBucketRepository bucketRepository;
+    private final int maxEntries;
+    private final int archiveAfterMonths;
+    private final Duration hotWindow;
+    private final int batchSize;
+    private final Counter compacted;
+    private final Counter archived;
+    // el índice del archivo se crea una vez; si falla se reintenta en la siguiente pasada
+    private final Mono<String> archiveIndex;
+
+    public LedgerArchiver(TransactionRepository transactionRepository, TransactionBucketRepository bucketRepository,
+                          @Value("${ledger.buckets.max-entries:500}") int maxEntries,
+                          @Value("${ledger.buckets.archive-after-months:6}") int archiveAfterMonths,
+                          @Value("${ledger.buckets.hot-window:P1D}") Duration hotWindow,
+                          @Value("${ledger.buckets.batch-size:1000}") int batchSize,
+                          MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.bucketRepository = bucketRepository;
+        this.maxEntries = maxEntries;
+        this.archiveAfterMonths = archiveAfterMonths;
+        this.hotWindow = hotWindow;
+        this.batchSize = batchSize;
+        this.compacted = Counter.builder("ledger.buckets.compacted")
+                .description("Transacciones pasadas de transactions a buckets").register(meterRegistry);
+        this.archived = Counter.builder("ledger.buckets.archived")
+                .description("Buckets movidos al archivo").register(meterRegistry);
+        this.archiveIndex = bucketRepository.ensureArchiveIndex().cacheInvalidateIf(index -> false);
+    }
+
+    @Scheduled(initialDelayString = "${ledger.buckets.interval:PT1M}", fixedDelayString = "${ledger.buckets.interval:PT1M}")
+    public Mono<Void> run() {
+        return compact()
+                .then(archive())
+                .onErrorResume(ex -> {
+                    log.error("Falló el compactado del ledger, se reintenta en la siguiente pasada", ex);
+                    return Mono.empty();
+                });
+    }
+
+    /** Pasa a buckets, por lotes, las transacciones cerradas anteriores a la marca de agua. */
+    Mono<Void> compact() {
+        return watermark()
+                .flatMap(watermark -> compactBatch(watermark).expand(moved -> moved < batchSize
+                                ? Mono.empty() : compactBatch(watermark))
+                        .reduce(0L, Long::sum))
+                .doOnNext(moved -> {
+                    if (moved > 0) {
+                        log.info("{} transacciones pasadas a buckets", moved);
+                    }
+                })
+                .then();
+    }
+
+    /** Mueve a archivo los buckets de meses anteriores al corte. */
+    Mono<Void> archive() {
+        String cutoff = YearMonth.now(ZoneOffset.UTC).minusMonths(archiveAfterMonths).toString();
+        return archiveIndex
+                .thenMany(bucketRepository.findByMonthLessThan(cutoff))
+                .concatMap(bucket -> bucketRepository.archive(bucket).doOnSuccess(ignored -> archived.increment()))
+                .then();
+    }
+
+    /**
+     * Fecha hasta la que se compacta: la ventana caliente, o antes si hay una transferencia a medias
+     * más antigua, que aún puede pasar a un estado final con su fecha original.
+     */
+    private Mono<Instant> watermark() {
+        Instant window = Instant.now().minus(hotWindow);
+        return transactionRepository.findFirstByStatusInOrderByDateAsc(UNFINISHED)
+                .map(oldest -> oldest.getDate().isBefore(window) ? oldest.getDate() : window)
+                .defaultIfEmpty(window);
+    }
+
+    private Mono<Long> compactBatch(Instant watermark) {
+        return transactionRepository.findByStatusInAndDateBeforeOrderByDateAscIdAsc(FINAL, watermark, Limit.of(batchSize))
+                .concatMap(tx -> appendTo(tx.getSourceAccount(), tx)
+                        .then(tx.getDestAccount() == null ? Mono.empty() : appendTo(tx.getDestAccount(), tx))
+                        .thenReturn(tx.getId()))
+                .collectList()
+                .flatMap(ids -> transactionRepository.deleteAllById(ids)
+                        .doOnSuccess(ignored -> compacted.increment(ids.size()))
+                        .thenReturn((long) ids.size()));
+    }
+
+    /** Añade la transacción al último bucket de la cuenta si es del mismo mes y cabe; si no, abre otro. */
+    private Mono<Void> appendTo(String account, Transaction tx) {
+        String month = LedgerReader.month(tx.getDate());
+        return bucketRepository.findFirstByAccountOrderByMinDateDescIdDesc(account)
+                .flatMap(last -> {
+                    if (last.covers(tx)) {
+                        return Mono.just(true);
+                    }
+                    if (!last.getMonth().equals(month) || last.getCount() >= maxEntries) {
+                        return Mono.just(false);
+                    }
+                    // si otra pasada movió el final del bucket, se vuelve a leer
+                    return bucketRepository.append(last, tx)
+                            .flatMap(appended -> appended ? Mono.just(true) : appendTo(account, tx).thenReturn(true));
+                })
+                .defaultIfEmpty(false)
+                .flatMap(done -> done ? Mono.<Void>empty() : bucketRepository.open(account, month, tx).then());
+    }
+}
@@ -0,0 +1,107 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.domain.TransactionSnapshot;
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionStatus;
+import com.bootcamp.transactions.domain.TransactionBucket;
+import com.bootcamp.transactions.repository.TransactionBucketRepository;
+import com.bootcamp.transactions.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Lecturas del ledger a través de sus tres niveles: la colección {@code transactions}, los buckets
+ * calientes y los archivados ({@link LedgerArchiver}). Los niveles no se solapan en el tiempo (lo
+ * más reciente está en {@code transactions}, lo más antiguo en el archivo), así que una lectura
+ * del más reciente al más antiguo los concatena y solo baja a un nivel si el anterior no bastó.
+ * Mientras se mueve, una transacción puede estar a la vez en dos niveles (se copia antes de
+ * borrarse del anterior): se descarta la segunda aparición por id.
+ */
+@Component
+@RequiredArgsConstructor
+public class LedgerReader {
+
+    private static final Comparator<Transaction> BY_DATE_AND_ID =
+            Comparator.comparing(Transaction::getDate).thenComparing(Transaction::getId);
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionBucketRepository bucketRepository;
+
+    /** Como {@link TransactionRepository#findHistory}, incluyendo buckets y archivo. */
+    public Flux<Transaction> findHistory(String cuenta, Instant desde, Instant hasta, Transaction before, int limit) {
+        Instant upper = before == null ? hasta : before.getDate();
+        Predicate<Transaction> inPage = tx -> tx.getStatus() == TransactionStatus.COMMITTED
+                && (desde == null || !tx.getDate().isBefore(desde))
+                && (hasta == null || tx.getDate().isBefore(hasta))
+                && (before == null || BY_DATE_AND_ID.compare(tx, before) < 0);
+        return Flux.concat(
+                        transactionRepository.findHistory(cuenta, desde, hasta, before, limit),
+                        bucketed(TransactionBucket.HOT, cuenta, desde, upper).filter(inPage),
+                        bucketed(TransactionBucket.ARCHIVE, cuenta, desde, upper).filter(inPage))
+                .distinct(Transaction::getId)
+                .take(limit);
+    }
+
+    /** Como {@link TransactionRepository#findByAccountBetween}, incluyendo buckets y archivo. */
+    public Flux<Transaction> findByAccountBetween(String cuenta, Instant desde, Instant hasta) {
+        Predicate<Transaction> inRange = tx -> !tx.getDate().isBefore(desde) && tx.getDate().isBefore(hasta);
+        return Flux.concat(
+                        transactionRepository.findByAccountBetween(cuenta, desde, hasta),
+                        bucketed(TransactionBucket.HOT, cuenta, desde, hasta).filter(inRange),
+                        bucketed(TransactionBucket.ARCHIVE, cuenta, desde, hasta).filter(inRange))
+                .distinct(Transaction::getId);
+    }
+
+    /**
+     * Busca una transacción de la cuenta por id en los tres niveles. En los buckets no hay índice por
+     * transacción: se miran solo los meses en torno a la fecha que lleva el propio ObjectId, que se
+     * genera al escribir la transacción.
+     */
+    public Mono<Transaction> findById(String cuenta, String id) {
+        if (!ObjectId.isValid(id)) {
+            return Mono.empty();
+        }
+        Instant created = new ObjectId(id).getDate().toInstant();
+        String from = month(created.minusSeconds(86_400));
+        String to = month(created.plusSeconds(86_400));
+        return transactionRepository.findById(id)
+                .switchIfEmpty(Flux.concat(
+                                bucketRepository.findForAccount(TransactionBucket.HOT, cuenta, from, to),
+                                bucketRepository.findForAccount(TransactionBucket.ARCHIVE, cuenta, from, to))
+                        .flatMapIterable(TransactionBucket::getEntries)
+                        .filter(entry -> id.equals(entry.getId()))
+                        .next()
+                        .map(TransactionSnapshot::toTransaction));
+    }
+
+    /** Entradas de los buckets de la cuenta que pueden caer en {@code [desde, hasta]}, de la más reciente a la más antigua. */
+    private Flux<Transaction> bucketed(String collection, String cuenta, Instant desde, Instant hasta) {
+        return bucketRepository.findForAccount(collection, cuenta,
+                        desde == null ? null : month(desde), hasta == null ? null : month(hasta))
+                .concatMapIterable(LedgerReader::newestFirst);
+    }
+
+    /** Las entradas de un bucket se guardan en orden de llegada; la lectura va al revés. */
+    private static List<Transaction> newestFirst(TransactionBucket bucket) {
+        List<Transaction> entries = new ArrayList<>(bucket.getEntries().stream().map(TransactionSnapshot::toTransaction).toList());
+        Collections.reverse(entries);
+        return entries;
+    }
+
+    /** Los buckets se cortan por mes UTC, igual que los arma {@link LedgerArchiver}. */
+    static String month(Instant date) {
+        return YearMonth.from(date.atOffset(ZoneOffset.UTC)).toString();
+    }
+}
@@ -0,0 +1,103 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.repository.TransactionRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Escritura agrupada del ledger. Las {@link Transaction} se acumulan hasta juntar
+ * {@code ledger.batch-size} o hasta que pasa {@code ledger.linger} desde la primera, y el lote se
+ * guarda con un único {@code insertMany}. El {@link Mono} de cada llamada termina cuando MongoDB ha
+ * confirmado el lote, no antes, así que quien recibe el ok puede contar con que el registro existe.
+ * <p>
+ * El id se asigna antes de encolar. Si el lote falla, sus documentos se reintentan de uno en uno y un
+ * {@link DuplicateKeyException} sobre ese id significa que el documento ya llegó con el lote: solo
+ * fallan las llamadas cuyo documento de verdad no se pudo guardar.
+ */
+@Component
+@Slf4j
+public class LedgerWriter {
+
+    private final TransactionRepository transactionRepository;
+    private final DistributionSummary batchSizes;
+    private final Disposable pipeline;
+    private FluxSink<Pending> queue;
+
+    public LedgerWriter(TransactionRepository transactionRepository,
+                        @Value("${ledger.batch-size:64}") int batchSize,
+                        @Value("${ledger.linger:PT0.002S}") Duration linger,
+                        @Value("${ledger.max-in-flight:4}") int maxInFlight,
+                        MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.batchSizes = DistributionSummary.builder("ledger.batch.size")
+                .description("Transacciones guardadas por insertMany")
+                .register(meterRegistry);
+        this.pipeline = Flux.<Pending>create(sink -> queue = sink)
+                .bufferTimeout(batchSize, linger, true)
+                .flatMap(this::flush, maxInFlight)
+                .subscribe();
+    }
+
+    /**
+     * Encola la transacción para el próximo lote.
+     *
+     * @return la transacción con su id, una vez guardada
+     */
+    public Mono<Transaction> write(Transaction tx) {
+        return Mono.create(sink -> {
+            if (tx.getId() == null) {
+                tx.setId(new ObjectId().toHexString());
+            }
+            queue.next(new Pending(tx, sink));
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        queue.complete();
+        pipeline.dispose();
+    }
+
+    private Mono<Void> flush(List<Pending> batch) {
+        batchSizes.record(batch.size());
+        return transactionRepository.insert(batch.stream().map(Pending::tx).toList())
+                .then(Mono.fromRunnable(() -> batch.forEach(Pending::complete)))
+                .onErrorResume(ex -> {
+                    log.warn("Falló el insertMany de {} transacciones, reintentando una a una", batch.size(), ex);
+                    return Flux.fromIterable(batch).flatMap(this::insertOne).then();
+                })
+                .then();
+    }
+
+    private Mono<Void> insertOne(Pending pending) {
+        return transactionRepository.insert(pending.tx())
+                .onErrorResume(DuplicateKeyException.class, ex -> transactionRepository.existsById(pending.tx().getId())
+                        .flatMap(exists -> exists ? Mono.just(pending.tx()) : Mono.error(ex)))
+                .doOnNext(saved -> pending.complete())
+                .doOnError(pending.sink()::error)
+                .onErrorResume(ex -> Mono.empty())
+                .then();
+    }
+
+    private record Pending(Transaction tx, MonoSink<Transaction> sink) {
+
+        void complete() {
+            sink.success(tx);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.domain.Account;
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.ReconciliationBaseline;
+import com.bootcamp.transactions.domain.ReconciliationDiscrepancy;
+import com.bootcamp.transactions.domain.ReconciliationPartition;
+import com.bootcamp.transactions.domain.ReconciliationRun;
+import com.bootcamp.transactions.domain.TransactionBucket;
+import com.bootcamp.transactions.repository.AccountRange;
+import com.bootcamp.transactions.repository.AccountRepository;
+import com.bootcamp.transactions.repository.ReconciliationBaselineRepository;
+import com.bootcamp.transactions.repository.ReconciliationDiscrepancyRepository;
+import com.bootcamp.transactions.repository.ReconciliationPartitionRepository;
+import com.bootcamp.transactions.repository.ReconciliationRunRepository;
+import com.bootcamp.transactions.repository.TransactionBucketRepository;
+import com.bootcamp.transactions.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Conciliación nocturna del saldo de cada cuenta con su ledger.
+ * <ul>
+ *   <li>Las cuentas se recorren por tramos de {@code reconciliation.partition-size} ids sobre el índice
+ *   de {@code _id}, y se concilian hasta {@code reconciliation.concurrency} tramos a la vez.</li>
+ *   <li>Por tramo, MongoDB suma la variación neta de cada cuenta en {@code transactions} y en los
+ *   buckets caliente y de archivo; a la JVM solo llegan esos totales y las cuentas del tramo.</li>
+ *   <li>{@code saldo - ledger} debe coincidir con el saldo de apertura de la cuenta
+ *   ({@link ReconciliationBaseline}), que se toma la primera vez que se ve la cuenta.</li>
+ *   <li>Las cuentas con transferencias a medias no se comparan. Un descuadre se vuelve a comprobar tras
+ *   {@code reconciliation.recheck-delay} y solo se informa si sigue, para no confundirlo con un
+ *   movimiento que estaba entre el saldo y el ledger.</li>
+ *   <li>Los descuadres van a {@code reconciliation_discrepancies} con la pasada, y los totales a
+ *   {@code reconciliation_runs}.</li>
+ * </ul>
+ * Cada tramo se guarda antes de conciliarlo y se marca al acabar: si la pasada se corta, la siguiente
+ * ejecución rehace los tramos a medias y sigue tras el último creado. Pensado para una sola instancia,
+ * como {@link TransferRecoveryJob}. Publica {@code reconciliation.partitions} y
+ * {@code reconciliation.discrepancies}.
+ */
+@Component
+@Slf4j
+public class ReconciliationJob {
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionBucketRepository bucketRepository;
+    private final ReconciliationRunRepository runRepository;
+    private final ReconciliationPartitionRepository partitionRepository;
+    private final ReconciliationDiscrepancyRepository discrepancyRepository;
+    private final ReconciliationBaselineRepository baselineRepository;
+    private final int partitionSize;
+    private final int concurrency;
+    private final Duration recheckDelay;
+    private final Counter partitionsDone;
+    private final Counter discrepanciesFound;
+
+    public ReconciliationJob(AccountRepository accountRepository, TransactionRepository transactionRepository,
+                             TransactionBucketRepository bucketRepository, ReconciliationRunRepository runRepository,
+                             ReconciliationPartitionRepository partitionRepository,
+                             ReconciliationDiscrepancyRepository discrepancyRepository,
+                             ReconciliationBaselineRepository baselineRepository,
+                             @Value("${reconciliation.partition-size:1000}") int partitionSize,
+                             @Value("${reconciliation.concurrency:4}") int concurrency,
+                             @Value("${reconciliation.recheck-delay:PT5S}") Duration recheckDelay,
+                             MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.bucketRepository = bucketRepository;
+        this.runRepository = runRepository;
+        this.partitionRepository = partitionRepository;
+        this.discrepancyRepository = discrepancyRepository;
+        this.baselineRepository = baselineRepository;
+        this.partitionSize = partitionSize;
+        this.concurrency = concurrency;
+        this.recheckDelay = recheckDelay;
+        this.partitionsDone = Counter.builder("reconciliation.partitions")
+                .description("Tramos de cuentas conciliados").register(meterRegistry);
+        this.discrepanciesFound = Counter.builder("reconciliation.discrepancies")
+                .description("Cuentas cuyo saldo no cuadra con el ledger").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${reconciliation.cron:0 0 2 * * *}", zone = "${checkpoint.zone:UTC}")
+    public Mono<Void> run() {
+        return reconcile()
+                .onErrorResume(ex -> {
+                    log.error("Falló la conciliación, la siguiente ejecución la retoma", ex);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /** Retoma la última pasada sin terminar o empieza una nueva, y la lleva hasta el final. */
+    public Mono<ReconciliationRun> reconcile() {
+        return runRepository.findFirstByFinishedAtIsNullOrderByStartedAtDesc()
+                .doOnNext(run -> log.info("Retomando la conciliación {} del {}", run.getId(), run.getStartedAt()))
+                .switchIfEmpty(Mono.defer(() -> runRepository.insert(ReconciliationRun.start())))
+                .flatMap(run -> {
+                    Flux<ReconciliationPartition> unfinished = partitionRepository.findByRunIdAndFinishedAtIsNull(run.getId());
+                    Flux<ReconciliationPartition> remaining = partitionRepository.findFirstByRunIdOrderByLastAccountDesc(run.getId())
+                            .map(last -> Optional.of(last.getLastAccount()))
+                            .defaultIfEmpty(Optional.empty())
+                            .flatMapMany(after -> partitions(run.getId(), after.orElse(null)));
+                    return Flux.concat(unfinished, remaining)
+                            .flatMap(this::reconcile, concurrency)
+                            .then(finish(run));
+                });
+    }
+
+    /** Tramos desde {@code after}, creados de uno en uno según se van pidiendo. */
+    private Flux<ReconciliationPartition> partitions(String runId, String after) {
+        return nextPartition(runId, after).expand(previous -> nextPartition(runId, previous.getLastAccount()));
+    }
+
+    private Mono<ReconciliationPartition> nextPartition(String runId, String after) {
+        return accountRepository.findRangeEnd(after, partitionSize)
+                .flatMap(last -> partitionRepository.insert(ReconciliationPartition.open(runId, after, last)));
+    }
+
+    private Mono<ReconciliationPartition> reconcile(ReconciliationPartition partition) {
+        AccountRange range = new AccountRange(partition.getAfterAccount(), partition.getLastAccount());
+        return compare(partition.getRunId(), range)
+                .flatMap(first -> first.discrepancies().isEmpty() ? Mono.just(first)
+                        : Mono.delay(recheckDelay).then(compare(partition.getRunId(), range)).map(second -> second.confirming(first)))
+                .flatMap(result -> baselineRepository.saveAll(result.baselines())
+                        .thenMany(discrepancyRepository.saveAll(result.discrepancies()))
+                        .then(Mono.defer(() -> {
+                            partition.setFinishedAt(Instant.now());
+                            partition.setAccounts(result.accounts());
+                            partition.setInFlight(result.inFlight());
+                            partition.setDiscrepancies(result.discrepancies().size());
+                            return partitionRepository.save(partition);
+                        })))
+                .doOnNext(done -> {
+                    partitionsDone.increment();
+                    discrepanciesFound.increment(done.getDiscrepancies());
+                });
+    }
+
+    private Mono<Comparison> compare(String runId, AccountRange range) {
+        Mono<Map<String, Money>> nets = Mono.zip(transactionRepository.sumNetByAccount(range),
+                        bucketRepository.sumNetByAccount(TransactionBucket.HOT, range),
+                        bucketRepository.sumNetByAccount(TransactionBucket.ARCHIVE, range))
+                .map(parts -> {
+                    Map<String, Money> merged = new HashMap<>(parts.getT1());
+                    parts.getT2().forEach((account, net) -> merged.merge(account, net, Money::plus));
+                    parts.getT3().forEach((account, net) -> merged.merge(account, net, Money::plus));
+                    return merged;
+                });
+        return Mono.zip(nets, accountRepository.findInRange(range).collectList())
+                .flatMap(loaded -> baselineRepository.findAllById(loaded.getT2().stream().map(Account::getId).toList())
+                        .collectMap(ReconciliationBaseline::getId)
+                        .map(baselines -> compare(runId, loaded.getT2(), loaded.getT1(), baselines)));
+    }
+
+    private static Comparison compare(String runId, List<Account> accounts, Map<String, Money> nets,
+                                      Map<String, ReconciliationBaseline> baselines) {
+        Instant now = Instant.now();
+        int inFlight = 0;
+        List<ReconciliationBaseline> newBaselines = new ArrayList<>();
+        List<ReconciliationDiscrepancy> discrepancies = new ArrayList<>();
+        for (Account account : accounts) {
+            if (account.getPendingTransactions() != null && !account.getPendingTransactions().isEmpty()) {
+                inFlight++;
+                continue;
+            }
+            Money net = nets.getOrDefault(account.getId(), Money.ZERO);
+            Money opening = account.getBalance().minus(net);
+            ReconciliationBaseline baseline = baselines.get(account.getId());
+            if (baseline == null) {
+                newBaselines.add(new ReconciliationBaseline(account.getId(), opening, now));
+            } else if (!baseline.getOpening().equals(opening)) {
+                discrepancies.add(new ReconciliationDiscrepancy(runId + "|" + account.getId(), runId, account.getId(),
+                        account.getBalance(), net, baseline.getOpening(), opening.minus(baseline.getOpening()), now));
+            }
+        }
+        return new Comparison(accounts.size(), inFlight, newBaselines, discrepancies);
+    }
+
+    private Mono<ReconciliationRun> finish(ReconciliationRun run) {
+        run.setPartitions(0);
+        run.setAccounts(0);
+        run.setInFlight(0);
+        run.setDiscrepancies(0);
+        return partitionRepository.findByRunId(run.getId())
+                .doOnNext(partition -> {
+                    run.setPartitions(run.getPartitions() + 1);
+                    run.setAccounts(run.getAccounts() + partition.getAccounts());
+                    run.setInFlight(run.getInFlight() + partition.getInFlight());
+                    run.setDiscrepancies(run.getDiscrepancies() + partition.getDiscrepancies());
+                })
+                .then(Mono.defer(() -> {
+                    run.setFinishedAt(Instant.now());
+                    log.info("Conciliación {} terminada: {} cuentas en {} tramos, {} con transferencias a medias, {} descuadres",
+                            run.getId(), run.getAccounts(), run.getPartitions(), run.getInFlight(), run.getDiscrepancies());
+                    return runRepository.save(run);
+                }));
+    }
+
+    /** Resultado de comparar un tramo: saldos de apertura nuevos y descuadres. */
+    private record Comparison(int accounts, int inFlight, List<ReconciliationBaseline> baselines,
+                              List<ReconciliationDiscrepancy> discrepancies) {
+
+        /** Se queda con los descuadres que ya estaban en la comparación anterior. */
+        Comparison confirming(Comparison previous) {
+            Set<String> before = previous.discrepancies().stream().map(ReconciliationDiscrepancy::getAccount)
+                    .collect(Collectors.toSet());
+            return new Comparison(accounts, inFlight, baselines,
+                    discrepancies.stream().filter(discrepancy -> before.contains(discrepancy.getAccount())).toList());
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.domain.Account;
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionStatus;
+import com.bootcamp.transactions.domain.TransactionType;
+import com.bootcamp.transactions.dto.DepositRequest;
+import com.bootcamp.transactions.dto.WithdrawalRequest;
+import com.bootcamp.transactions.exception.AccountBusyException;
+import com.bootcamp.transactions.exception.AccountNotFoundException;
+import com.bootcamp.transactions.exception.InsufficientFundsException;
+import com.bootcamp.transactions.exception.InvalidCursorException;
+import com.bootcamp.transactions.exception.TransactionCancelledException;
+import com.bootcamp.transactions.repository.AccountRepository;
+import com.bootcamp.transactions.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * Depósitos y retiros. Cada movimiento de saldo es un único {@code findAndModify} con {@code $inc},
+ * así que las operaciones concurrentes sobre la misma cuenta no se pisan y no hace falta ningún lock.
+ * Los movimientos pasan por el {@link AccountSequencer}, así que los de una misma cuenta se aplican en
+ * orden en vez de competir por el documento.
+ * <p>
+ * Para que una caída no deje saldo movido sin su registro, la {@link Transaction} se guarda primero en
+ * {@code PENDING} con el {@link LedgerWriter} (en lote con las de otras peticiones), y el {@code $inc}
+ * deja la marca de la transacción en la cuenta. Con una sola cuenta la marca ya prueba que el saldo se
+ * movió, así que no hace falta el paso por {@code APPLIED} de las transferencias: se pasa a
+ * {@code COMMITTED} y después se quita la marca. {@link TransferRecoveryJob} retoma las que quedan a
+ * medias con {@link #recover}; si la caída llega entre los dos últimos pasos solo queda una marca de más
+ * en la cuenta, que no cambia el saldo.
+ * Cada movimiento confirmado se suma a los checkpoints diarios ({@link BalanceCheckpointService}).
+ * Los retiros pasan antes por los límites por hora y por día de la cuenta ({@link VelocityLimiter}).
+ * El historial se lee por páginas con cursor sobre los índices de cuenta y fecha, a través de
+ * {@link LedgerReader} para incluir lo que ya se pasó a buckets o al archivo.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionService {
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final LedgerReader ledgerReader;
+    private final AccountSequencer accountSequencer;
+    private final LedgerWriter ledgerWriter;
+    private final BalanceCheckpointService checkpointService;
+    private final VelocityLimiter velocityLimiter;
+
+    public Mono<Transaction> deposit(DepositRequest request) {
+        log.info("Depósito de {} en la cuenta {}", request.monto(), request.cuenta());
+        return ledgerWriter.write(pending(TransactionType.DEPOSITO, request.monto(), request.cuenta()))
+                .flatMap(tx -> move(tx, () -> accountRepository.creditPending(tx.getSourceAccount(), tx.getAmount(), tx.getId()))
+                        .switchIfEmpty(Mono.defer(() -> cancel(tx)
+                                .then(Mono.error(new AccountNotFoundException(tx.getSourceAccount())))))
+                        .then(commit(tx)));
+    }
+
+    public Mono<Transaction> withdraw(WithdrawalRequest request) {
+        log.info("Retiro de {} en la cuenta {}", request.monto(), request.cuenta());
+        return Mono.fromSupplier(() -> velocityLimiter.reserve(TransactionType.RETIRO, request.cuenta(), request.monto()))
+                .flatMap(reservation -> ledgerWriter.write(pending(TransactionType.RETIRO, request.monto(), request.cuenta()))
+                        .flatMap(tx -> move(tx, () -> accountRepository.debitPending(tx.getSourceAccount(), tx.getAmount(), tx.getId()))
+                                .switchIfEmpty(Mono.defer(() -> cancel(tx).then(rejectDebit(tx.getSourceAccount()))))
+                                .then(commit(tx)))
+                        .doOnError(ex -> velocityLimiter.release(reservation)));
+    }
+
+    /**
+     * Retoma un depósito o retiro a medias: lo termina si el movimiento llegó a aplicarse (la cuenta
+     * tiene su marca) y lo cancela si no. Las que quedaron en {@code APPLIED} antes de que se quitara
+     * ese paso se cierran.
+     */
+    public Mono<Transaction> recover(Transaction tx) {
+        Mono<Transaction> recovered = tx.getStatus() == TransactionStatus.APPLIED ? closeApplied(tx)
+                : accountRepository.hasPending(tx.getSourceAccount(), tx.getId())
+                        .flatMap(moved -> moved ? commit(tx) : cancel(tx).thenReturn(tx));
+        // como en las transferencias, la petición original ya devolvió su reserva al fallar
+        return recovered.doOnNext(done -> {
+            if (done.getStatus() == TransactionStatus.COMMITTED) {
+                velocityLimiter.record(done);
+            }
+        });
+    }
+
+    /**
+     * Una página del historial de la cuenta, de la transacción más reciente a la más antigua, con solo
+     * las confirmadas. Para la página siguiente se pasa como {@code before} el id de la última
+     * transacción recibida.
+     *
+     * @param limit tamaño de página, o null para el de por defecto; se acota a [1, {@value #MAX_PAGE_SIZE}]
+     * @throws InvalidCursorException si {@code before} no es el id de una transacción
+     */
+    public Flux<Transaction> history(String cuenta, String before, Instant desde, Instant hasta, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        log.info("Historial de la cuenta {} antes de {} entre {} y {}, límite {}", cuenta, before, desde, hasta, pageSize);
+        if (before == null) {
+            return ledgerReader.findHistory(cuenta, desde, hasta, null, pageSize);
+        }
+        return ledgerReader.findById(cuenta, before).switchIfEmpty(Mono.error(() -> new InvalidCursorException(before)))
+                .flatMapMany(last -> ledgerReader.findHistory(cuenta, desde, hasta, last, pageSize));
+    }
+
+    /** El débito condicional no distingue cuenta inexistente de saldo insuficiente: solo en ese caso se consulta. */
+    private Mono<Account> rejectDebit(String cuenta) {
+        return accountRepository.existsById(cuenta).flatMap(exists -> Mono.error(exists
+                ? new InsufficientFundsException(cuenta) : new AccountNotFoundException(cuenta)));
+    }
+
+    private static Transaction pending(TransactionType type, Money amount, String cuenta) {
+        return Transaction.builder()
+                .type(type).status(TransactionStatus.PENDING).amount(amount).date(Instant.now()).sourceAccount(cuenta).build();
+    }
+
+    /**
+     * Movimiento de saldo en el carril de la cuenta. Vacío si la cuenta no existe o, en un retiro, no
+     * tiene saldo. Si el barrido canceló la transacción mientras esperaba, {@link #commit} lo ve al no
+     * poder cerrarla y deshace el movimiento: es raro, y comprobarlo antes costaría una lectura más en
+     * cada operación.
+     */
+    private Mono<Account> move(Transaction tx, Supplier<Mono<Account>> movement) {
+        return accountSequencer.submit(tx.getSourceAccount(), movement)
+                .onErrorResume(AccountBusyException.class, ex -> cancel(tx).then(Mono.error(ex)));
+    }
+
+    /** {@code PENDING} a {@code COMMITTED} y fuera la marca; solo quien gana el paso lo lleva a los checkpoints. */
+    private Mono<Transaction> commit(Transaction tx) {
+        return transactionRepository.updateStatus(tx.getId(), TransactionStatus.PENDING, TransactionStatus.COMMITTED)
+                .flatMap(committed -> committed ? close(tx) : settled(tx));
+    }
+
+    private Mono<Transaction> closeApplied(Transaction tx) {
+        return transactionRepository.updateStatus(tx.getId(), TransactionStatus.APPLIED, TransactionStatus.COMMITTED)
+                .flatMap(committed -> committed ? close(tx) : transactionRepository.findById(tx.getId()));
+    }
+
+    private Mono<Transaction> close(Transaction tx) {
+        return accountRepository.clearPending(tx.getId(), tx.getSourceAccount())
+                .then(checkpointService.record(tx))
+                .then(Mono.fromSupplier(() -> {
+                    tx.setStatus(TransactionStatus.COMMITTED);
+                    return tx;
+                }));
+    }
+
+    /**
+     * La transacción salió de {@code PENDING} por otro camino, como en {@link TransferService}: si el
+     * barrido la terminó se cierra o se devuelve como quedó, y si la canceló se deshace el movimiento.
+     */
+    private Mono<Transaction> settled(Transaction tx) {
+        return transactionRepository.findById(tx.getId()).flatMap(persisted -> {
+            if (persisted.getStatus() == TransactionStatus.APPLIED) {
+                return closeApplied(persisted);
+            }
+            if (persisted.getStatus() != TransactionStatus.CANCELLED) {
+                return Mono.just(persisted);
+            }
+            log.warn("Transacción {} cancelada por el barrido con el movimiento en curso, revirtiendo", tx.getId());
+            tx.setStatus(TransactionStatus.CANCELLED);
+            Mono<Account> undo = tx.getType() == TransactionType.DEPOSITO
+                    ? accountRepository.revertCreditPending(tx.getSourceAccount(), tx.getAmount(), tx.getId())
+                    : accountRepository.refundPending(tx.getSourceAccount(), tx.getAmount(), tx.getId());
+            return undo.then(Mono.error(new TransactionCancelledException(tx.getId())));
+        });
+    }
+
+    private Mono<Boolean> cancel(Transaction tx) {
+        return transactionRepository.updateStatus(tx.getId(), TransactionStatus.PENDING, TransactionStatus.CANCELLED)
+                .doOnNext(cancelled -> tx.setStatus(TransactionStatus.CANCELLED));
+    }
+}
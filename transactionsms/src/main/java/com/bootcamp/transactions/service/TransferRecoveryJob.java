@@ -0,0 +1,58 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.domain.TransactionStatus;
+import com.bootcamp.transactions.domain.TransactionType;
+import com.bootcamp.transactions.exception.BusinessException;
+import com.bootcamp.transactions.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Barrido periódico de transferencias que quedaron en {@code PENDING} o {@code APPLIED}, por ejemplo
+ * tras una caída del servicio. Solo toma las más antiguas que {@code transfer.recovery.stale-after},
+ * que debe superar con margen la duración de una transferencia en curso para no competir con ella.
+ * Depósitos y retiros siguen los mismos pasos y se retoman igual, con {@link TransactionService#recover}.
+ */
+@Component
+@Slf4j
+public class TransferRecoveryJob {
+
+    private static final List<TransactionStatus> UNFINISHED = List.of(TransactionStatus.PENDING, TransactionStatus.APPLIED);
+
+    private final TransferService transferService;
+    private final TransactionService transactionService;
+    private final TransactionRepository transactionRepository;
+    private final Duration staleAfter;
+
+    public TransferRecoveryJob(TransferService transferService, TransactionService transactionService,
+                               TransactionRepository transactionRepository,
+                               @Value("${transfer.recovery.stale-after:PT1M}") Duration staleAfter) {
+        this.transferService = transferService;
+        this.transactionService = transactionService;
+        this.transactionRepository = transactionRepository;
+        this.staleAfter = staleAfter;
+    }
+
+    @Scheduled(initialDelayString = "${transfer.recovery.interval:PT30S}", fixedDelayString = "${transfer.recovery.interval:PT30S}")
+    public Mono<Void> recover() {
+        return transactionRepository.findByStatusInAndDateBefore(UNFINISHED, Instant.now().minus(staleAfter))
+                .concatMap(tx -> (tx.getType() == TransactionType.TRANSFERENCIA ? transferService.recover(tx) : transactionService.recover(tx))
+                        .doOnNext(recovered -> log.info("Transacción {} recuperada: {}", recovered.getId(), recovered.getStatus()))
+                        .onErrorResume(BusinessException.class, ex -> {
+                            log.info("Transacción {} compensada: {}", tx.getId(), ex.getMessage());
+                            return Mono.empty();
+                        })
+                        .onErrorResume(ex -> {
+                            log.error("No se pudo recuperar la transacción {}", tx.getId(), ex);
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+}
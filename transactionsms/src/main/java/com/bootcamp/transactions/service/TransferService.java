@@ -0,0 +1,190 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.domain.Account;
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionStatus;
+import com.bootcamp.transactions.domain.TransactionType;
+import com.bootcamp.transactions.dto.TransferRequest;
+import com.bootcamp.transactions.exception.AccountBusyException;
+import com.bootcamp.transactions.exception.AccountNotFoundException;
+import com.bootcamp.transactions.exception.BusinessException;
+import com.bootcamp.transactions.exception.ClientNotFoundException;
+import com.bootcamp.transactions.exception.InsufficientFundsException;
+import com.bootcamp.transactions.exception.TransactionCancelledException;
+import com.bootcamp.transactions.repository.AccountRepository;
+import com.bootcamp.transactions.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Transferencias sin transacciones multi-documento de MongoDB. Cada paso es una operación atómica
+ * sobre un solo documento y el avance queda registrado para poder retomarlo:
+ * <ol>
+ *   <li>se inserta la {@link Transaction} en {@code PENDING};</li>
+ *   <li>débito condicional del origen, que deja la marca de la transferencia en la cuenta;</li>
+ *   <li>abono del destino con su marca, o devolución al origen si el destino no existe;</li>
+ *   <li>{@code APPLIED}, se quitan las marcas y {@code COMMITTED}.</li>
+ * </ol>
+ * Si el proceso cae a mitad, {@link TransferRecoveryJob} retoma la transferencia con {@link #recover}.
+ * Como el barrido puede adelantarse a un flujo que sigue vivo (un débito que espera en el carril),
+ * débito y abono solo se hacen si la transferencia sigue en {@code PENDING}, y si aun así se pierde
+ * el paso a {@code APPLIED} contra una cancelación, el flujo deshace lo que movió y falla con
+ * {@link TransactionCancelledException}. Lo que se devuelve es siempre el estado guardado.
+ * El débito se encola en el carril de la cuenta origen del {@link AccountSequencer} y el abono en el
+ * de la cuenta destino, así que los movimientos de una cuenta nunca compiten entre sí, sea cual sea
+ * su papel en la transferencia. La transacción {@code PENDING} se guarda con el
+ * {@link LedgerWriter} y el débito no empieza hasta que está confirmada. Antes de nada se comprueba en
+ * client-ms ({@link ClientMsClient}) que el titular de la cuenta destino existe, si la cuenta lo tiene,
+ * y se reserva el importe en los límites de velocidad de la cuenta origen ({@link VelocityLimiter}).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransferService {
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountSequencer accountSequencer;
+    private final LedgerWriter ledgerWriter;
+    private final BalanceCheckpointService checkpointService;
+    private final ClientMsClient clientMsClient;
+    private final VelocityLimiter velocityLimiter;
+
+    public Mono<Transaction> transfer(TransferRequest request) {
+        if (request.cuentaOrigen().equals(request.cuentaDestino())) {
+            return Mono.error(new BusinessException("La cuenta origen y la cuenta destino deben ser distintas"));
+        }
+        log.info("Transferencia de {} de {} a {}", request.monto(), request.cuentaOrigen(), request.cuentaDestino());
+        Transaction pending = Transaction.builder()
+                .type(TransactionType.TRANSFERENCIA).status(TransactionStatus.PENDING).amount(request.monto())
+                .date(Instant.now()).sourceAccount(request.cuentaOrigen()).destAccount(request.cuentaDestino()).build();
+        return Mono.fromSupplier(() -> velocityLimiter.reserve(TransactionType.TRANSFERENCIA, request.cuentaOrigen(), request.monto()))
+                .flatMap(reservation -> verifyHolder(request.cuentaDestino())
+                        .then(ledgerWriter.write(pending))
+                        .flatMap(tx -> accountSequencer.submit(tx.getSourceAccount(), () -> debit(tx))
+                                .onErrorResume(AccountBusyException.class, ex -> cancel(tx).then(Mono.error(ex)))
+                                .switchIfEmpty(Mono.defer(() -> rejectDebit(tx)))
+                                .then(credit(tx)))
+                        .doOnError(ex -> velocityLimiter.release(reservation)));
+    }
+
+    /**
+     * Retoma una transferencia a medias: la termina si el débito llegó a aplicarse (o la compensa si el
+     * destino ya no existe) y la cancela si no.
+     */
+    public Mono<Transaction> recover(Transaction tx) {
+        Mono<Transaction> recovered = tx.getStatus() == TransactionStatus.APPLIED ? commit(tx)
+                : accountRepository.hasPending(tx.getSourceAccount(), tx.getId())
+                        .flatMap(debited -> debited ? credit(tx) : cancel(tx).thenReturn(tx));
+        // la petición original ya devolvió su reserva al fallar: lo que se confirma aquí cuenta ahora
+        return recovered.doOnNext(done -> {
+            if (done.getStatus() == TransactionStatus.COMMITTED) {
+                velocityLimiter.record(done);
+            }
+        });
+    }
+
+    /**
+     * Falla con {@link ClientNotFoundException} si la cuenta tiene titular y client-ms no lo conoce. Una
+     * cuenta que no existe se deja pasar: la transferencia la rechaza después como siempre.
+     */
+    private Mono<Void> verifyHolder(String cuenta) {
+        return accountRepository.findById(cuenta)
+                .filter(account -> account.getClientId() != null)
+                .flatMap(account -> clientMsClient.findClient(account.getClientId())
+                        .switchIfEmpty(Mono.error(() -> new ClientNotFoundException(account.getClientId(), cuenta))))
+                .then();
+    }
+
+    /** Débito del origen, si el barrido no canceló la transferencia mientras esperaba en el carril. */
+    private Mono<Account> debit(Transaction tx) {
+        return transactionRepository.existsByIdAndStatus(tx.getId(), TransactionStatus.PENDING)
+                .flatMap(pending -> pending
+                        ? accountRepository.debitPending(tx.getSourceAccount(), tx.getAmount(), tx.getId())
+                        : Mono.error(new TransactionCancelledException(tx.getId())));
+    }
+
+    /**
+     * Abona el destino. Si no hubo abono, o ya estaba hecho (reintento) o el destino no existe. Si la
+     * transferencia ya no está en {@code PENDING}, otro flujo se adelantó y no se abona nada.
+     */
+    private Mono<Transaction> credit(Transaction tx) {
+        return transactionRepository.existsByIdAndStatus(tx.getId(), TransactionStatus.PENDING)
+                .flatMap(pending -> !pending ? settled(tx, false)
+                        : accountSequencer.submit(tx.getDestAccount(),
+                                        () -> accountRepository.creditPending(tx.getDestAccount(), tx.getAmount(), tx.getId()))
+                                .onErrorResume(AccountBusyException.class, ex -> refund(tx).then(Mono.error(ex)))
+                                .flatMap(account -> apply(tx, true))
+                                .switchIfEmpty(Mono.defer(() -> accountRepository.existsById(tx.getDestAccount())
+                                        .flatMap(exists -> exists ? apply(tx, false) : compensate(tx)))));
+    }
+
+    /** @param credited si el abono lo hizo este flujo, para poder deshacerlo */
+    private Mono<Transaction> apply(Transaction tx, boolean credited) {
+        return transactionRepository.updateStatus(tx.getId(), TransactionStatus.PENDING, TransactionStatus.APPLIED)
+                .flatMap(applied -> applied ? commit(tx) : settled(tx, credited));
+    }
+
+    private Mono<Transaction> commit(Transaction tx) {
+        return accountRepository.clearPending(tx.getId(), tx.getSourceAccount(), tx.getDestAccount())
+                .then(transactionRepository.updateStatus(tx.getId(), TransactionStatus.APPLIED, TransactionStatus.COMMITTED))
+                // solo quien gana el paso a COMMITTED lo lleva a los checkpoints, así no se cuenta dos veces;
+                // quien lo pierde devuelve la transacción tal como la dejó el otro
+                .flatMap(committed -> committed
+                        ? checkpointService.record(tx).then(Mono.fromSupplier(() -> {
+                            tx.setStatus(TransactionStatus.COMMITTED);
+                            return tx;
+                        }))
+                        : transactionRepository.findById(tx.getId()));
+    }
+
+    /**
+     * La transferencia salió de {@code PENDING} por otro camino mientras este flujo avanzaba. Si el
+     * barrido la terminó, se cierra o se devuelve tal como quedó; si la canceló porque no vio el débito
+     * (llegó tarde), se devuelven el débito y el abono que hizo este flujo y se falla.
+     */
+    private Mono<Transaction> settled(Transaction tx, boolean credited) {
+        return transactionRepository.findById(tx.getId()).flatMap(persisted -> {
+            if (persisted.getStatus() == TransactionStatus.APPLIED) {
+                return commit(persisted);
+            }
+            if (persisted.getStatus() != TransactionStatus.CANCELLED) {
+                return Mono.just(persisted);
+            }
+            log.warn("Transferencia {} cancelada por el barrido con el débito en curso, revirtiendo", tx.getId());
+            Mono<Account> revertCredit = credited
+                    ? accountRepository.revertCreditPending(tx.getDestAccount(), tx.getAmount(), tx.getId())
+                    : Mono.empty();
+            tx.setStatus(TransactionStatus.CANCELLED);
+            return accountRepository.refundPending(tx.getSourceAccount(), tx.getAmount(), tx.getId())
+                    .then(revertCredit)
+                    .then(Mono.error(new TransactionCancelledException(tx.getId())));
+        });
+    }
+
+    /** Devuelve el débito al origen y cancela la transferencia. */
+    private Mono<Transaction> compensate(Transaction tx) {
+        log.warn("Cuenta destino {} inexistente, compensando la transferencia {}", tx.getDestAccount(), tx.getId());
+        return refund(tx).then(Mono.error(new AccountNotFoundException(tx.getDestAccount())));
+    }
+
+    private Mono<Boolean> refund(Transaction tx) {
+        return accountRepository.refundPending(tx.getSourceAccount(), tx.getAmount(), tx.getId()).then(cancel(tx));
+    }
+
+    private Mono<Account> rejectDebit(Transaction tx) {
+        return cancel(tx).then(accountRepository.existsById(tx.getSourceAccount()))
+                .flatMap(exists -> Mono.error(exists
+                        ? new InsufficientFundsException(tx.getSourceAccount())
+                        : new AccountNotFoundException(tx.getSourceAccount())));
+    }
+
+    private Mono<Boolean> cancel(Transaction tx) {
+        return transactionRepository.updateStatus(tx.getId(), TransactionStatus.PENDING, TransactionStatus.CANCELLED)
+                .doOnNext(cancelled -> tx.setStatus(TransactionStatus.CANCELLED));
+    }
+}
@@ -0,0 +1,235 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionType;
+import com.bootcamp.transactions.exception.VelocityLimitExceededException;
+import com.bootcamp.transactions.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Límites por hora y por día del importe que sale de cada cuenta en retiros y en transferencias,
+ * comprobados en memoria sin ninguna consulta.
+ * <p>
+ * Cada cuenta tiene dos anillos de {@code long} (céntimos), uno por tipo, con una casilla por cada
+ * {@code velocity.slot} de las últimas 24 horas. La ventana de una hora suma las casillas de la última
+ * hora más la actual, y la de un día igual con 24 horas, así que cuentan de más como mucho una casilla:
+ * nunca dejan pasar más del límite en ninguna hora o día reales.
+ * <ul>
+ *   <li>{@link #reserve} comprueba y suma el importe en el mismo paso, de modo que dos operaciones
+ *   simultáneas de la misma cuenta no pasan las dos con el hueco de una. Si la operación no llega a
+ *   hacerse se devuelve con {@link #release}.</li>
+ *   <li>Lo que se confirma sin reserva (transferencias retomadas por {@link TransferRecoveryJob}) se suma
+ *   con {@link #record}.</li>
+ *   <li>Al arrancar se reconstruye leyendo en streaming las transacciones confirmadas de las últimas 24
+ *   horas de {@code transactions}, que con {@code ledger.storage=buckets} conserva al menos
+ *   {@code ledger.buckets.hot-window}. Mientras tanto los límites se aplican con lo que haya.</li>
+ * </ul>
+ * Un límite a cero no se aplica. Cada instancia lleva sus propias cuentas: con varias, el límite vale
+ * por instancia. Publica {@code velocity.accounts} y {@code velocity.rejected} con las etiquetas
+ * {@code type} y {@code window}.
+ */
+@Component
+@Slf4j
+public class VelocityLimiter {
+
+    private static final Duration HOUR = Duration.ofHours(1);
+    private static final Duration DAY = Duration.ofDays(1);
+    private static final List<TransactionType> LIMITED = List.of(TransactionType.RETIRO, TransactionType.TRANSFERENCIA);
+
+    private final TransactionRepository transactionRepository;
+    private final long slotMillis;
+    private final int hourSlots;
+    private final int daySlots;
+    private final Limits withdrawals;
+    private final Limits transfers;
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public VelocityLimiter(TransactionRepository transactionRepository,
+                           @Value("${velocity.slot:PT10M}") Duration slot,
+                           @Value("${velocity.withdrawal.hourly-limit:1000.00}") String withdrawalHourly,
+                           @Value("${velocity.withdrawal.daily-limit:3000.00}") String withdrawalDaily,
+                           @Value("${velocity.transfer.hourly-limit:5000.00}") String transferHourly,
+                           @Value("${velocity.transfer.daily-limit:15000.00}") String transferDaily,
+                           MeterRegistry meterRegistry) {
+        if (slot.isZero() || slot.isNegative() || HOUR.toMillis() % slot.toMillis() != 0) {
+            throw new IllegalArgumentException("velocity.slot debe dividir una hora exacta: " + slot);
+        }
+        this.transactionRepository = transactionRepository;
+        this.slotMillis = slot.toMillis();
+        this.hourSlots = (int) (HOUR.toMillis() / slotMillis);
+        this.daySlots = (int) (DAY.toMillis() / slotMillis);
+        this.withdrawals = new Limits(Money.parse(withdrawalHourly), Money.parse(withdrawalDaily));
+        this.transfers = new Limits(Money.parse(transferHourly), Money.parse(transferDaily));
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("velocity.accounts", windows, ConcurrentMap::size)
+                .description("Cuentas con movimientos en las últimas 24 horas").register(meterRegistry);
+    }
+
+    /**
+     * Suma {@code amount} a lo que ha salido de la cuenta si cabe en sus límites.
+     *
+     * @throws VelocityLimitExceededException si supera el límite por hora o por día del tipo
+     */
+    public Reservation reserve(TransactionType type, String cuenta, Money amount) {
+        Limits limits = limitsFor(type);
+        long slot = slotOf(Instant.now());
+        windows.compute(cuenta, (key, window) -> {
+            Window current = window == null ? new Window(daySlots + 1) : window;
+            current.advance(slot);
+            long[] ring = current.ring(type);
+            check(type, cuenta, "hourly", limits.hourly(), current.sum(ring, slot, hourSlots + 1), amount);
+            check(type, cuenta, "daily", limits.daily(), current.sum(ring, slot, daySlots + 1), amount);
+            current.add(ring, slot, amount.minorUnits());
+            return current;
+        });
+        return new Reservation(type, cuenta, amount, slot);
+    }
+
+    /** Devuelve una reserva de una operación que no llegó a hacerse. */
+    public void release(Reservation reservation) {
+        add(reservation.type(), reservation.cuenta(), reservation.slot(), -reservation.amount().minorUnits());
+    }
+
+    /** Suma una transacción confirmada que no pasó por {@link #reserve}. */
+    public void record(Transaction tx) {
+        if (LIMITED.contains(tx.getType())) {
+            add(tx.getType(), tx.getSourceAccount(), slotOf(tx.getDate()), tx.getAmount().minorUnits());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild(Instant.now()).subscribe(null,
+                ex -> log.error("No se pudieron reconstruir los límites de velocidad", ex));
+    }
+
+    /**
+     * Suma las transacciones confirmadas de las 24 horas anteriores a {@code until}. Lo posterior ya
+     * entra por {@link #reserve} y {@link #record}, así que no se cuenta dos veces.
+     */
+    Mono<Void> rebuild(Instant until) {
+        return transactionRepository.findCommittedBetween(LIMITED, until.minus(DAY), until)
+                .doOnNext(this::record)
+                .count()
+                .doOnNext(count -> log.info("Límites de velocidad reconstruidos con {} transacciones en {} cuentas",
+                        count, windows.size()))
+                .then();
+    }
+
+    /** Olvida las cuentas sin movimientos en las últimas 24 horas. */
+    @Scheduled(fixedDelayString = "${velocity.slot:PT10M}", initialDelayString = "${velocity.slot:PT10M}")
+    public void evictIdle() {
+        long slot = slotOf(Instant.now());
+        windows.keySet().forEach(cuenta -> windows.computeIfPresent(cuenta,
+                (key, window) -> window.newest <= slot - window.size() ? null : window));
+    }
+
+    int trackedAccounts() {
+        return windows.size();
+    }
+
+    private void add(TransactionType type, String cuenta, long slot, long minorUnits) {
+        windows.compute(cuenta, (key, window) -> {
+            Window current = window == null ? new Window(daySlots + 1) : window;
+            current.add(current.ring(type), slot, minorUnits);
+            return current;
+        });
+    }
+
+    private void check(TransactionType type, String cuenta, String name, Money limit, long used, Money amount) {
+        if (limit.isPositive() && used + amount.minorUnits() > limit.minorUnits()) {
+            Counter.builder("velocity.rejected").tag("type", type.name()).tag("window", name)
+                    .description("Operaciones rechazadas por superar un límite de velocidad")
+                    .register(meterRegistry).increment();
+            throw new VelocityLimitExceededException(cuenta, type, name.equals("hourly") ? "por hora" : "diario", limit);
+        }
+    }
+
+    private Limits limitsFor(TransactionType type) {
+        return switch (type) {
+            case RETIRO -> withdrawals;
+            case TRANSFERENCIA -> transfers;
+            default -> throw new IllegalArgumentException("Sin límites de velocidad para " + type);
+        };
+    }
+
+    private long slotOf(Instant instant) {
+        return Math.floorDiv(instant.toEpochMilli(), slotMillis);
+    }
+
+    public record Reservation(TransactionType type, String cuenta, Money amount, long slot) {}
+
+    private record Limits(Money hourly, Money daily) {}
+
+    /**
+     * Anillos de una cuenta. {@code newest} es la casilla más reciente escrita; las que quedan fuera
+     * de los últimos {@code size} se ponen a cero al avanzar. Solo se toca dentro de
+     * {@link ConcurrentMap#compute}, que ya serializa los accesos a la misma cuenta.
+     */
+    private static final class Window {
+
+        private final long[] withdrawals;
+        private final long[] transfers;
+        private long newest = Long.MIN_VALUE;
+
+        Window(int size) {
+            withdrawals = new long[size];
+            transfers = new long[size];
+        }
+
+        int size() {
+            return withdrawals.length;
+        }
+
+        long[] ring(TransactionType type) {
+            return type == TransactionType.RETIRO ? withdrawals : transfers;
+        }
+
+        void advance(long slot) {
+            if (newest == Long.MIN_VALUE) {
+                newest = slot;
+                return;
+            }
+            long steps = Math.min(slot - newest, size());
+            for (long i = 1; i <= steps; i++) {
+                int index = (int) Math.floorMod(newest + i, (long) size());
+                withdrawals[index] = 0;
+                transfers[index] = 0;
+            }
+            newest = Math.max(newest, slot);
+        }
+
+        void add(long[] ring, long slot, long minorUnits) {
+            advance(slot);
+            if (slot > newest - size()) {
+                ring[(int) Math.floorMod(slot, (long) size())] += minorUnits;
+            }
+        }
+
+        /** Suma de las {@code count} casillas que acaban en {@code slot}, sin salir del anillo. */
+        long sum(long[] ring, long slot, int count) {
+            long total = 0;
+            for (long s = Math.max(slot - count + 1, newest - size() + 1); s <= Math.min(slot, newest); s++) {
+                total += ring[(int) Math.floorMod(s, (long) size())];
+            }
+            return total;
+        }
+    }
+}
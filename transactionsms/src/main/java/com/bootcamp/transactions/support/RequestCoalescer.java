@@ -0,0 +1,60 @@
+package com.bootcamp.transactions.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Una sola ejecución en vuelo por clave (single-flight). Mientras hay una en curso para una clave, las
+ * siguientes se suscriben a ella y reciben el mismo valor, vacío o error. La entrada se quita en cuanto
+ * la ejecución termina, así que nunca se reutiliza un resultado después; para eso está la caché de
+ * quien lo use. Si todos los que esperan cancelan, la ejecución se cancela también, en vez de seguir
+ * sin nadie que la reciba.
+ * <p>
+ * Cada uso publica sus métricas con su prefijo: {@code <prefijo>.requests}, {@code <prefijo>.executions}
+ * y el gauge {@code <prefijo>.dedup.ratio} (parte de las peticiones servidas por la ejecución de otra).
+ */
+public class RequestCoalescer<K, V> {
+
+    private final ConcurrentMap<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter requests;
+    private final Counter executions;
+
+    /** @param metricPrefix prefijo de las métricas, p. ej. {@code clientms.lookup} */
+    public RequestCoalescer(String metricPrefix, MeterRegistry meterRegistry) {
+        this.requests = Counter.builder(metricPrefix + ".requests")
+                .description("Peticiones recibidas").register(meterRegistry);
+        this.executions = Counter.builder(metricPrefix + ".executions")
+                .description("Ejecuciones realmente lanzadas").register(meterRegistry);
+        Gauge.builder(metricPrefix + ".dedup.ratio", this, RequestCoalescer::dedupRatio)
+                .description("Parte de las peticiones servidas por otra en vuelo")
+                .register(meterRegistry);
+    }
+
+    /** Lanza la ejecución de la clave, o se une a la que ya está en vuelo. */
+    public Mono<V> execute(K key, Function<K, Mono<V>> loader) {
+        return Mono.defer(() -> {
+            requests.increment();
+            return inFlight.computeIfAbsent(key, k -> newFlight(k, loader));
+        });
+    }
+
+    private Mono<V> newFlight(K key, Function<K, Mono<V>> loader) {
+        executions.increment();
+        AtomicReference<Mono<V>> flight = new AtomicReference<>();
+        flight.set(loader.apply(key).doFinally(signal -> inFlight.remove(key, flight.get()))
+                .flux().replay(1).refCount().singleOrEmpty());
+        return flight.get();
+    }
+
+    private double dedupRatio() {
+        double total = requests.count();
+        return total == 0 ? 0 : (total - executions.count()) / total;
+    }
+}
@@ -0,0 +1,32 @@
+package com.bootcamp.transactions;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Base de los tests que necesitan MongoDB: levanta un servidor en memoria (protocolo wire) una sola
+ * vez y apunta {@code spring.data.mongodb.uri} a él, así que todas las subclases comparten contexto.
+ * Los límites de velocidad van a cero (sin límite): los tests reutilizan cuentas y sus ventanas en
+ * memoria sobreviven al borrado de la base entre tests.
+ */
+@SpringBootTest(properties = {
+        "velocity.withdrawal.hourly-limit=0", "velocity.withdrawal.daily-limit=0",
+        "velocity.transfer.hourly-limit=0", "velocity.transfer.daily-limit=0"})
+public abstract class InMemoryMongoTest {
+
+    private static final MongoServer MONGO = new MongoServer(new MemoryBackend());
+
+    static {
+        MONGO.bind("localhost", 0);
+        Runtime.getRuntime().addShutdownHook(new Thread(MONGO::shutdownNow));
+    }
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri",
+                () -> "mongodb://localhost:" + MONGO.getLocalAddress().getPort() + "/bank");
+    }
+}
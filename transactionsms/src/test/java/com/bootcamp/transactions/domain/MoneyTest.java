@@ -0,0 +1,85 @@
+package com.bootcamp.transactions.domain;
+
+import com.bootcamp.transactions.config.MoneyConverters;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Money")
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @CsvSource({"125, 12500", "125.5, 12550", "125.50, 12550", "0.05, 5", "-3.25, -325", ".5, 50", "7., 700",
+            "1.2300, 123", "1e2, 10000", "92233720368547758.07, 9223372036854775807"})
+    @DisplayName("Parses decimal text into minor units")
+    void parsesDecimalText(String text, long minorUnits) {
+        assertEquals(Money.ofMinor(minorUnits), Money.parse(text));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "-", ".", "12a", "1.2.3", "1,5"})
+    @DisplayName("Rejects text that is not a number")
+    void rejectsNonNumbers(String text) {
+        assertThrows(NumberFormatException.class, () -> Money.parse(text));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0.001", "92233720368547758.08", "1e-3"})
+    @DisplayName("Rejects more decimals than the currency scale and overflow")
+    void rejectsInexactOrOverflowingAmounts(String text) {
+        assertThrows(ArithmeticException.class, () -> Money.parse(text));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"12550, 125.50", "5, 0.05", "-5, -0.05", "-12550, -125.50", "0, 0.00"})
+    @DisplayName("Formats with the currency scale")
+    void formatsWithScale(long minorUnits, String text) {
+        assertEquals(text, Money.ofMinor(minorUnits).toString());
+    }
+
+    @Test
+    @DisplayName("Arithmetic overflows instead of wrapping")
+    void arithmeticOverflows() {
+        assertEquals(Money.parse("4.75"), Money.parse("3.25").plus(Money.parse("1.50")));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)));
+    }
+
+    @Test
+    @DisplayName("JSON numbers are read from their text and written as numbers")
+    void jsonRoundTrip() throws Exception {
+        assertEquals(Money.parse("0.30"), objectMapper.readValue("0.30", Money.class));
+        assertEquals(Money.parse("19.99"), objectMapper.readValue("\"19.99\"", Money.class));
+        assertEquals("19.99", objectMapper.writeValueAsString(Money.parse("19.99")));
+        assertThrows(JsonMappingException.class, () -> objectMapper.readValue("0.001", Money.class));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1, -1, 12550, -12550, Long.MAX_VALUE, Long.MIN_VALUE})
+    @DisplayName("Decimal128 encoding keeps the exact value")
+    void decimal128RoundTrip(long minorUnits) {
+        Decimal128 stored = MoneyConverters.MoneyToDecimal128.INSTANCE.convert(Money.ofMinor(minorUnits));
+
+        assertEquals(BigDecimal.valueOf(minorUnits, Money.SCALE), stored.bigDecimalValue());
+        assertEquals(Money.ofMinor(minorUnits), MoneyConverters.Decimal128ToMoney.INSTANCE.convert(stored));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1000, 100000", "3.5, 350", "-0.050, -5"})
+    @DisplayName("Decimal128 values with another exponent are read exactly")
+    void decimal128WithOtherExponent(String decimal, long minorUnits) {
+        assertEquals(Money.ofMinor(minorUnits),
+                MoneyConverters.Decimal128ToMoney.INSTANCE.convert(new Decimal128(new BigDecimal(decimal))));
+    }
+}
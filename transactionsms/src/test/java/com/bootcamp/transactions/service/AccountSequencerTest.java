@@ -0,0 +1,156 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.exception.AccountBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("AccountSequencer")
+class AccountSequencerTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Operations on one account run one at a time and in order")
+    void operationsOnOneAccountRunInOrder() {
+        AccountSequencer sequencer = new AccountSequencer(8, 1000, TIMEOUT, meterRegistry);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<Integer> order = new CopyOnWriteArrayList<>();
+
+        Flux.range(0, 500)
+                .concatMap(i -> Mono.just(sequencer.submit("ACC-HOT", () -> Mono.fromRunnable(() -> {
+                            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                            order.add(i);
+                        })
+                        .subscribeOn(Schedulers.parallel())
+                        .doFinally(signal -> inFlight.decrementAndGet())
+                        .thenReturn(i))))
+                .collectList()
+                .flatMapMany(Flux::merge)
+                .blockLast(Duration.ofSeconds(10));
+
+        assertEquals(1, maxInFlight.get());
+        assertEquals(Flux.range(0, 500).collectList().block(), order);
+    }
+
+    @Test
+    @DisplayName("Different lanes proceed in parallel")
+    void differentLanesProceedInParallel() {
+        AccountSequencer sequencer = new AccountSequencer(2, 10, TIMEOUT, meterRegistry);
+        Sinks.Empty<Void> gate = Sinks.empty();
+        String first = accountOnLane(0, 2);
+        String second = accountOnLane(1, 2);
+
+        Mono<String> blocked = sequencer.submit(first, () -> gate.asMono().thenReturn(first));
+        blocked.subscribe();
+
+        StepVerifier.create(sequencer.submit(second, () -> Mono.just(second)))
+                .expectNext(second)
+                .verifyComplete();
+        gate.tryEmitEmpty();
+    }
+
+    @Test
+    @DisplayName("A full lane rejects with AccountBusyException and recovers once drained")
+    void fullLaneRejects() {
+        AccountSequencer sequencer = new AccountSequencer(1, 2, TIMEOUT, meterRegistry);
+        Sinks.Empty<Void> gate = Sinks.empty();
+        List<String> done = new CopyOnWriteArrayList<>();
+
+        sequencer.submit("A", () -> gate.asMono().thenReturn("A1")).subscribe(done::add);
+        sequencer.submit("A", () -> Mono.just("A2")).subscribe(done::add);
+        assertEquals(2.0, meterRegistry.get("account.sequencer.queue.depth").tag("lane", "0").gauge().value());
+
+        StepVerifier.create(sequencer.submit("A", () -> Mono.just("A3")))
+                .expectError(AccountBusyException.class)
+                .verify();
+        assertEquals(1.0, meterRegistry.get("account.sequencer.rejected").counter().count());
+
+        gate.tryEmitEmpty();
+        assertEquals(List.of("A1", "A2"), done);
+        assertEquals(0.0, meterRegistry.get("account.sequencer.queue.depth").tag("lane", "0").gauge().value());
+        StepVerifier.create(sequencer.submit("A", () -> Mono.just("A3"))).expectNext("A3").verifyComplete();
+    }
+
+    @Test
+    @DisplayName("A failing operation releases the lane")
+    void failingOperationReleasesLane() {
+        AccountSequencer sequencer = new AccountSequencer(1, 1, TIMEOUT, meterRegistry);
+
+        StepVerifier.create(sequencer.submit("A", () -> Mono.error(new IllegalStateException("boom"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+        StepVerifier.create(sequencer.submit("A", () -> {
+                    throw new IllegalStateException("boom");
+                }))
+                .expectError(IllegalStateException.class)
+                .verify();
+        StepVerifier.create(sequencer.submit("A", () -> Mono.just("ok"))).expectNext("ok").verifyComplete();
+        assertTrue(meterRegistry.find("account.sequencer.rejected").counter().count() == 0);
+    }
+
+    @Test
+    @DisplayName("A stalled operation times out and the lane moves on")
+    void stalledOperationTimesOut() {
+        AccountSequencer sequencer = new AccountSequencer(1, 2, Duration.ofMillis(100), meterRegistry);
+
+        Mono<String> stalled = sequencer.submit("A", Mono::never);
+        Mono<String> next = sequencer.submit("A", () -> Mono.just("A2"));
+
+        StepVerifier.create(Mono.zip(stalled.onErrorResume(TimeoutException.class, ex -> Mono.just("timeout")), next))
+                .expectNextMatches(results -> results.getT1().equals("timeout") && results.getT2().equals("A2"))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        assertEquals(0.0, meterRegistry.get("account.sequencer.queue.depth").tag("lane", "0").gauge().value());
+    }
+
+    @Test
+    @DisplayName("A caller that cancels frees the lane, whether its operation was running or still queued")
+    void cancelledCallerFreesLane() {
+        AccountSequencer sequencer = new AccountSequencer(1, 2, TIMEOUT, meterRegistry);
+        AtomicBoolean running = new AtomicBoolean();
+        AtomicBoolean queuedRan = new AtomicBoolean();
+
+        Disposable first = sequencer.submit("A", () -> Mono.never().doOnSubscribe(s -> running.set(true))
+                .doOnCancel(() -> running.set(false))).subscribe();
+        Disposable queued = sequencer.submit("A", () -> Mono.fromRunnable(() -> queuedRan.set(true))).subscribe();
+        assertTrue(running.get());
+
+        queued.dispose();
+        first.dispose();
+
+        assertFalse(running.get());
+        assertFalse(queuedRan.get());
+        assertEquals(0.0, meterRegistry.get("account.sequencer.queue.depth").tag("lane", "0").gauge().value());
+        StepVerifier.create(sequencer.submit("A", () -> Mono.just("A3"))).expectNext("A3").verifyComplete();
+    }
+
+    private static String accountOnLane(int lane, int lanes) {
+        for (int i = 0; ; i++) {
+            String cuenta = "ACC-" + i;
+            if (Math.floorMod(cuenta.hashCode(), lanes) == lane) {
+                return cuenta;
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("AdmissionLimiter")
+class AdmissionLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AdmissionLimiter limiter(int initial, int min, int max, int queueCapacity, Duration queueTimeout) {
+        return new AdmissionLimiter(initial, min, max, Duration.ofMillis(50), 0.5, queueCapacity, queueTimeout, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Operations beyond the limit wait in the queue and run as slots free up")
+    void queuesBeyondLimit() {
+        AdmissionLimiter limiter = limiter(2, 1, 2, 10, Duration.ofSeconds(5));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        Integer total = Flux.range(0, 50)
+                .flatMap(i -> limiter.admit(() -> Mono.fromCallable(() -> maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max))
+                        .subscribeOn(Schedulers.parallel())
+                        .doFinally(signal -> running.decrementAndGet())
+                        .thenReturn(1)), 10)
+                .reduce(0, Integer::sum)
+                .block(Duration.ofSeconds(10));
+
+        assertEquals(50, total);
+        assertTrue(maxRunning.get() <= 2);
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    @DisplayName("A full queue rejects at once and a queued operation fails once its wait runs out")
+    void rejectsWhenQueueIsFullOrWaitExpires() {
+        AdmissionLimiter limiter = limiter(1, 1, 1, 1, Duration.ofMillis(100));
+        Sinks.Empty<Void> gate = Sinks.empty();
+        Disposable blocker = limiter.admit(gate::asMono).subscribe();
+
+        Mono<String> queued = limiter.admit(() -> Mono.just("late"));
+        StepVerifier.create(queued)
+                .then(() -> StepVerifier.create(limiter.admit(() -> Mono.just("rejected")))
+                        .expectError(ServiceOverloadedException.class)
+                        .verify())
+                .expectError(ServiceOverloadedException.class)
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(1.0, meterRegistry.get("admission.rejected").tag("reason", "queue-full").counter().count());
+        assertEquals(1.0, meterRegistry.get("admission.rejected").tag("reason", "timeout").counter().count());
+        gate.tryEmitEmpty();
+        blocker.dispose();
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    @DisplayName("Slow or failing operations shrink the limit and fast ones grow it back")
+    void limitFollowsLatency() {
+        AdmissionLimiter limiter = limiter(16, 2, 20, 0, Duration.ZERO);
+
+        limiter.admit(() -> Mono.delay(Duration.ofMillis(80)).thenReturn(1)).block();
+        assertEquals(8, limiter.currentLimit());
+        StepVerifier.create(limiter.admit(() -> Mono.error(new DataAccessResourceFailureException("mongo caído"))))
+                .expectError(DataAccessResourceFailureException.class)
+                .verify();
+        assertEquals(4, limiter.currentLimit());
+
+        // con el limitador al menos a medio llenar, cada operación rápida sube el límite en uno
+        Flux.range(0, 200)
+                .flatMap(i -> limiter.admit(() -> Mono.delay(Duration.ofMillis(5)).thenReturn(i))
+                        .onErrorResume(ServiceOverloadedException.class, ex -> Mono.empty()), 32)
+                .blockLast(Duration.ofSeconds(10));
+        assertTrue(limiter.currentLimit() > 4);
+        assertTrue(limiter.currentLimit() <= 20);
+        assertEquals((double) limiter.currentLimit(), meterRegistry.get("admission.limit").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Cancelling while queued or while running gives the slot back")
+    void cancellationReleasesSlot() {
+        AdmissionLimiter limiter = limiter(1, 1, 1, 10, Duration.ofSeconds(5));
+        Disposable running = limiter.admit(() -> Mono.never()).subscribe();
+        Disposable queued = limiter.admit(() -> Mono.never()).subscribe();
+
+        queued.dispose();
+        running.dispose();
+
+        assertEquals(0, limiter.inFlight());
+        StepVerifier.create(limiter.admit(() -> Mono.just("ok")))
+                .expectNext("ok")
+                .verifyComplete();
+    }
+}
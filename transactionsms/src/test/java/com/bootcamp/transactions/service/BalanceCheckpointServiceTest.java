@@ -0,0 +1,235 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.InMemoryMongoTest;
+import com.bootcamp.transactions.domain.Account;
+import com.bootcamp.transactions.domain.BalanceCheckpoint;
+import com.bootcamp.transactions.domain.CheckpointClaim;
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionStatus;
+import com.bootcamp.transactions.domain.TransactionType;
+import com.bootcamp.transactions.dto.DepositRequest;
+import com.bootcamp.transactions.dto.TransferRequest;
+import com.bootcamp.transactions.dto.WithdrawalRequest;
+import com.bootcamp.transactions.exception.AccountNotFoundException;
+import com.bootcamp.transactions.repository.AccountRepository;
+import com.bootcamp.transactions.repository.BalanceCheckpointRepository;
+import com.bootcamp.transactions.repository.BalanceRollupRepository;
+import com.bootcamp.transactions.repository.CheckpointClaimRepository;
+import com.bootcamp.transactions.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("BalanceCheckpointService")
+class BalanceCheckpointServiceTest extends InMemoryMongoTest {
+
+    private static final Money OPENING = Money.parse("1000.00");
+    private static final Instant START = Instant.parse("2026-03-01T00:00:00Z");
+
+    @Autowired BalanceCheckpointService checkpointService;
+    @Autowired TransactionService transactionService;
+    @Autowired TransferService transferService;
+    @Autowired AccountRepository accountRepository;
+    @Autowired TransactionRepository transactionRepository;
+    @Autowired BalanceCheckpointRepository checkpointRepository;
+    @Autowired BalanceRollupRepository rollupRepository;
+    @Autowired CheckpointClaimRepository claimRepository;
+    @Autowired ReactiveMongoOperations mongoOperations;
+
+    @BeforeEach
+    void cleanUp() {
+        accountRepository.deleteAll().then(transactionRepository.deleteAll()).then(checkpointRepository.deleteAll())
+                .then(rollupRepository.deleteAll()).then(claimRepository.deleteAll()).block();
+    }
+
+    @Test
+    @DisplayName("The balance at any instant matches replaying the ledger from the opening balance")
+    void balanceAtMatchesLedgerReplay() {
+        List<Transaction> ledger = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            // diez días, varios movimientos por hora
+            Instant date = START.plusSeconds(i * 4_321L);
+            Money amount = Money.ofMinor(100 + i * 37L);
+            ledger.add(switch (i % 4) {
+                case 0 -> tx(TransactionType.DEPOSITO, TransactionStatus.COMMITTED, amount, date, "ACC-S", null);
+                case 1 -> tx(TransactionType.RETIRO, TransactionStatus.COMMITTED, amount, date, "ACC-S", null);
+                case 2 -> tx(TransactionType.TRANSFERENCIA, TransactionStatus.COMMITTED, amount, date, "ACC-S", "ACC-OTHER");
+                default -> tx(TransactionType.TRANSFERENCIA, TransactionStatus.COMMITTED, amount, date, "ACC-OTHER", "ACC-S");
+            });
+        }
+        ledger.add(tx(TransactionType.TRANSFERENCIA, TransactionStatus.CANCELLED, Money.parse("999.00"),
+                START.plusSeconds(86_400), "ACC-S", "ACC-OTHER"));
+        Flux.fromIterable(transactionRepository.saveAll(ledger).collectList().block())
+                .filter(tx -> tx.getStatus() == TransactionStatus.COMMITTED)
+                .concatMap(checkpointService::record)
+                .blockLast();
+        accountRepository.save(new Account("ACC-S", replay(ledger, Instant.MAX))).block();
+
+        for (Instant at : List.of(START.minusSeconds(1), START, START.plusSeconds(4_321L * 37 + 5),
+                Instant.parse("2026-03-05T23:59:59.999Z"), Instant.parse("2026-03-06T00:00:00Z"), START.plusSeconds(30 * 86_400))) {
+            assertEquals(replay(ledger, at), checkpointService.balanceAt("ACC-S", at).block(), at::toString);
+        }
+    }
+
+    @Test
+    @DisplayName("Deposits, withdrawals and transfers update today's checkpoint as they commit")
+    void operationsUpdateCheckpoints() {
+        Instant before = Instant.now().minusMillis(1);
+        accountRepository.save(new Account("ACC-A", OPENING)).then(accountRepository.save(new Account("ACC-B", OPENING))).block();
+
+        transactionService.deposit(new DepositRequest("ACC-A", Money.parse("50.00"))).block();
+        transactionService.withdraw(new WithdrawalRequest("ACC-A", Money.parse("20.00"))).block();
+        transferService.transfer(new TransferRequest("ACC-A", "ACC-B", Money.parse("5.25"))).block();
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        assertEquals(Money.parse("24.75"), checkpointRepository.findById(BalanceCheckpoint.id("ACC-A", today)).block().getNet());
+        assertEquals(Money.parse("5.25"), checkpointRepository.findById(BalanceCheckpoint.id("ACC-B", today)).block().getNet());
+        assertEquals(Money.parse("1024.75"), checkpointService.balanceAt("ACC-A", Instant.now()).block());
+        assertEquals(OPENING, checkpointService.balanceAt("ACC-A", before).block());
+    }
+
+    @Test
+    @DisplayName("Old statements go through monthly rollups and stay exact after a late write to a rolled-up month")
+    void statementsAcrossRolledUpMonths() {
+        List<Transaction> ledger = seed(Instant.parse("2026-01-03T10:00:00Z"), 300, 29_017L);
+        List<Instant> instants = List.of(Instant.parse("2026-01-02T00:00:00Z"), Instant.parse("2026-01-31T23:59:59Z"),
+                Instant.parse("2026-02-14T12:00:00Z"), Instant.parse("2026-03-31T23:59:59.999Z"),
+                Instant.parse("2026-04-01T00:00:00Z"), Instant.parse("2026-04-20T08:30:00Z"), Instant.now());
+        for (Instant at : instants) {
+            assertEquals(replay(ledger, at), checkpointService.balanceAt("ACC-S", at).block(), at::toString);
+        }
+        assertTrue(rollupRepository.count().block() > 0);
+
+        // una transferencia que se recupera mucho después con fecha de febrero
+        Transaction late = tx(TransactionType.DEPOSITO, TransactionStatus.COMMITTED, Money.parse("77.00"),
+                Instant.parse("2026-02-10T09:00:00Z"), "ACC-S", null);
+        ledger.add(transactionRepository.save(late).block());
+        accountRepository.credit("ACC-S", late.getAmount()).then(checkpointService.record(late)).block();
+        for (Instant at : instants) {
+            assertEquals(replay(ledger, at), checkpointService.balanceAt("ACC-S", at).block(), at::toString);
+        }
+    }
+
+    @Test
+    @DisplayName("Recording a transaction again, alone or in a batch, counts it once")
+    void recordIsIdempotent() {
+        accountRepository.save(new Account("ACC-A", OPENING)).block();
+        Transaction deposit = transactionRepository.save(tx(TransactionType.DEPOSITO, TransactionStatus.COMMITTED,
+                Money.parse("10.00"), START, "ACC-A", null)).block();
+        Transaction withdrawal = transactionRepository.save(tx(TransactionType.RETIRO, TransactionStatus.COMMITTED,
+                Money.parse("3.00"), START.plusSeconds(60), "ACC-A", null)).block();
+
+        checkpointService.record(deposit).then(checkpointService.record(deposit)).block();
+        checkpointService.recordAll(List.of(deposit, withdrawal)).then(checkpointService.recordAll(List.of(withdrawal))).block();
+
+        LocalDate day = LocalDate.ofInstant(START, ZoneOffset.UTC);
+        assertEquals(Money.parse("7.00"), checkpointRepository.findById(BalanceCheckpoint.id("ACC-A", day)).block().getNet());
+    }
+
+    @Test
+    @DisplayName("A busy day keeps a fixed-size checkpoint; replay protection lives in one expiring claim per transaction")
+    void checkpointSizeDoesNotGrowWithTheDay() {
+        accountRepository.save(new Account("ACC-A", OPENING)).block();
+        List<Transaction> day = transactionRepository.saveAll(IntStream.range(0, 300)
+                .mapToObj(i -> tx(TransactionType.DEPOSITO, TransactionStatus.COMMITTED, Money.parse("1.00"),
+                        START.plusSeconds(i), "ACC-A", null))
+                .toList()).collectList().block();
+
+        checkpointService.recordAll(day.subList(0, 150)).block();
+        Flux.fromIterable(day).concatMap(checkpointService::record).blockLast();
+        checkpointService.recordAll(day).block();
+
+        String id = BalanceCheckpoint.id("ACC-A", LocalDate.ofInstant(START, ZoneOffset.UTC));
+        assertEquals(Money.parse("300.00"), checkpointRepository.findById(id).block().getNet());
+        Document stored = mongoOperations.findById(id, Document.class, "balance_checkpoints").block();
+        assertEquals(Set.of("_id", "account", "day", "net"), stored.keySet());
+        List<CheckpointClaim> claims = claimRepository.findAll().collectList().block();
+        assertEquals(300, claims.size());
+        assertTrue(claims.stream().allMatch(claim -> claim.getExpiresAt().isAfter(Instant.now().plus(Duration.ofDays(6)))));
+    }
+
+    @Test
+    @DisplayName("Rebuilding a day range from the ledger restores lost and wrong checkpoints")
+    void rebuildRestoresCheckpoints() {
+        List<Transaction> ledger = seed(START, 200, 4_321L);
+        LocalDate lost = LocalDate.parse("2026-03-04");
+        checkpointRepository.deleteById(BalanceCheckpoint.id("ACC-S", lost))
+                .then(checkpointRepository.save(new BalanceCheckpoint(BalanceCheckpoint.id("ACC-S", lost.plusDays(1)), "ACC-S",
+                        lost.plusDays(1), Money.parse("123456.78"))))
+                .block();
+        Instant at = Instant.parse("2026-03-02T12:00:00Z");
+        assertNotEquals(replay(ledger, at), checkpointService.balanceAt("ACC-S", at).block());
+
+        checkpointService.rebuild("ACC-S", LocalDate.parse("2026-03-01"), LocalDate.parse("2026-03-10")).block();
+
+        assertEquals(replay(ledger, at), checkpointService.balanceAt("ACC-S", at).block());
+        // las transacciones reconstruidas quedan anotadas: volver a registrarlas no suma
+        Flux.fromIterable(ledger).filter(tx -> tx.getStatus() == TransactionStatus.COMMITTED)
+                .concatMap(checkpointService::record).blockLast();
+        assertEquals(replay(ledger, at), checkpointService.balanceAt("ACC-S", at).block());
+    }
+
+    @Test
+    @DisplayName("An unknown account has no statement")
+    void unknownAccount() {
+        StepVerifier.create(checkpointService.balanceAt("ACC-NONE", Instant.now()))
+                .expectError(AccountNotFoundException.class)
+                .verify();
+    }
+
+    /** {@code count} movimientos de ACC-S cada {@code step} segundos desde {@code start}, con sus checkpoints y saldo. */
+    private List<Transaction> seed(Instant start, int count, long step) {
+        List<Transaction> ledger = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Instant date = start.plusSeconds(i * step);
+            Money amount = Money.ofMinor(100 + i * 37L);
+            ledger.add(switch (i % 4) {
+                case 0 -> tx(TransactionType.DEPOSITO, TransactionStatus.COMMITTED, amount, date, "ACC-S", null);
+                case 1 -> tx(TransactionType.RETIRO, TransactionStatus.COMMITTED, amount, date, "ACC-S", null);
+                case 2 -> tx(TransactionType.TRANSFERENCIA, TransactionStatus.COMMITTED, amount, date, "ACC-S", "ACC-OTHER");
+                default -> tx(TransactionType.TRANSFERENCIA, TransactionStatus.COMMITTED, amount, date, "ACC-OTHER", "ACC-S");
+            });
+        }
+        List<Transaction> saved = new ArrayList<>(transactionRepository.saveAll(ledger).collectList().block());
+        Flux.fromIterable(saved).concatMap(checkpointService::record).blockLast();
+        accountRepository.save(new Account("ACC-S", replay(saved, Instant.MAX))).block();
+        return saved;
+    }
+
+    private static Money replay(List<Transaction> ledger, Instant at) {
+        Money balance = OPENING;
+        for (Transaction tx : ledger) {
+            if (tx.getStatus() != TransactionStatus.COMMITTED || tx.getDate().isAfter(at)) {
+                continue;
+            }
+            boolean credit = tx.getType() == TransactionType.DEPOSITO || "ACC-S".equals(tx.getDestAccount());
+            balance = credit ? balance.plus(tx.getAmount()) : balance.minus(tx.getAmount());
+        }
+        return balance;
+    }
+
+    private static Transaction tx(TransactionType type, TransactionStatus status, Money amount, Instant date,
+                                  String source, String dest) {
+        return Transaction.builder().type(type).status(status).amount(amount).date(date)
+                .sourceAccount(source).destAccount(dest).build();
+    }
+}
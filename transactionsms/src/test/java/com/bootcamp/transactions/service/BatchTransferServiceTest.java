@@ -0,0 +1,243 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.InMemoryMongoTest;
+import com.bootcamp.transactions.domain.Account;
+import com.bootcamp.transactions.domain.BalanceCheckpoint;
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionStatus;
+import com.bootcamp.transactions.domain.TransactionType;
+import com.bootcamp.transactions.dto.BatchTransferResult;
+import com.bootcamp.transactions.dto.TransferRequest;
+import com.bootcamp.transactions.exception.BusinessException;
+import com.bootcamp.transactions.exception.InsufficientFundsException;
+import com.bootcamp.transactions.exception.ServiceOverloadedException;
+import com.bootcamp.transactions.exception.VelocityLimitExceededException;
+import com.bootcamp.transactions.repository.AccountRepository;
+import com.bootcamp.transactions.repository.BalanceCheckpointRepository;
+import com.bootcamp.transactions.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@AutoConfigureWebTestClient
+@DisplayName("BatchTransferService")
+class BatchTransferServiceTest extends InMemoryMongoTest {
+
+    private static final Money OPENING = Money.parse("1000.00");
+    private static final Money PAYROLL_FUNDS = Money.parse("1000000.00");
+
+    @Autowired BatchTransferService batchTransferService;
+    @Autowired AccountRepository accountRepository;
+    @Autowired TransactionRepository transactionRepository;
+    @Autowired BalanceCheckpointRepository checkpointRepository;
+    @Autowired WebTestClient webTestClient;
+    @Autowired AccountSequencer accountSequencer;
+    @Autowired BalanceCheckpointService checkpointService;
+    @Autowired ClientMsClient clientMsClient;
+    @Autowired AdmissionLimiter admissionLimiter;
+    @Autowired VelocityLimiter velocityLimiter;
+    @Autowired Validator validator;
+
+    @BeforeEach
+    void cleanUp() {
+        accountRepository.deleteAll().then(transactionRepository.deleteAll()).then(checkpointRepository.deleteAll()).block();
+    }
+
+    @Test
+    @DisplayName("A payroll run debits the source once, credits every destination in request order and commits all")
+    void payrollCommitsEverything() {
+        accountRepository.save(new Account("ACC-COMPANY", PAYROLL_FUNDS)).block();
+        Flux.range(0, 60).flatMap(i -> accountRepository.save(new Account("ACC-EMP-" + i, OPENING))).blockLast();
+        List<TransferRequest> payroll = new ArrayList<>();
+        Map<String, Money> expected = new HashMap<>();
+        Money total = Money.ZERO;
+        for (int i = 0; i < 600; i++) {
+            String employee = "ACC-EMP-" + (i % 60);
+            Money amount = Money.ofMinor(10_000 + i);
+            payroll.add(new TransferRequest("ACC-COMPANY", employee, amount));
+            expected.merge(employee, amount, Money::plus);
+            total = total.plus(amount);
+        }
+
+        List<BatchTransferResult> results = batchTransferService.transfer(Flux.fromIterable(payroll)).collectList().block();
+
+        assertEquals(600, results.size());
+        assertTrue(results.stream().allMatch(result -> result.estado() == TransactionStatus.COMMITTED && result.motivo() == null));
+        // por cuenta destino, los resultados salen en el orden de la petición
+        Map<String, List<Integer>> byEmployee = results.stream().collect(Collectors.groupingBy(
+                BatchTransferResult::cuentaDestino, Collectors.mapping(BatchTransferResult::indice, Collectors.toList())));
+        byEmployee.values().forEach(indexes -> assertEquals(indexes.stream().sorted().toList(), indexes));
+
+        Account company = accountRepository.findById("ACC-COMPANY").block();
+        assertEquals(PAYROLL_FUNDS.minus(total), company.getBalance());
+        assertTrue(company.getPendingTransactions().isEmpty());
+        for (int i = 0; i < 60; i++) {
+            Account employee = accountRepository.findById("ACC-EMP-" + i).block();
+            assertEquals(OPENING.plus(expected.get(employee.getId())), employee.getBalance());
+            assertTrue(employee.getPendingTransactions().isEmpty());
+        }
+        assertEquals(600L, transactionRepository.findAll().filter(tx -> tx.getStatus() == TransactionStatus.COMMITTED).count().block());
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        assertEquals(total.negate(), checkpointRepository.findById(BalanceCheckpoint.id("ACC-COMPANY", today)).block().getNet());
+    }
+
+    @Test
+    @DisplayName("Items that cannot run are cancelled one by one and the rest of the batch goes through")
+    void rejectsItemsIndividually() {
+        accountRepository.save(new Account("ACC-COMPANY", OPENING)).then(accountRepository.save(new Account("ACC-1", OPENING))).block();
+        List<TransferRequest> batch = List.of(
+                new TransferRequest("ACC-COMPANY", "ACC-1", Money.parse("10.00")),
+                new TransferRequest("ACC-COMPANY", "ACC-1", Money.ZERO),
+                new TransferRequest("ACC-COMPANY", "ACC-COMPANY", Money.parse("1.00")),
+                new TransferRequest("ACC-OTHER", "ACC-1", Money.parse("1.00")),
+                new TransferRequest("ACC-COMPANY", "ACC-GONE", Money.parse("1.00")),
+                new TransferRequest("ACC-COMPANY", "ACC-1", Money.parse("5.00")));
+
+        Map<Integer, BatchTransferResult> results = batchTransferService.transfer(Flux.fromIterable(batch))
+                .collectMap(BatchTransferResult::indice).block();
+
+        assertEquals(6, results.size());
+        assertEquals(TransactionStatus.COMMITTED, results.get(0).estado());
+        assertEquals(TransactionStatus.COMMITTED, results.get(5).estado());
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(TransactionStatus.CANCELLED, results.get(i).estado());
+            assertEquals(null, results.get(i).transaccionId());
+        }
+        assertTrue(results.get(1).motivo().startsWith("Validation failed: monto"));
+        assertTrue(results.get(4).motivo().contains("ACC-GONE"));
+        assertEquals(Money.parse("985.00"), accountRepository.findById("ACC-COMPANY").block().getBalance());
+        assertEquals(Money.parse("1015.00"), accountRepository.findById("ACC-1").block().getBalance());
+    }
+
+    @Test
+    @DisplayName("A source without funds for the batch total fails the batch without moving money")
+    void insufficientFundsForTotal() {
+        accountRepository.save(new Account("ACC-COMPANY", Money.parse("15.00"))).then(accountRepository.save(new Account("ACC-1", OPENING))).block();
+        Flux<TransferRequest> batch = Flux.just(
+                new TransferRequest("ACC-COMPANY", "ACC-1", Money.parse("10.00")),
+                new TransferRequest("ACC-COMPANY", "ACC-1", Money.parse("10.00")));
+
+        StepVerifier.create(batchTransferService.transfer(batch))
+                .expectError(InsufficientFundsException.class)
+                .verify();
+        assertEquals(Money.parse("15.00"), accountRepository.findById("ACC-COMPANY").block().getBalance());
+        assertEquals(OPENING, accountRepository.findById("ACC-1").block().getBalance());
+        List<Transaction> cancelled = transactionRepository.findAll().collectList().block();
+        assertEquals(2, cancelled.size());
+        assertTrue(cancelled.stream().allMatch(tx -> tx.getStatus() == TransactionStatus.CANCELLED));
+    }
+
+    @Test
+    @DisplayName("Items beyond the source's velocity limit are rejected and a failed batch gives its reservations back")
+    void velocityLimitsPerItem() {
+        accountRepository.save(new Account("ACC-COMPANY", Money.parse("35.00"))).then(accountRepository.save(new Account("ACC-1", OPENING))).block();
+        VelocityLimiter limiter = new VelocityLimiter(transactionRepository, Duration.ofMinutes(10),
+                "0", "0", "25.00", "0", new SimpleMeterRegistry());
+        BatchTransferService limited = batchTransferService(limiter, admissionLimiter);
+        Flux<TransferRequest> batch = Flux.just(
+                new TransferRequest("ACC-COMPANY", "ACC-1", Money.parse("10.00")),
+                new TransferRequest("ACC-COMPANY", "ACC-1", Money.parse("20.00")),
+                new TransferRequest("ACC-COMPANY", "ACC-1", Money.parse("15.00")));
+
+        Map<Integer, BatchTransferResult> results = limited.transfer(batch).collectMap(BatchTransferResult::indice).block();
+
+        assertEquals(TransactionStatus.COMMITTED, results.get(0).estado());
+        assertEquals(TransactionStatus.CANCELLED, results.get(1).estado());
+        assertTrue(results.get(1).motivo().contains("por hora"));
+        assertEquals(TransactionStatus.COMMITTED, results.get(2).estado());
+        assertEquals(Money.parse("10.00"), accountRepository.findById("ACC-COMPANY").block().getBalance());
+
+        assertThrows(VelocityLimitExceededException.class,
+                () -> limiter.reserve(TransactionType.TRANSFERENCIA, "ACC-COMPANY", Money.parse("0.01")));
+
+        // un lote sin saldo para el total no se queda con la reserva
+        accountRepository.save(new Account("ACC-POOR", Money.parse("5.00"))).block();
+        StepVerifier.create(limited.transfer(Flux.just(new TransferRequest("ACC-POOR", "ACC-1", Money.parse("10.00")))))
+                .expectError(InsufficientFundsException.class)
+                .verify();
+        limiter.reserve(TransactionType.TRANSFERENCIA, "ACC-POOR", Money.parse("25.00"));
+    }
+
+    @Test
+    @DisplayName("A batch that finds the service saturated fails before inserting or debiting anything")
+    void admissionAppliesToTheDebit() {
+        accountRepository.save(new Account("ACC-COMPANY", OPENING)).then(accountRepository.save(new Account("ACC-1", OPENING))).block();
+        AdmissionLimiter saturated = new AdmissionLimiter(1, 1, 1, Duration.ofSeconds(1), 0.5, 0, Duration.ZERO,
+                new SimpleMeterRegistry());
+        Sinks.Empty<Void> gate = Sinks.empty();
+        saturated.admit(gate::asMono).subscribe();
+
+        StepVerifier.create(batchTransferService(velocityLimiter, saturated)
+                        .transfer(Flux.just(new TransferRequest("ACC-COMPANY", "ACC-1", Money.parse("10.00")))))
+                .expectError(ServiceOverloadedException.class)
+                .verify();
+        assertEquals(OPENING, accountRepository.findById("ACC-COMPANY").block().getBalance());
+        assertEquals(0L, transactionRepository.count().block());
+        gate.tryEmitEmpty();
+    }
+
+    @Test
+    @DisplayName("A batch over transfer.batch.max-items is refused before anything is written")
+    void tooManyItems() {
+        accountRepository.save(new Account("ACC-COMPANY", OPENING)).then(accountRepository.save(new Account("ACC-1", OPENING))).block();
+        BatchTransferService capped = new BatchTransferService(accountRepository, transactionRepository, accountSequencer,
+                checkpointService, clientMsClient, velocityLimiter, admissionLimiter, validator, 2, 4, 16);
+
+        StepVerifier.create(capped.transfer(Flux.range(0, 3)
+                        .map(i -> new TransferRequest("ACC-COMPANY", "ACC-1", Money.parse("1.00")))))
+                .expectError(BusinessException.class)
+                .verify();
+        assertEquals(OPENING, accountRepository.findById("ACC-COMPANY").block().getBalance());
+        assertEquals(0L, transactionRepository.count().block());
+    }
+
+    @Test
+    @DisplayName("The endpoint takes NDJSON and streams one result per line")
+    void ndjsonEndpoint() {
+        accountRepository.save(new Account("ACC-COMPANY", OPENING)).then(accountRepository.save(new Account("ACC-1", OPENING))).block();
+        String body = """
+                {"cuentaOrigen":"ACC-COMPANY","cuentaDestino":"ACC-1","monto":1.50}
+                {"cuentaOrigen":"ACC-COMPANY","cuentaDestino":"ACC-1","monto":2.25}
+                """;
+
+        List<BatchTransferResult> results = webTestClient.post().uri("/transacciones/transferencia/lote")
+                .contentType(MediaType.APPLICATION_NDJSON).accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(BatchTransferResult.class).getResponseBody()
+                .collectList().block();
+
+        assertEquals(List.of(0, 1), results.stream().map(BatchTransferResult::indice).sorted().toList());
+        assertTrue(results.stream().allMatch(result -> result.estado() == TransactionStatus.COMMITTED));
+        assertEquals(Money.parse("1003.75"), accountRepository.findById("ACC-1").block().getBalance());
+    }
+
+    private BatchTransferService batchTransferService(VelocityLimiter velocityLimiter, AdmissionLimiter admissionLimiter) {
+        return new BatchTransferService(accountRepository, transactionRepository, accountSequencer, checkpointService,
+                clientMsClient, velocityLimiter, admissionLimiter, validator, 100, 4, 16);
+    }
+}
@@ -0,0 +1,116 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.config.ClientMsConfig;
+import com.bootcamp.transactions.dto.ClientResponse;
+import com.bootcamp.transactions.exception.ClientMsUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Contra un client-ms de mentira en un puerto local: {@code slow-*} tarda 2 s y {@code missing} da 404. */
+@DisplayName("ClientMsClient")
+class ClientMsClientTest {
+
+    private final ConcurrentMap<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private DisposableServer stub;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void startStub() {
+        stub = HttpServer.create().host("localhost").port(0)
+                .route(routes -> routes.get("/clientes/{id}", (request, response) -> {
+                    String id = request.param("id");
+                    hits.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+                    if (id.equals("missing")) {
+                        return response.status(HttpResponseStatus.NOT_FOUND).send();
+                    }
+                    Duration delay = id.startsWith("slow-") ? Duration.ofSeconds(2) : Duration.ofMillis(100);
+                    String body = "{\"id\":\"" + id + "\",\"firstName\":\"Ana\",\"lastName\":\"Ruiz\",\"dni\":\"1\",\"email\":\"a@b.c\"}";
+                    return response.header("Content-Type", "application/json")
+                            .sendString(Mono.just(body).delayElement(delay));
+                }))
+                .bindNow();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.disposeNow();
+    }
+
+    @Test
+    @DisplayName("Concurrent lookups of one id share a request and later ones are served from the cache")
+    void coalescesAndCaches() {
+        ClientMsClient client = client(Duration.ofMinutes(5), 32);
+
+        List<ClientResponse> found = Flux.range(0, 50)
+                .flatMap(i -> client.findClient("c-1"))
+                .collectList()
+                .block();
+        assertEquals(50, found.size());
+        assertTrue(found.stream().allMatch(response -> response.id().equals("c-1") && response.firstName().equals("Ana")));
+        assertEquals(1, hits.get("c-1").get());
+
+        client.findClient("c-1").block();
+        assertEquals(1, hits.get("c-1").get());
+    }
+
+    @Test
+    @DisplayName("Entries expire after the TTL and unknown clients are not cached")
+    void expiresAndDoesNotCacheMisses() throws InterruptedException {
+        ClientMsClient client = client(Duration.ofMillis(200), 32);
+
+        client.findClient("c-2").block();
+        Thread.sleep(300);
+        client.findClient("c-2").block();
+        assertEquals(2, hits.get("c-2").get());
+
+        StepVerifier.create(client.findClient("missing")).verifyComplete();
+        StepVerifier.create(client.findClient("missing")).verifyComplete();
+        assertEquals(2, hits.get("missing").get());
+    }
+
+    @Test
+    @DisplayName("A slow ClientMS fails callers fast: timeout first, then the bulkhead rejects extra calls")
+    void slowClientMsFailsFast() {
+        ClientMsClient client = client(Duration.ofMinutes(5), 2);
+
+        StepVerifier.create(client.findClient("slow-1"))
+                .expectError(ClientMsUnavailableException.class)
+                .verify(Duration.ofSeconds(1));
+
+        // dos peticiones lentas ocupan el bulkhead; la tercera no llega a salir
+        client.findClient("slow-2").subscribe(response -> { }, ex -> { });
+        client.findClient("slow-3").subscribe(response -> { }, ex -> { });
+        StepVerifier.create(client.findClient("slow-4"))
+                .expectError(ClientMsUnavailableException.class)
+                .verify(Duration.ofMillis(100));
+        assertEquals(1.0, meterRegistry.counter("clientms.calls.rejected").count());
+        assertEquals(null, hits.get("slow-4"));
+    }
+
+    private ClientMsClient client(Duration ttl, int maxConcurrentCalls) {
+        WebClient webClient = new ClientMsConfig().clientMsWebClient(WebClient.builder(),
+                "http://localhost:" + stub.port(), 8, Duration.ofMillis(100), Duration.ofSeconds(30),
+                Duration.ofMillis(500), Duration.ofMillis(500));
+        return new ClientMsClient(webClient, ttl, 1_000, maxConcurrentCalls, meterRegistry);
+    }
+}
@@ -0,0 +1,237 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.InMemoryMongoTest;
+import com.bootcamp.transactions.domain.Account;
+import com.bootcamp.transactions.domain.IdempotencyRecord;
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionSnapshot;
+import com.bootcamp.transactions.dto.DepositRequest;
+import com.bootcamp.transactions.dto.WithdrawalRequest;
+import com.bootcamp.transactions.exception.IdempotencyKeyInProgressException;
+import com.bootcamp.transactions.exception.InsufficientFundsException;
+import com.bootcamp.transactions.repository.AccountRepository;
+import com.bootcamp.transactions.repository.IdempotencyRecordRepository;
+import com.bootcamp.transactions.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@AutoConfigureWebTestClient
+@DisplayName("IdempotencyService")
+class IdempotencyServiceTest extends InMemoryMongoTest {
+
+    private static final Money OPENING = Money.parse("100.00");
+
+    @Autowired IdempotencyService idempotencyService;
+    @Autowired TransactionService transactionService;
+    @Autowired AccountRepository accountRepository;
+    @Autowired TransactionRepository transactionRepository;
+    @Autowired IdempotencyRecordRepository idempotencyRepository;
+    @Autowired WebTestClient webTestClient;
+    @Autowired ReactiveMongoOperations mongoOperations;
+
+    @BeforeEach
+    void cleanUp() {
+        accountRepository.deleteAll().then(transactionRepository.deleteAll()).then(idempotencyRepository.deleteAll()).block();
+        accountRepository.save(new Account("ACC-1", OPENING)).block();
+    }
+
+    @Test
+    @DisplayName("A retried POST with the same key gets the first response and moves money once")
+    void retryReturnsStoredResponse() {
+        String first = deposit("key-1", "{\"cuenta\":\"ACC-1\",\"monto\":10.00}").expectStatus().isCreated()
+                .expectBody(Transaction.class).returnResult().getResponseBody().getId();
+        String retry = deposit("key-1", "{\"cuenta\":\"ACC-1\",\"monto\":10.00}").expectStatus().isCreated()
+                .expectBody(Transaction.class).returnResult().getResponseBody().getId();
+
+        assertEquals(first, retry);
+        assertEquals(Money.parse("110.00"), accountRepository.findById("ACC-1").block().getBalance());
+        assertEquals(1L, transactionRepository.count().block());
+        assertEquals(first, idempotencyRepository.findById(IdempotencyRecord.id("deposito", "key-1")).block().getResponse().getId());
+    }
+
+    @Test
+    @DisplayName("A retry whose JSON orders fields or writes the amount differently is the same request")
+    void fingerprintUsesCanonicalFields() {
+        String first = deposit("key-6", "{\"cuenta\":\"ACC-1\",\"monto\":10.00}").expectStatus().isCreated()
+                .expectBody(Transaction.class).returnResult().getResponseBody().getId();
+        String retry = deposit("key-6", "{\"monto\":10, \"cuenta\":\"ACC-1\"}").expectStatus().isCreated()
+                .expectBody(Transaction.class).returnResult().getResponseBody().getId();
+
+        assertEquals(first, retry);
+        assertEquals("ACC-1|1000", idempotencyRepository.findById(IdempotencyRecord.id("deposito", "key-6")).block().getRequest());
+    }
+
+    @Test
+    @DisplayName("The same key with a different body is rejected")
+    void keyReusedWithOtherRequest() {
+        deposit("key-4", "{\"cuenta\":\"ACC-1\",\"monto\":10.00}").expectStatus().isCreated();
+
+        deposit("key-4", "{\"cuenta\":\"ACC-1\",\"monto\":99.00}").expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertEquals(Money.parse("110.00"), accountRepository.findById("ACC-1").block().getBalance());
+    }
+
+    @Test
+    @DisplayName("Concurrent duplicates wait for the first execution instead of running again")
+    void concurrentDuplicatesShareOneExecution() {
+        DepositRequest request = new DepositRequest("ACC-1", Money.parse("5.00"));
+
+        Set<String> ids = Flux.range(0, 20)
+                .flatMap(i -> idempotencyService.execute("deposito", "key-2", request, () -> transactionService.deposit(request)))
+                .map(Transaction::getId)
+                .collect(Collectors.toSet())
+                .block();
+
+        assertEquals(1, ids.size());
+        assertEquals(Money.parse("105.00"), accountRepository.findById("ACC-1").block().getBalance());
+    }
+
+    @Test
+    @DisplayName("A failed execution frees the key so the retry runs again")
+    void failureReleasesKey() {
+        WithdrawalRequest request = new WithdrawalRequest("ACC-1", Money.parse("150.00"));
+
+        StepVerifier.create(idempotencyService.execute("retiro", "key-3", request, () -> transactionService.withdraw(request)))
+                .expectError(InsufficientFundsException.class)
+                .verify();
+        accountRepository.save(new Account("ACC-1", Money.parse("200.00"))).block();
+
+        StepVerifier.create(idempotencyService.execute("retiro", "key-3", request, () -> transactionService.withdraw(request)))
+                .expectNextCount(1)
+                .verifyComplete();
+        assertEquals(Money.parse("50.00"), accountRepository.findById("ACC-1").block().getBalance());
+    }
+
+    @Test
+    @DisplayName("A key held by another instance is awaited and fails with in-progress if it never completes")
+    void keyHeldElsewhere() {
+        IdempotencyService shortWait = service(Duration.ofSeconds(10), Duration.ofMillis(300));
+        DepositRequest request = new DepositRequest("ACC-1", Money.parse("5.00"));
+        Transaction stored = Transaction.builder().id("tx-other").amount(Money.parse("5.00")).build();
+        Instant now = Instant.now();
+        idempotencyRepository.insert(IdempotencyRecord.claim(IdempotencyRecord.id("deposito", "held"), request.fingerprint(), "other", now, now.plusSeconds(60)))
+                .then(idempotencyRepository.insert(IdempotencyRecord.claim(IdempotencyRecord.id("deposito", "done-later"), request.fingerprint(), "other", now, now.plusSeconds(60))))
+                .block();
+
+        StepVerifier.create(shortWait.execute("deposito", "held", request, () -> transactionService.deposit(request)))
+                .expectError(IdempotencyKeyInProgressException.class)
+                .verify();
+        StepVerifier.create(shortWait.execute("deposito", "done-later", request, () -> transactionService.deposit(request)))
+                .then(() -> idempotencyRepository.save(new IdempotencyRecord(IdempotencyRecord.id("deposito", "done-later"),
+                        request.fingerprint(), TransactionSnapshot.of(stored), "other", now, null, now.plusSeconds(60))).subscribe())
+                .expectNextMatches(tx -> tx.getId().equals("tx-other"))
+                .verifyComplete();
+        assertEquals(OPENING, accountRepository.findById("ACC-1").block().getBalance());
+    }
+
+    @Test
+    @DisplayName("A key left in progress by a crashed instance is taken over once its lease has expired")
+    void abandonedKeyIsTakenOver() {
+        DepositRequest request = new DepositRequest("ACC-1", Money.parse("5.00"));
+        Instant crashedAt = Instant.now().minusSeconds(30);
+        idempotencyRepository.insert(IdempotencyRecord.claim(IdempotencyRecord.id("deposito", "crashed"), request.fingerprint(),
+                "dead-instance", crashedAt, crashedAt.plusSeconds(10))).block();
+
+        StepVerifier.create(idempotencyService.execute("deposito", "crashed", request, () -> transactionService.deposit(request)))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        IdempotencyRecord record = idempotencyRepository.findById(IdempotencyRecord.id("deposito", "crashed")).block();
+        assertTrue(record.isCompleted());
+        assertNull(record.getLeaseUntil());
+        // la caducidad de un día solo se pone al guardar la respuesta
+        assertTrue(record.getExpiresAt().isAfter(Instant.now().plus(Duration.ofHours(23))));
+        assertEquals(Money.parse("105.00"), accountRepository.findById("ACC-1").block().getBalance());
+    }
+
+    @Test
+    @DisplayName("An in-progress key only holds a short lease, renewed while the execution runs")
+    void leaseIsRenewedWhileRunning() {
+        IdempotencyService first = service(Duration.ofMillis(150), Duration.ofSeconds(5));
+        IdempotencyService otherInstance = service(Duration.ofMillis(150), Duration.ofSeconds(5));
+        DepositRequest request = new DepositRequest("ACC-1", Money.parse("5.00"));
+        String id = IdempotencyRecord.id("deposito", "slow");
+
+        Mono<Transaction> slow = first.execute("deposito", "slow", request,
+                () -> Mono.delay(Duration.ofMillis(600)).then(transactionService.deposit(request)));
+        StepVerifier.create(slow.zipWith(Mono.delay(Duration.ofMillis(400))
+                                .then(idempotencyRepository.findById(id))
+                                .flatMap(inProgress -> {
+                                    assertFalse(inProgress.isCompleted());
+                                    assertTrue(inProgress.getExpiresAt().isBefore(Instant.now().plusSeconds(1)));
+                                    return otherInstance.execute("deposito", "slow", request, () -> transactionService.deposit(request));
+                                })))
+                .assertNext(both -> assertEquals(both.getT1().getId(), both.getT2().getId()))
+                .verifyComplete();
+        assertEquals(Money.parse("105.00"), accountRepository.findById("ACC-1").block().getBalance());
+    }
+
+    @Test
+    @DisplayName("Cancelling before the execution finishes frees the key so the retry runs")
+    void cancelReleasesKey() {
+        DepositRequest request = new DepositRequest("ACC-1", Money.parse("5.00"));
+        String id = IdempotencyRecord.id("deposito", "cancelled");
+
+        Disposable abandoned = idempotencyService.execute("deposito", "cancelled", request, Mono::never).subscribe();
+        await(() -> idempotencyRepository.existsById(id));
+        abandoned.dispose();
+        await(() -> idempotencyRepository.existsById(id).map(exists -> !exists));
+
+        StepVerifier.create(idempotencyService.execute("deposito", "cancelled", request, () -> transactionService.deposit(request)))
+                .expectNextCount(1)
+                .verifyComplete();
+        assertEquals(Money.parse("105.00"), accountRepository.findById("ACC-1").block().getBalance());
+    }
+
+    @Test
+    @DisplayName("The keys collection is indexed only by _id and the TTL, not by the stored response")
+    void noResponseIndexes() {
+        deposit("key-5", "{\"cuenta\":\"ACC-1\",\"monto\":1.00}").expectStatus().isCreated();
+
+        Set<String> indexes = mongoOperations.indexOps(IdempotencyRecord.class).getIndexInfo().map(IndexInfo::getName)
+                .collect(Collectors.toSet()).block();
+        assertEquals(Set.of("_id_", "idx_idempotency_ttl"), indexes);
+    }
+
+    private IdempotencyService service(Duration lease, Duration waitTimeout) {
+        return new IdempotencyService(idempotencyRepository, Duration.ofHours(1), lease, waitTimeout, Duration.ofMillis(20),
+                Duration.ofMinutes(1), 100, new SimpleMeterRegistry());
+    }
+
+    private static void await(Supplier<Mono<Boolean>> condition) {
+        Mono.defer(condition).filter(done -> done)
+                .repeatWhenEmpty(repeats -> repeats.delayElements(Duration.ofMillis(10)))
+                .block(Duration.ofSeconds(5));
+    }
+
+    private WebTestClient.ResponseSpec deposit(String key, String body) {
+        return webTestClient.post().uri("/transacciones/deposito")
+                .header("Idempotency-Key", key)
+                .header("Content-Type", "application/json")
+                .bodyValue(body)
+                .exchange();
+    }
+}
@@ -0,0 +1,224 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.InMemoryMongoTest;
+import com.bootcamp.transactions.domain.Account;
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionBucket;
+import com.bootcamp.transactions.domain.TransactionStatus;
+import com.bootcamp.transactions.domain.TransactionType;
+import com.bootcamp.transactions.repository.AccountRepository;
+import com.bootcamp.transactions.repository.BalanceCheckpointRepository;
+import com.bootcamp.transactions.repository.BalanceRollupRepository;
+import com.bootcamp.transactions.repository.TransactionBucketRepository;
+import com.bootcamp.transactions.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("LedgerArchiver")
+class LedgerArchiverTest extends InMemoryMongoTest {
+
+    private static final Money OPENING = Money.parse("5000.00");
+    private static final int MAX_ENTRIES = 20;
+    private static final int ARCHIVE_AFTER_MONTHS = 2;
+
+    @Autowired TransactionService transactionService;
+    @Autowired BalanceCheckpointService checkpointService;
+    @Autowired AccountRepository accountRepository;
+    @Autowired TransactionRepository transactionRepository;
+    @Autowired BalanceCheckpointRepository checkpointRepository;
+    @Autowired BalanceRollupRepository rollupRepository;
+    @Autowired TransactionBucketRepository bucketRepository;
+    @Autowired ReactiveMongoOperations mongoOperations;
+
+    private LedgerArchiver archiver;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository.deleteAll().then(transactionRepository.deleteAll()).then(checkpointRepository.deleteAll())
+                .then(rollupRepository.deleteAll()).then(bucketRepository.deleteAll())
+                .then(mongoOperations.remove(new Query(), TransactionBucket.ARCHIVE))
+                .block();
+        archiver = new LedgerArchiver(transactionRepository, bucketRepository, MAX_ENTRIES, ARCHIVE_AFTER_MONTHS,
+                Duration.ofDays(1), 50, new SimpleMeterRegistry());
+        now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    @Test
+    @DisplayName("Compacting and archiving keep history and statements identical across tiers")
+    void readsAreTransparentAcrossTiers() {
+        List<Transaction> ledger = seedLedger();
+        List<String> walkBefore = walk(null, null);
+        List<String> rangeBefore = walk(now.minus(Duration.ofDays(100)), now.minus(Duration.ofDays(20)));
+        List<Money> statementsBefore = statements();
+
+        archiver.compact().then(archiver.archive()).block();
+
+        // la transferencia a medias de hace 40 días frena el compactado: lo posterior sigue en transactions
+        Instant pendingDate = now.minus(Duration.ofDays(40));
+        List<Transaction> hot = transactionRepository.findAll().collectList().block();
+        assertFalse(hot.isEmpty());
+        assertTrue(hot.stream().noneMatch(tx -> tx.getDate().isBefore(pendingDate)));
+
+        String cutoff = YearMonth.now(ZoneOffset.UTC).minusMonths(ARCHIVE_AFTER_MONTHS).toString();
+        List<TransactionBucket> hotBuckets = bucketRepository.findAll().collectList().block();
+        List<TransactionBucket> archived = mongoOperations.findAll(TransactionBucket.class, TransactionBucket.ARCHIVE)
+                .collectList().block();
+        assertFalse(hotBuckets.isEmpty());
+        assertFalse(archived.isEmpty());
+        assertTrue(hotBuckets.stream().allMatch(bucket -> bucket.getMonth().compareTo(cutoff) >= 0));
+        assertTrue(archived.stream().allMatch(bucket -> bucket.getMonth().compareTo(cutoff) < 0));
+        assertTrue(Flux.concat(Flux.fromIterable(hotBuckets), Flux.fromIterable(archived))
+                .all(bucket -> bucket.getCount() <= MAX_ENTRIES && bucket.getCount() == bucket.getEntries().size())
+                .block());
+
+        // los totales de los buckets de la cuenta cuadran con lo que se movió
+        Money moved = ledger.stream()
+                .filter(tx -> tx.getStatus() == TransactionStatus.COMMITTED && tx.getDate().isBefore(pendingDate))
+                .filter(tx -> "ACC-ARCH".equals(tx.getSourceAccount()) || "ACC-ARCH".equals(tx.getDestAccount()))
+                .map(tx -> tx.signedAmountFor("ACC-ARCH"))
+                .reduce(Money.ZERO, Money::plus);
+        Money bucketed = Flux.concat(Flux.fromIterable(hotBuckets), Flux.fromIterable(archived))
+                .filter(bucket -> bucket.getAccount().equals("ACC-ARCH"))
+                .map(bucket -> bucket.getCredits().minus(bucket.getDebits()))
+                .reduce(Money.ZERO, Money::plus)
+                .block();
+        assertEquals(moved, bucketed);
+
+        assertEquals(walkBefore, walk(null, null));
+        assertEquals(rangeBefore, walk(now.minus(Duration.ofDays(100)), now.minus(Duration.ofDays(20))));
+        assertEquals(statementsBefore, statements());
+    }
+
+    @Test
+    @DisplayName("Running again, or replaying a transaction left behind by a crash, adds no entries")
+    void compactionIsIdempotent() {
+        List<Transaction> ledger = seedLedger();
+        archiver.compact().then(archiver.archive()).block();
+        long entries = totalEntries();
+
+        archiver.compact().then(archiver.archive()).block();
+        assertEquals(entries, totalEntries());
+
+        // caída entre añadir la entrada al bucket y borrarla de transactions
+        Transaction lastMoved = ledger.stream()
+                .filter(tx -> tx.getStatus() != TransactionStatus.PENDING)
+                .filter(tx -> tx.getDate().isBefore(now.minus(Duration.ofDays(40))))
+                .max(Comparator.comparing(Transaction::getDate).thenComparing(Transaction::getId))
+                .orElseThrow();
+        transactionRepository.insert(lastMoved).block();
+        archiver.compact().block();
+        assertEquals(entries, totalEntries());
+        assertFalse(transactionRepository.existsById(lastMoved.getId()).block());
+    }
+
+    @Test
+    @DisplayName("Bucket collections carry only the bucket index, none per embedded entry")
+    void bucketsHaveNoEntryIndexes() {
+        seedLedger();
+        archiver.compact().then(archiver.archive()).block();
+
+        assertEquals(Set.of("_id_", "idx_bucket_account_month"), indexNames(TransactionBucket.HOT));
+        assertEquals(Set.of("_id_", "idx_bucket_account_month"), indexNames(TransactionBucket.ARCHIVE));
+    }
+
+    /**
+     * 400 movimientos en los últimos 150 días entre ACC-ARCH y ACC-PEER, una transferencia a medias de
+     * hace 40 días y los checkpoints y el saldo que dejaría todo eso.
+     */
+    private List<Transaction> seedLedger() {
+        List<Transaction> ledger = new ArrayList<>();
+        Instant start = now.minus(Duration.ofDays(150));
+        for (int i = 0; i < 400; i++) {
+            Instant date = start.plusSeconds(i * 32_000L);
+            Money amount = Money.ofMinor(100 + i * 13L);
+            ledger.add(switch (i % 5) {
+                case 0 -> tx(TransactionType.DEPOSITO, TransactionStatus.COMMITTED, amount, date, "ACC-ARCH", null);
+                case 1 -> tx(TransactionType.RETIRO, TransactionStatus.COMMITTED, amount, date, "ACC-ARCH", null);
+                case 2 -> tx(TransactionType.TRANSFERENCIA, TransactionStatus.COMMITTED, amount, date, "ACC-ARCH", "ACC-PEER");
+                case 3 -> tx(TransactionType.TRANSFERENCIA, TransactionStatus.CANCELLED, amount, date, "ACC-PEER", "ACC-ARCH");
+                default -> tx(TransactionType.TRANSFERENCIA, TransactionStatus.COMMITTED, amount, date, "ACC-PEER", "ACC-ARCH");
+            });
+        }
+        ledger.add(tx(TransactionType.TRANSFERENCIA, TransactionStatus.PENDING, Money.parse("1.00"),
+                now.minus(Duration.ofDays(40)), "ACC-ARCH", "ACC-PEER"));
+        transactionRepository.insert(ledger).blockLast();
+        Flux.fromIterable(ledger)
+                .filter(tx -> tx.getStatus() == TransactionStatus.COMMITTED)
+                .concatMap(checkpointService::record)
+                .blockLast();
+        Money balance = ledger.stream()
+                .filter(tx -> tx.getStatus() == TransactionStatus.COMMITTED)
+                .map(tx -> tx.signedAmountFor("ACC-ARCH"))
+                .reduce(OPENING, Money::plus);
+        accountRepository.save(new Account("ACC-ARCH", balance)).block();
+        return ledger;
+    }
+
+    /** Ids del historial completo de ACC-ARCH, recorrido por páginas de 37. */
+    private List<String> walk(Instant desde, Instant hasta) {
+        List<String> ids = new ArrayList<>();
+        String before = null;
+        while (true) {
+            List<Transaction> page = transactionService.history("ACC-ARCH", before, desde, hasta, 37).collectList().block();
+            page.forEach(tx -> ids.add(tx.getId()));
+            if (page.size() < 37) {
+                return ids;
+            }
+            before = page.get(page.size() - 1).getId();
+        }
+    }
+
+    private List<Money> statements() {
+        List<Money> balances = new ArrayList<>();
+        for (int days = 160; days >= 0; days -= 7) {
+            balances.add(checkpointService.balanceAt("ACC-ARCH", now.minus(Duration.ofDays(days)).minusSeconds(days * 997L)).block());
+        }
+        return balances;
+    }
+
+    private long totalEntries() {
+        return Flux.concat(bucketRepository.findAll(),
+                        mongoOperations.findAll(TransactionBucket.class, TransactionBucket.ARCHIVE))
+                .map(bucket -> (long) bucket.getCount())
+                .reduce(0L, Long::sum)
+                .block();
+    }
+
+    private Set<String> indexNames(String collection) {
+        return mongoOperations.indexOps(collection).getIndexInfo().map(IndexInfo::getName)
+                .collect(Collectors.toSet()).block();
+    }
+
+    /** Con el id generado en la fecha de la transacción, como al escribirla. */
+    private static Transaction tx(TransactionType type, TransactionStatus status, Money amount, Instant date,
+                                  String source, String dest) {
+        return Transaction.builder().id(new ObjectId(Date.from(date)).toHexString())
+                .type(type).status(status).amount(amount).date(date).sourceAccount(source).destAccount(dest).build();
+    }
+}
@@ -0,0 +1,74 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.InMemoryMongoTest;
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionStatus;
+import com.bootcamp.transactions.domain.TransactionType;
+import com.bootcamp.transactions.repository.TransactionRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("LedgerWriter")
+class LedgerWriterTest extends InMemoryMongoTest {
+
+    @Autowired LedgerWriter ledgerWriter;
+    @Autowired TransactionRepository transactionRepository;
+    @Autowired MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void cleanUp() {
+        transactionRepository.deleteAll().block();
+    }
+
+    @Test
+    @DisplayName("Concurrent writes are grouped into batches and every caller sees its record stored")
+    void concurrentWritesAreBatched() {
+        DistributionSummary batches = meterRegistry.get("ledger.batch.size").summary();
+        long batchesBefore = batches.count();
+
+        List<Transaction> written = Flux.range(0, 1000)
+                .flatMap(i -> ledgerWriter.write(deposit()), 256)
+                .collectList()
+                .block();
+
+        assertEquals(1000, written.size());
+        written.forEach(tx -> assertNotNull(tx.getId()));
+        assertEquals(1000, transactionRepository.count().block());
+        assertTrue(batches.count() - batchesBefore < 1000, "los registros deben agruparse en lotes");
+    }
+
+    @Test
+    @DisplayName("A failed batch is retried one by one and records already stored count as written")
+    void failedBatchFallsBackToSingleInserts() {
+        Transaction alreadyStored = deposit();
+        alreadyStored.setId(new ObjectId().toHexString());
+        transactionRepository.insert(alreadyStored).block();
+
+        List<Transaction> written = Flux.just(alreadyStored, deposit(), deposit())
+                .flatMap(ledgerWriter::write)
+                .collectList()
+                .block();
+
+        assertEquals(3, written.size());
+        assertEquals(3, transactionRepository.count().block());
+    }
+
+    private static Transaction deposit() {
+        return Transaction.builder().type(TransactionType.DEPOSITO).status(TransactionStatus.COMMITTED)
+                .amount(Money.parse("1.00")).date(Instant.now()).sourceAccount("ACC-1").build();
+    }
+}
@@ -0,0 +1,132 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.InMemoryMongoTest;
+import com.bootcamp.transactions.domain.Account;
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.ReconciliationDiscrepancy;
+import com.bootcamp.transactions.domain.ReconciliationPartition;
+import com.bootcamp.transactions.domain.ReconciliationRun;
+import com.bootcamp.transactions.domain.TransactionBucket;
+import com.bootcamp.transactions.dto.DepositRequest;
+import com.bootcamp.transactions.dto.TransferRequest;
+import com.bootcamp.transactions.dto.WithdrawalRequest;
+import com.bootcamp.transactions.repository.AccountRepository;
+import com.bootcamp.transactions.repository.ReconciliationBaselineRepository;
+import com.bootcamp.transactions.repository.ReconciliationDiscrepancyRepository;
+import com.bootcamp.transactions.repository.ReconciliationPartitionRepository;
+import com.bootcamp.transactions.repository.ReconciliationRunRepository;
+import com.bootcamp.transactions.repository.TransactionBucketRepository;
+import com.bootcamp.transactions.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@DisplayName("ReconciliationJob")
+class ReconciliationJobTest extends InMemoryMongoTest {
+
+    private static final Money OPENING = Money.parse("100.00");
+
+    @Autowired TransactionService transactionService;
+    @Autowired TransferService transferService;
+    @Autowired AccountRepository accountRepository;
+    @Autowired TransactionRepository transactionRepository;
+    @Autowired TransactionBucketRepository bucketRepository;
+    @Autowired ReconciliationRunRepository runRepository;
+    @Autowired ReconciliationPartitionRepository partitionRepository;
+    @Autowired ReconciliationDiscrepancyRepository discrepancyRepository;
+    @Autowired ReconciliationBaselineRepository baselineRepository;
+    @Autowired ReactiveMongoOperations mongoOperations;
+
+    private ReconciliationJob job;
+
+    @BeforeEach
+    void cleanUp() {
+        accountRepository.deleteAll().then(transactionRepository.deleteAll()).then(bucketRepository.deleteAll())
+                .then(mongoOperations.remove(new Query(), TransactionBucket.ARCHIVE))
+                .then(runRepository.deleteAll()).then(partitionRepository.deleteAll())
+                .then(discrepancyRepository.deleteAll()).then(baselineRepository.deleteAll())
+                .block();
+        job = new ReconciliationJob(accountRepository, transactionRepository, bucketRepository, runRepository,
+                partitionRepository, discrepancyRepository, baselineRepository, 3, 2, Duration.ofMillis(10),
+                new SimpleMeterRegistry());
+        Flux.range(0, 10).flatMap(i -> accountRepository.save(new Account(account(i), OPENING))).blockLast();
+    }
+
+    @Test
+    @DisplayName("Balances moved through the ledger reconcile and a balance changed behind its back is reported")
+    void reportsOnlyTamperedAccounts() {
+        transactionService.deposit(new DepositRequest(account(0), Money.parse("25.00"))).block();
+        transactionService.withdraw(new WithdrawalRequest(account(1), Money.parse("40.00"))).block();
+        transferService.transfer(new TransferRequest(account(2), account(7), Money.parse("12.34"))).block();
+
+        ReconciliationRun first = job.reconcile().block();
+
+        assertNotNull(first.getFinishedAt());
+        assertEquals(10, first.getAccounts());
+        assertEquals(4, first.getPartitions());
+        assertEquals(0, first.getDiscrepancies());
+        assertEquals(10L, baselineRepository.count().block());
+
+        // movimientos posteriores por el ledger, también ya compactados en un bucket
+        transferService.transfer(new TransferRequest(account(7), account(3), Money.parse("2.34"))).block();
+        accountRepository.credit(account(5), Money.parse("20.00")).block();
+        bucketRepository.insert(TransactionBucket.builder().account(account(5)).month("2026-01")
+                .credits(Money.parse("30.00")).debits(Money.parse("10.00")).build()).block();
+        accountRepository.credit(account(8), Money.parse("0.01")).block();
+        Account inFlight = accountRepository.findById(account(9)).block();
+        inFlight.setBalance(Money.parse("1.00"));
+        inFlight.getPendingTransactions().add("tx-in-flight");
+        accountRepository.save(inFlight).block();
+
+        ReconciliationRun second = job.reconcile().block();
+
+        assertEquals(1, second.getDiscrepancies());
+        assertEquals(1, second.getInFlight());
+        List<ReconciliationDiscrepancy> report = discrepancyRepository.findByRunId(second.getId()).collectList().block();
+        assertEquals(1, report.size());
+        assertEquals(account(8), report.get(0).getAccount());
+        assertEquals(Money.parse("0.01"), report.get(0).getDifference());
+        assertEquals(OPENING, report.get(0).getOpening());
+    }
+
+    @Test
+    @DisplayName("An interrupted run is resumed: unfinished partitions are redone and the rest continue after the last one")
+    void resumesInterruptedRun() {
+        ReconciliationRun run = runRepository.insert(ReconciliationRun.start()).block();
+        // se cortó con el primer tramo terminado y el segundo empezado
+        ReconciliationPartition done = ReconciliationPartition.open(run.getId(), null, account(2));
+        done.setFinishedAt(Instant.now());
+        done.setAccounts(3);
+        partitionRepository.insert(done).then(partitionRepository.insert(ReconciliationPartition.open(run.getId(), account(2), account(5))))
+                .block();
+
+        ReconciliationRun resumed = job.reconcile().block();
+
+        assertEquals(run.getId(), resumed.getId());
+        assertNotNull(resumed.getFinishedAt());
+        assertEquals(10, resumed.getAccounts());
+        List<String> lasts = new ArrayList<>(partitionRepository.findByRunId(run.getId()).map(ReconciliationPartition::getLastAccount)
+                .collectList().block());
+        lasts.sort(null);
+        assertEquals(List.of(account(2), account(5), account(8), account(9)), lasts);
+        // solo los tramos conciliados en esta ejecución fijan saldo de apertura
+        assertEquals(7L, baselineRepository.count().block());
+    }
+
+    private static String account(int i) {
+        return "REC-" + String.format("%02d", i);
+    }
+}
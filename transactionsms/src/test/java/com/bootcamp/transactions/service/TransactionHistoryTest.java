@@ -0,0 +1,144 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.InMemoryMongoTest;
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionStatus;
+import com.bootcamp.transactions.domain.TransactionType;
+import com.bootcamp.transactions.exception.InvalidCursorException;
+import com.bootcamp.transactions.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@AutoConfigureWebTestClient
+@DisplayName("Transaction history")
+class TransactionHistoryTest extends InMemoryMongoTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+    private static final int OWN = 120;
+    private static final Comparator<Transaction> NEWEST_FIRST =
+            Comparator.comparing(Transaction::getDate).thenComparing(Transaction::getId).reversed();
+
+    @Autowired TransactionService transactionService;
+    @Autowired TransactionRepository transactionRepository;
+    @Autowired ReactiveMongoTemplate mongoTemplate;
+    @Autowired WebTestClient webTestClient;
+
+    @BeforeEach
+    void seed() {
+        transactionRepository.deleteAll().block();
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < OWN; i++) {
+            // de tres en tres comparten fecha, para que el desempate por id cuente
+            Instant date = START.plusSeconds(i / 3 * 60L);
+            transactions.add(i % 2 == 0 ? transfer("ACC-H", "ACC-X", date) : transfer("ACC-Y", "ACC-H", date));
+            transactions.add(transfer("ACC-X", "ACC-Y", date));
+        }
+        transactionRepository.saveAll(transactions).blockLast();
+    }
+
+    @Test
+    @DisplayName("Indexes for both sides of the history query are created at startup")
+    void historyIndexesExist() {
+        List<String> names = mongoTemplate.indexOps(Transaction.class).getIndexInfo().map(IndexInfo::getName)
+                .collectList().block();
+
+        assertTrue(names.contains("idx_tx_source_date"), names::toString);
+        assertTrue(names.contains("idx_tx_dest_date"), names::toString);
+    }
+
+    @Test
+    @DisplayName("Keyset pages walk the whole history newest first without gaps or repeats")
+    void keysetPagesCoverTheHistory() {
+        List<Transaction> walked = new ArrayList<>();
+        String before = null;
+        int pages = 0;
+        do {
+            List<Transaction> page = transactionService.history("ACC-H", before, null, null, 50).collectList().block();
+            walked.addAll(page);
+            before = page.size() < 50 ? null : page.get(page.size() - 1).getId();
+            pages++;
+        } while (before != null);
+
+        assertEquals(3, pages);
+        assertEquals(OWN, walked.size());
+        assertEquals(OWN, walked.stream().map(Transaction::getId).distinct().count());
+        assertEquals(walked.stream().sorted(NEWEST_FIRST).toList(), walked);
+        assertTrue(walked.stream().allMatch(tx -> "ACC-H".equals(tx.getSourceAccount()) || "ACC-H".equals(tx.getDestAccount())));
+    }
+
+    @Test
+    @DisplayName("desde is inclusive and hasta exclusive")
+    void dateRange() {
+        Instant desde = START.plusSeconds(10 * 60L);
+        Instant hasta = START.plusSeconds(20 * 60L);
+
+        List<Transaction> page = transactionService.history("ACC-H", null, desde, hasta, 500).collectList().block();
+
+        assertEquals(30, page.size());
+        assertTrue(page.stream().allMatch(tx -> !tx.getDate().isBefore(desde) && tx.getDate().isBefore(hasta)));
+    }
+
+    @Test
+    @DisplayName("Unfinished and cancelled transactions are left out of the history")
+    void onlyCommittedTransactions() {
+        Instant latest = START.plusSeconds(OWN * 60L);
+        List<Transaction> unfinished = new ArrayList<>();
+        for (TransactionStatus status : List.of(TransactionStatus.PENDING, TransactionStatus.APPLIED, TransactionStatus.CANCELLED)) {
+            Transaction tx = transfer("ACC-H", "ACC-X", latest);
+            tx.setStatus(status);
+            unfinished.add(tx);
+        }
+        transactionRepository.saveAll(unfinished).blockLast();
+
+        List<Transaction> page = transactionService.history("ACC-H", null, null, null, 500).collectList().block();
+
+        assertEquals(OWN, page.size());
+        assertTrue(page.stream().allMatch(tx -> tx.getStatus() == TransactionStatus.COMMITTED));
+    }
+
+    @Test
+    @DisplayName("A cursor that is not a transaction id is rejected")
+    void invalidCursor() {
+        StepVerifier.create(transactionService.history("ACC-H", "not-an-id", null, null, null))
+                .expectError(InvalidCursorException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("History is streamed as NDJSON on request")
+    void ndjson() {
+        Flux<Transaction> body = webTestClient.get()
+                .uri("/transacciones/historial?cuenta=ACC-H&limit=7")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Transaction.class)
+                .getResponseBody();
+
+        StepVerifier.create(body).expectNextCount(7).verifyComplete();
+    }
+
+    private static Transaction transfer(String source, String dest, Instant date) {
+        return Transaction.builder().type(TransactionType.TRANSFERENCIA).status(TransactionStatus.COMMITTED)
+                .amount(Money.parse("1.00")).date(date).sourceAccount(source).destAccount(dest).build();
+    }
+}
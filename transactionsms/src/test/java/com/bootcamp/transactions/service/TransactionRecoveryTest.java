@@ -0,0 +1,108 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.InMemoryMongoTest;
+import com.bootcamp.transactions.domain.Account;
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionStatus;
+import com.bootcamp.transactions.domain.TransactionType;
+import com.bootcamp.transactions.dto.DepositRequest;
+import com.bootcamp.transactions.exception.TransactionCancelledException;
+import com.bootcamp.transactions.repository.AccountRepository;
+import com.bootcamp.transactions.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Depósitos y retiros a medias: el registro va antes que el saldo, así que tras una caída el barrido
+ * encuentra la transacción y la termina o la cancela según la marca de la cuenta.
+ */
+@DisplayName("TransactionService recovery")
+class TransactionRecoveryTest extends InMemoryMongoTest {
+
+    private static final Money OPENING = Money.parse("1000.00");
+    private static final Money AMOUNT = Money.parse("25.00");
+
+    @Autowired TransactionService transactionService;
+    @Autowired TransferService transferService;
+    @Autowired AccountSequencer accountSequencer;
+    @Autowired AccountRepository accountRepository;
+    @Autowired TransactionRepository transactionRepository;
+
+    private TransferRecoveryJob recoveryJob;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository.deleteAll().then(transactionRepository.deleteAll()).block();
+        accountRepository.save(new Account("ACC-REC", OPENING)).block();
+        recoveryJob = new TransferRecoveryJob(transferService, transactionService, transactionRepository, Duration.ZERO);
+    }
+
+    @Test
+    @DisplayName("A deposit that moved the balance before the crash is committed with its checkpoint")
+    void appliedDepositIsCommitted() {
+        Transaction deposit = transactionRepository.insert(pending(TransactionType.DEPOSITO)).block();
+        accountRepository.creditPending("ACC-REC", AMOUNT, deposit.getId()).block();
+
+        recoveryJob.recover().block();
+
+        assertEquals(TransactionStatus.COMMITTED, transactionRepository.findById(deposit.getId()).block().getStatus());
+        assertBalance(OPENING.plus(AMOUNT));
+    }
+
+    @Test
+    @DisplayName("A withdrawal that never reached the balance is cancelled")
+    void unappliedWithdrawalIsCancelled() {
+        Transaction withdrawal = transactionRepository.insert(pending(TransactionType.RETIRO)).block();
+
+        recoveryJob.recover().block();
+
+        assertEquals(TransactionStatus.CANCELLED, transactionRepository.findById(withdrawal.getId()).block().getStatus());
+        assertBalance(OPENING);
+    }
+
+    @Test
+    @DisplayName("Recovery cancelling a deposit still queued in the lane keeps the balance untouched")
+    void recoveryDuringQueuedDeposit() {
+        Sinks.Empty<Void> gate = Sinks.empty();
+        accountSequencer.submit("ACC-REC", gate::asMono).subscribe();
+        CompletableFuture<Transaction> inFlight =
+                transactionService.deposit(new DepositRequest("ACC-REC", AMOUNT)).toFuture();
+        Flux.interval(Duration.ofMillis(10)).onBackpressureDrop().concatMap(tick -> transactionRepository.count())
+                .filter(count -> count > 0).blockFirst(Duration.ofSeconds(5));
+
+        recoveryJob.recover().block();
+        gate.tryEmitEmpty();
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> inFlight.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TransactionCancelledException.class, failure.getCause());
+        assertEquals(TransactionStatus.CANCELLED, transactionRepository.findAll().blockFirst().getStatus());
+        assertBalance(OPENING);
+    }
+
+    private void assertBalance(Money expected) {
+        Account account = accountRepository.findById("ACC-REC").block();
+        assertEquals(expected, account.getBalance());
+        assertTrue(account.getPendingTransactions().isEmpty());
+    }
+
+    private static Transaction pending(TransactionType type) {
+        return Transaction.builder().type(type).status(TransactionStatus.PENDING).amount(AMOUNT)
+                .date(Instant.now().minus(Duration.ofHours(1))).sourceAccount("ACC-REC").build();
+    }
+}
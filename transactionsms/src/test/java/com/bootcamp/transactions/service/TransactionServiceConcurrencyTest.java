@@ -0,0 +1,90 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.InMemoryMongoTest;
+import com.bootcamp.transactions.domain.Account;
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionStatus;
+import com.bootcamp.transactions.domain.TransactionType;
+import com.bootcamp.transactions.dto.DepositRequest;
+import com.bootcamp.transactions.dto.WithdrawalRequest;
+import com.bootcamp.transactions.exception.InsufficientFundsException;
+import com.bootcamp.transactions.repository.AccountRepository;
+import com.bootcamp.transactions.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Stress test de depósitos y retiros concurrentes contra un MongoDB en memoria: el saldo final debe
+ * cuadrar exactamente con el ledger y ningún retiro puede dejar la cuenta en negativo.
+ */
+@DisplayName("TransactionService concurrency")
+class TransactionServiceConcurrencyTest extends InMemoryMongoTest {
+
+    private static final int CONCURRENCY = 64;
+
+    @Autowired TransactionService transactionService;
+    @Autowired AccountRepository accountRepository;
+    @Autowired TransactionRepository transactionRepository;
+
+    @BeforeEach
+    void cleanUp() {
+        accountRepository.deleteAll().then(transactionRepository.deleteAll()).block();
+    }
+
+    @Test
+    @DisplayName("Concurrent deposits and withdrawals on one account lose no update")
+    void concurrentDepositsAndWithdrawalsLoseNoUpdate() {
+        accountRepository.save(new Account("ACC-HOT", Money.parse("1000.00"))).block();
+        AtomicInteger rejected = new AtomicInteger();
+
+        Flux.range(0, 2000)
+                .flatMap(i -> (i % 2 == 0
+                        ? transactionService.deposit(new DepositRequest("ACC-HOT", Money.parse("3.25")))
+                        : transactionService.withdraw(new WithdrawalRequest("ACC-HOT", Money.parse("4.00"))))
+                        .onErrorResume(InsufficientFundsException.class, ex -> {
+                            rejected.incrementAndGet();
+                            return Mono.empty();
+                        }), CONCURRENCY)
+                .blockLast();
+
+        // los retiros rechazados quedan en el ledger como CANCELLED
+        List<Transaction> ledger = transactionRepository.findAll()
+                .filter(tx -> tx.getStatus() == TransactionStatus.COMMITTED).collectList().block();
+        long deposits = ledger.stream().filter(tx -> tx.getType() == TransactionType.DEPOSITO).count();
+        long withdrawals = ledger.stream().filter(tx -> tx.getType() == TransactionType.RETIRO).count();
+        Money expected = Money.parse("1000.00")
+                .plus(Money.parse("3.25").times(deposits))
+                .minus(Money.parse("4.00").times(withdrawals));
+
+        assertEquals(1000, deposits);
+        assertEquals(1000, withdrawals + rejected.get());
+        assertEquals(expected, accountRepository.findById("ACC-HOT").block().getBalance());
+    }
+
+    @Test
+    @DisplayName("Concurrent withdrawals never overdraw the account")
+    void concurrentWithdrawalsNeverOverdraw() {
+        accountRepository.save(new Account("ACC-LOW", Money.parse("100.00"))).block();
+
+        long succeeded = Flux.range(0, 50)
+                .flatMap(i -> transactionService.withdraw(new WithdrawalRequest("ACC-LOW", Money.parse("10.00")))
+                        .onErrorResume(InsufficientFundsException.class, ex -> Mono.empty()), CONCURRENCY)
+                .count()
+                .block();
+
+        assertEquals(10, succeeded);
+        assertEquals(Money.ZERO, accountRepository.findById("ACC-LOW").block().getBalance());
+        assertEquals(10, transactionRepository.findAll().filter(tx -> tx.getStatus() == TransactionStatus.COMMITTED)
+                .count().block());
+    }
+}
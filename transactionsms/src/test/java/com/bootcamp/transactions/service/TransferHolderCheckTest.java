@@ -0,0 +1,77 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.InMemoryMongoTest;
+import com.bootcamp.transactions.domain.Account;
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.TransactionStatus;
+import com.bootcamp.transactions.dto.TransferRequest;
+import com.bootcamp.transactions.exception.ClientNotFoundException;
+import com.bootcamp.transactions.repository.AccountRepository;
+import com.bootcamp.transactions.repository.TransactionRepository;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Comprobación del titular de la cuenta destino contra un client-ms de mentira que solo conoce {@code c-1}. */
+@DisplayName("TransferService holder check")
+class TransferHolderCheckTest extends InMemoryMongoTest {
+
+    private static final Money OPENING = Money.parse("100.00");
+
+    private static final DisposableServer CLIENT_MS = HttpServer.create().host("localhost").port(0)
+            .route(routes -> routes.get("/clientes/{id}", (request, response) -> request.param("id").equals("c-1")
+                    ? response.header("Content-Type", "application/json").sendString(Mono.just(
+                            "{\"id\":\"c-1\",\"firstName\":\"Ana\",\"lastName\":\"Ruiz\"}"))
+                    : response.status(HttpResponseStatus.NOT_FOUND).send()))
+            .bindNow();
+
+    @DynamicPropertySource
+    static void clientMs(DynamicPropertyRegistry registry) {
+        registry.add("clientms.base-url", () -> "http://localhost:" + CLIENT_MS.port());
+    }
+
+    @Autowired TransferService transferService;
+    @Autowired AccountRepository accountRepository;
+    @Autowired TransactionRepository transactionRepository;
+
+    @BeforeEach
+    void cleanUp() {
+        accountRepository.deleteAll().then(transactionRepository.deleteAll()).block();
+        accountRepository.save(new Account("ACC-0", OPENING)).block();
+    }
+
+    @Test
+    @DisplayName("A destination whose holder exists in ClientMS receives the transfer")
+    void knownHolder() {
+        accountRepository.save(new Account("ACC-1", OPENING, new ArrayList<>(), "c-1")).block();
+
+        StepVerifier.create(transferService.transfer(new TransferRequest("ACC-0", "ACC-1", Money.parse("10.00"))))
+                .expectNextMatches(tx -> tx.getStatus() == TransactionStatus.COMMITTED)
+                .verifyComplete();
+        assertEquals(Money.parse("110.00"), accountRepository.findById("ACC-1").block().getBalance());
+    }
+
+    @Test
+    @DisplayName("A destination whose holder is unknown to ClientMS is rejected before anything is written")
+    void unknownHolder() {
+        accountRepository.save(new Account("ACC-1", OPENING, new ArrayList<>(), "c-gone")).block();
+
+        StepVerifier.create(transferService.transfer(new TransferRequest("ACC-0", "ACC-1", Money.parse("10.00"))))
+                .expectError(ClientNotFoundException.class)
+                .verify();
+        assertEquals(OPENING, accountRepository.findById("ACC-0").block().getBalance());
+        assertEquals(0L, transactionRepository.count().block());
+    }
+}
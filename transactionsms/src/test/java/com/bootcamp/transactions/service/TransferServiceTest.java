@@ -0,0 +1,224 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.InMemoryMongoTest;
+import com.bootcamp.transactions.domain.Account;
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionStatus;
+import com.bootcamp.transactions.domain.TransactionType;
+import com.bootcamp.transactions.dto.TransferRequest;
+import com.bootcamp.transactions.exception.AccountNotFoundException;
+import com.bootcamp.transactions.exception.InsufficientFundsException;
+import com.bootcamp.transactions.exception.TransactionCancelledException;
+import com.bootcamp.transactions.repository.AccountRepository;
+import com.bootcamp.transactions.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Transferencias contra un MongoDB en memoria: conservación del dinero bajo concurrencia, con pares de
+ * cuentas disputados e independientes, compensación y recuperación.
+ */
+@DisplayName("TransferService")
+class TransferServiceTest extends InMemoryMongoTest {
+
+    private static final int TRANSFERS = 1000;
+    private static final int CONCURRENCY = 64;
+    private static final Money OPENING = Money.parse("10000.00");
+    private static final Money AMOUNT = Money.parse("12.50");
+
+    @Autowired TransferService transferService;
+    @Autowired TransactionService transactionService;
+    @Autowired TransferRecoveryJob recoveryJob;
+    @Autowired AccountRepository accountRepository;
+    @Autowired TransactionRepository transactionRepository;
+    @Autowired AccountSequencer accountSequencer;
+    @Autowired LedgerWriter ledgerWriter;
+    @Autowired BalanceCheckpointService checkpointService;
+    @Autowired ClientMsClient clientMsClient;
+    @Autowired VelocityLimiter velocityLimiter;
+
+    @BeforeEach
+    void cleanUp() {
+        accountRepository.deleteAll().then(transactionRepository.deleteAll()).block();
+    }
+
+    @Test
+    @DisplayName("Contended pair: every transfer between the same two accounts")
+    void contendedTransfersConserveMoney() {
+        openAccounts(2);
+        runTransfers(i -> i % 2 == 0
+                ? new TransferRequest("ACC-0", "ACC-1", AMOUNT) : new TransferRequest("ACC-1", "ACC-0", AMOUNT));
+        assertSettled(2);
+    }
+
+    @Test
+    @DisplayName("Uncontended pairs: transfers spread over independent accounts")
+    void uncontendedTransfersConserveMoney() {
+        openAccounts(2 * CONCURRENCY);
+        runTransfers(i -> {
+            int pair = i % CONCURRENCY;
+            return new TransferRequest("ACC-" + (2 * pair), "ACC-" + (2 * pair + 1), AMOUNT);
+        });
+        assertSettled(2 * CONCURRENCY);
+    }
+
+    @Test
+    @DisplayName("Insufficient funds cancels the transfer without moving money")
+    void insufficientFundsCancels() {
+        accountRepository.save(new Account("ACC-0", Money.parse("5.00"))).block();
+        accountRepository.save(new Account("ACC-1", OPENING)).block();
+
+        StepVerifier.create(transferService.transfer(new TransferRequest("ACC-0", "ACC-1", AMOUNT)))
+                .expectError(InsufficientFundsException.class).verify();
+
+        assertBalance("ACC-0", Money.parse("5.00"));
+        assertEquals(TransactionStatus.CANCELLED, transactionRepository.findAll().blockFirst().getStatus());
+    }
+
+    @Test
+    @DisplayName("Missing destination refunds the source")
+    void missingDestinationCompensates() {
+        accountRepository.save(new Account("ACC-0", OPENING)).block();
+
+        StepVerifier.create(transferService.transfer(new TransferRequest("ACC-0", "ACC-X", AMOUNT)))
+                .expectError(AccountNotFoundException.class).verify();
+
+        assertBalance("ACC-0", OPENING);
+        assertTrue(accountRepository.findById("ACC-0").block().getPendingTransactions().isEmpty());
+        assertEquals(TransactionStatus.CANCELLED, transactionRepository.findAll().blockFirst().getStatus());
+    }
+
+    @Test
+    @DisplayName("Recovery finishes a debited transfer and cancels one never debited")
+    void recoveryFinishesOrCancelsStaleTransfers() {
+        openAccounts(2);
+        Instant longAgo = Instant.now().minus(Duration.ofHours(1));
+        Transaction debited = transactionRepository.insert(pendingTransfer(longAgo)).block();
+        accountRepository.debitPending("ACC-0", AMOUNT, debited.getId()).block();
+        Transaction notDebited = transactionRepository.insert(pendingTransfer(longAgo)).block();
+
+        recoveryJob.recover().block();
+
+        assertEquals(TransactionStatus.COMMITTED, transactionRepository.findById(debited.getId()).block().getStatus());
+        assertEquals(TransactionStatus.CANCELLED, transactionRepository.findById(notDebited.getId()).block().getStatus());
+        assertBalance("ACC-0", OPENING.minus(AMOUNT));
+        assertBalance("ACC-1", OPENING.plus(AMOUNT));
+        assertSettled(2);
+    }
+
+    @Test
+    @DisplayName("Recovery cancelling a transfer whose debit is still queued moves no money")
+    void recoveryDuringQueuedDebitCancels() throws Exception {
+        openAccounts(2);
+        Sinks.Empty<Void> gate = Sinks.empty();
+        accountSequencer.submit("ACC-0", gate::asMono).subscribe();
+        CompletableFuture<Transaction> inFlight =
+                transferService.transfer(new TransferRequest("ACC-0", "ACC-1", AMOUNT)).toFuture();
+        Flux.interval(Duration.ofMillis(10)).onBackpressureDrop().concatMap(tick -> transactionRepository.count())
+                .filter(count -> count > 0).blockFirst(Duration.ofSeconds(5));
+
+        // el barrido no ve el débito, que espera en el carril, y la cancela
+        new TransferRecoveryJob(transferService, transactionService, transactionRepository, Duration.ZERO).recover().block();
+        gate.tryEmitEmpty();
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> inFlight.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TransactionCancelledException.class, failure.getCause());
+        assertEquals(TransactionStatus.CANCELLED, transactionRepository.findAll().blockFirst().getStatus());
+        assertBalance("ACC-0", OPENING);
+        assertBalance("ACC-1", OPENING);
+        assertSettled(2);
+    }
+
+    @Test
+    @DisplayName("The destination credit waits its turn in the destination account's lane")
+    void creditRunsInDestinationLane() throws Exception {
+        openAccounts(2);
+        Sinks.Empty<Void> gate = Sinks.empty();
+        accountSequencer.submit("ACC-1", gate::asMono).subscribe();
+
+        CompletableFuture<Transaction> inFlight =
+                transferService.transfer(new TransferRequest("ACC-0", "ACC-1", AMOUNT)).toFuture();
+        Thread.sleep(200);
+        assertBalance("ACC-1", OPENING);
+
+        gate.tryEmitEmpty();
+        assertEquals(TransactionStatus.COMMITTED, inFlight.get(5, TimeUnit.SECONDS).getStatus());
+        assertBalance("ACC-0", OPENING.minus(AMOUNT));
+        assertBalance("ACC-1", OPENING.plus(AMOUNT));
+        assertSettled(2);
+    }
+
+    @Test
+    @DisplayName("A debit that lands after recovery cancelled the transfer is reversed, not committed")
+    void lateDebitAfterRecoveryIsReversed() {
+        openAccounts(2);
+        // el barrido cancela justo entre la comprobación de PENDING y el débito
+        AccountRepository racing = mock(AccountRepository.class, delegatesTo(accountRepository));
+        doAnswer(call -> transactionRepository
+                .updateStatus(call.getArgument(2), TransactionStatus.PENDING, TransactionStatus.CANCELLED)
+                .then(accountRepository.debitPending(call.getArgument(0), call.getArgument(1), call.getArgument(2))))
+                .when(racing).debitPending(any(), any(), any());
+        TransferService service = new TransferService(racing, transactionRepository, accountSequencer, ledgerWriter,
+                checkpointService, clientMsClient, velocityLimiter);
+
+        StepVerifier.create(service.transfer(new TransferRequest("ACC-0", "ACC-1", AMOUNT)))
+                .expectError(TransactionCancelledException.class).verify();
+
+        assertEquals(TransactionStatus.CANCELLED, transactionRepository.findAll().blockFirst().getStatus());
+        assertBalance("ACC-0", OPENING);
+        assertBalance("ACC-1", OPENING);
+        assertSettled(2);
+    }
+
+    private void openAccounts(int count) {
+        Flux.range(0, count).flatMap(i -> accountRepository.save(new Account("ACC-" + i, OPENING))).blockLast();
+    }
+
+    private void runTransfers(IntFunction<TransferRequest> request) {
+        Flux.range(0, TRANSFERS)
+                .flatMap(i -> transferService.transfer(request.apply(i))
+                        .onErrorResume(InsufficientFundsException.class, ex -> Mono.empty()), CONCURRENCY)
+                .blockLast();
+    }
+
+    /** Ningún dinero creado ni perdido, ninguna transferencia a medias y ninguna marca colgando. */
+    private void assertSettled(int accounts) {
+        Money total = accountRepository.findAll().map(Account::getBalance).reduce(Money::plus).block();
+        assertEquals(OPENING.times(accounts), total);
+        assertTrue(accountRepository.findAll().all(account -> account.getPendingTransactions().isEmpty()).block());
+        assertTrue(transactionRepository.findAll().all(tx -> tx.getStatus() == TransactionStatus.COMMITTED
+                || tx.getStatus() == TransactionStatus.CANCELLED).block());
+    }
+
+    private void assertBalance(String id, Money expected) {
+        assertEquals(expected, accountRepository.findById(id).block().getBalance());
+    }
+
+    private static Transaction pendingTransfer(Instant date) {
+        return Transaction.builder().type(TransactionType.TRANSFERENCIA).status(TransactionStatus.PENDING)
+                .amount(AMOUNT).date(date).sourceAccount("ACC-0").destAccount("ACC-1").build();
+    }
+}
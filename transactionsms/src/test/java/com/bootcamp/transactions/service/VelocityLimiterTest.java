@@ -0,0 +1,116 @@
+package com.bootcamp.transactions.service;
+
+import com.bootcamp.transactions.InMemoryMongoTest;
+import com.bootcamp.transactions.domain.Money;
+import com.bootcamp.transactions.domain.Transaction;
+import com.bootcamp.transactions.domain.TransactionStatus;
+import com.bootcamp.transactions.domain.TransactionType;
+import com.bootcamp.transactions.exception.VelocityLimitExceededException;
+import com.bootcamp.transactions.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("VelocityLimiter")
+class VelocityLimiterTest extends InMemoryMongoTest {
+
+    @Autowired TransactionRepository transactionRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void cleanUp() {
+        transactionRepository.deleteAll().block();
+    }
+
+    private VelocityLimiter limiter(String withdrawalHourly, String withdrawalDaily, String transferHourly, String transferDaily) {
+        return new VelocityLimiter(transactionRepository, Duration.ofMinutes(10),
+                withdrawalHourly, withdrawalDaily, transferHourly, transferDaily, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Withdrawals beyond the hourly limit are rejected while transfers and other accounts are unaffected")
+    void hourlyLimitPerAccountAndType() {
+        VelocityLimiter limiter = limiter("100.00", "0", "50.00", "0");
+
+        limiter.reserve(TransactionType.RETIRO, "ACC-1", Money.parse("60.00"));
+        limiter.reserve(TransactionType.RETIRO, "ACC-1", Money.parse("40.00"));
+
+        assertThrows(VelocityLimitExceededException.class,
+                () -> limiter.reserve(TransactionType.RETIRO, "ACC-1", Money.parse("0.01")));
+        assertDoesNotThrow(() -> limiter.reserve(TransactionType.TRANSFERENCIA, "ACC-1", Money.parse("50.00")));
+        assertDoesNotThrow(() -> limiter.reserve(TransactionType.RETIRO, "ACC-2", Money.parse("100.00")));
+        assertEquals(1.0, meterRegistry.get("velocity.rejected").tag("type", "RETIRO").tag("window", "hourly").counter().count());
+    }
+
+    @Test
+    @DisplayName("A released reservation frees its room in the window")
+    void releaseGivesRoomBack() {
+        VelocityLimiter limiter = limiter("0", "100.00", "0", "0");
+        VelocityLimiter.Reservation reservation = limiter.reserve(TransactionType.RETIRO, "ACC-1", Money.parse("80.00"));
+        assertThrows(VelocityLimitExceededException.class,
+                () -> limiter.reserve(TransactionType.RETIRO, "ACC-1", Money.parse("30.00")));
+
+        limiter.release(reservation);
+
+        assertDoesNotThrow(() -> limiter.reserve(TransactionType.RETIRO, "ACC-1", Money.parse("100.00")));
+    }
+
+    @Test
+    @DisplayName("Concurrent reservations on one account never go past the limit")
+    void concurrentReservationsRespectLimit() {
+        VelocityLimiter limiter = limiter("100.00", "0", "0", "0");
+
+        List<VelocityLimiter.Reservation> accepted = Flux.range(0, 1000)
+                .parallel().runOn(Schedulers.parallel())
+                .flatMap(i -> Mono.fromSupplier(() -> limiter.reserve(TransactionType.RETIRO, "ACC-HOT", Money.parse("1.00")))
+                        .onErrorResume(VelocityLimitExceededException.class, ex -> Mono.empty()))
+                .sequential()
+                .collectList()
+                .block();
+
+        assertEquals(100, accepted.size());
+    }
+
+    @Test
+    @DisplayName("Startup rebuild counts only committed withdrawals and transfers out of the last 24 hours")
+    void rebuildFromLedger() {
+        Instant now = Instant.now();
+        transactionRepository.saveAll(List.of(
+                tx(TransactionType.RETIRO, TransactionStatus.COMMITTED, "2000.00", now.minus(Duration.ofHours(5))),
+                tx(TransactionType.RETIRO, TransactionStatus.CANCELLED, "900.00", now.minus(Duration.ofHours(1))),
+                tx(TransactionType.RETIRO, TransactionStatus.COMMITTED, "5000.00", now.minus(Duration.ofHours(25))),
+                tx(TransactionType.DEPOSITO, TransactionStatus.COMMITTED, "500.00", now.minus(Duration.ofHours(1))),
+                tx(TransactionType.TRANSFERENCIA, TransactionStatus.COMMITTED, "800.00", now.minus(Duration.ofHours(2)))))
+                .blockLast();
+        VelocityLimiter limiter = limiter("0", "3000.00", "0", "1000.00");
+
+        limiter.rebuild(now).block();
+
+        assertEquals(1, limiter.trackedAccounts());
+        limiter.reserve(TransactionType.RETIRO, "ACC-1", Money.parse("1000.00"));
+        assertThrows(VelocityLimitExceededException.class,
+                () -> limiter.reserve(TransactionType.RETIRO, "ACC-1", Money.parse("0.01")));
+        limiter.reserve(TransactionType.TRANSFERENCIA, "ACC-1", Money.parse("200.00"));
+        assertThrows(VelocityLimitExceededException.class,
+                () -> limiter.reserve(TransactionType.TRANSFERENCIA, "ACC-1", Money.parse("0.01")));
+    }
+
+    private static Transaction tx(TransactionType type, TransactionStatus status, String amount, Instant date) {
+        return Transaction.builder().type(type).status(status).amount(Money.parse(amount)).date(date)
+                .sourceAccount("ACC-1").destAccount(type == TransactionType.TRANSFERENCIA ? "ACC-2" : null).build();
+    }
+}